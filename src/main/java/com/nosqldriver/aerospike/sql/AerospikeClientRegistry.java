@@ -0,0 +1,143 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.Host;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.policy.ClientPolicy;
+import com.nosqldriver.VisibleForPackage;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Driver wide registry of Aerospike clients.
+ *
+ * Creation of Aerospike client is expensive: it performs full cluster tend, opens socket pools and starts tend thread.
+ * Connections that use the same hosts and the same client policy (including credentials) share one client.
+ * The shared client is reference counted and is closed only when the last connection that uses it is closed.
+ */
+@VisibleForPackage
+class AerospikeClientRegistry {
+    private final Map<String, SharedClient> clients = new ConcurrentHashMap<>();
+
+    /**
+     * Returns client registered under given key or creates new one using given factory if such client does not exist yet.
+     * Each call of this method must be paired with call of {@link #release(String)} with the same key.
+     * @param key the client key created by {@link #key(Host[], ClientPolicy)}
+     * @param factory creates new client
+     * @return shared client
+     */
+    @VisibleForPackage
+    IAerospikeClient acquire(String key, Supplier<IAerospikeClient> factory) {
+        return clients.compute(key, (k, shared) -> (shared == null ? new SharedClient(factory.get()) : shared).acquire()).client;
+    }
+
+    /**
+     * Decrements usage counter of client registered under given key and closes the client when it is not used any more.
+     * @param key the client key
+     */
+    @VisibleForPackage
+    void release(String key) {
+        clients.computeIfPresent(key, (k, shared) -> shared.release() > 0 ? shared : null);
+    }
+
+    /**
+     * Returns object attached to the client registered under given key or creates and attaches it if it does not exist yet.
+     * Attachments are used to share per cluster state (e.g. cached metadata) among connections that use the same client.
+     * They are discarded together with the client; attachments that are {@link ExecutorService}s are shut down.
+     * @param key the client key
+     * @param name name of the attachment
+     * @param factory creates the attachment
+     * @param <T> type of the attachment
+     * @return the attachment
+     */
+    @VisibleForPackage
+    @SuppressWarnings("unchecked")
+    <T> T attachment(String key, String name, Supplier<T> factory) {
+        SharedClient shared = clients.get(key);
+        if (shared == null) {
+            throw new IllegalStateException("Client is not registered: " + key);
+        }
+        return (T)shared.attachments.computeIfAbsent(name, n -> factory.get());
+    }
+
+    @VisibleForPackage
+    int size() {
+        return clients.size();
+    }
+
+    /**
+     * Creates key that identifies client by hosts and client policy. Only fields of simple types (primitives, strings and
+     * enums) of the policy are taken into account. Objects like thread pools and event loops are intentionally ignored:
+     * they cannot be configured using connection properties anyway.
+     * @param hosts cluster hosts
+     * @param policy client policy
+     * @return key of the client
+     */
+    @VisibleForPackage
+    static String key(Host[] hosts, ClientPolicy policy) {
+        return key(hosts, policy, 0, 0);
+    }
+
+    /**
+     * Creates key that identifies client by hosts, client policy, number of event loops used for asynchronous calls
+     * and number of threads used by scans: clients that differ by these settings cannot be shared.
+     * @param hosts cluster hosts
+     * @param policy client policy
+     * @param eventLoops number of event loops; 0 means that asynchronous calls are not used
+     * @param scanThreads number of threads of parallel scans; 0 means that scans use the client default
+     * @return key of the client
+     */
+    @VisibleForPackage
+    static String key(Host[] hosts, ClientPolicy policy, int eventLoops, int scanThreads) {
+        String hostsKey = Arrays.stream(hosts).map(h -> h.name + ":" + h.port).sorted().collect(joining(","));
+        Map<String, Object> policyKey = new TreeMap<>();
+        for (Field field : ClientPolicy.class.getFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && isSimple(field.getType())) {
+                try {
+                    policyKey.put(field.getName(), field.get(policy));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        policyKey.put("eventLoops", eventLoops);
+        policyKey.put("scanThreads", scanThreads);
+        return hostsKey + policyKey;
+    }
+
+    private static boolean isSimple(Class<?> type) {
+        return type.isPrimitive() || type.isEnum() || String.class.equals(type);
+    }
+
+    private static class SharedClient {
+        private final IAerospikeClient client;
+        private final Map<String, Object> attachments = new ConcurrentHashMap<>();
+        private int references = 0;
+
+        private SharedClient(IAerospikeClient client) {
+            this.client = client;
+        }
+
+        private SharedClient acquire() {
+            references++;
+            return this;
+        }
+
+        private int release() {
+            references--;
+            if (references <= 0) {
+                attachments.values().stream().filter(a -> a instanceof ExecutorService).forEach(a -> ((ExecutorService)a).shutdownNow());
+                client.close();
+            }
+            return references;
+        }
+    }
+}
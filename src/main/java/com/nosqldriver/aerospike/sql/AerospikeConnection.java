@@ -3,14 +3,17 @@ package com.nosqldriver.aerospike.sql;
 import com.aerospike.client.AerospikeClient;
 import com.aerospike.client.Host;
 import com.aerospike.client.IAerospikeClient;
-import com.aerospike.client.Language;
+import com.aerospike.client.async.EventLoops;
+import com.aerospike.client.async.NioEventLoops;
+import com.aerospike.client.policy.ClientPolicy;
+import com.aerospike.client.policy.InfoPolicy;
 import com.aerospike.client.policy.Policy;
 import com.nosqldriver.VisibleForPackage;
 import com.nosqldriver.sql.BasicArray;
 import com.nosqldriver.sql.ByteArrayBlob;
+import com.nosqldriver.sql.DriverPolicy;
 import com.nosqldriver.sql.SimpleWrapper;
 import com.nosqldriver.sql.StatementEvent;
-import com.nosqldriver.sql.StatementEvent.StatementType;
 import com.nosqldriver.sql.StatementEventListener;
 import com.nosqldriver.sql.StringClob;
 import com.nosqldriver.sql.WarningsHolder;
@@ -32,9 +35,13 @@ import java.sql.SQLXML;
 import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Struct;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -47,12 +54,16 @@ import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
 import static java.sql.Statement.NO_GENERATED_KEYS;
 import static java.util.Arrays.stream;
 import static java.util.Collections.emptyMap;
+import static java.util.Collections.newSetFromMap;
+import static java.util.Collections.synchronizedSet;
 
 @VisibleForPackage
 class AerospikeConnection extends WarningsHolder implements Connection, SimpleWrapper, StatementEventListener {
     private final String url;
     private final Properties props;
     private static final ConnectionParametersParser parser = new ConnectionParametersParser();
+    private static final AerospikeClientRegistry clients = new AerospikeClientRegistry();
+    private final String clientKey;
     private final IAerospikeClient client;
     private volatile boolean readOnly = false;
     private volatile Map<String, Class<?>> typeMap = emptyMap();
@@ -66,13 +77,26 @@ class AerospikeConnection extends WarningsHolder implements Connection, SimpleWr
     private static final String CUSTOM_FUNCTION_PREFIX = "custom.function.";
     private static final int CUSTOM_FUNCTION_PREFIX_LENGTH = CUSTOM_FUNCTION_PREFIX.length();
     private final Collection<SpecialField> specialFields;
-    private volatile boolean closed = false;
+    /**
+     * Secondary indexes of the cluster; shared by connections that use the same client like {@link #nodesInfo}.
+     */
+    private final IndexCatalog indexes;
+    private final StatementParser sqlParser;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    /**
+     * Statements created by this connection; they are canceled when the connection is closed.
+     * Weak references allow garbage collection of statements that are not used any more.
+     */
+    private final Set<AerospikeStatement> statements = synchronizedSet(newSetFromMap(new WeakHashMap<>()));
     private final Object metadataLock = new Object();
     /**
-     * Retrieving of metadata may be very heavy, so we cache the value for period of 1 minutes.
+     * Retrieving of metadata may be very heavy: it requests information from all nodes of the cluster.
+     * The information is cached per cluster and is refreshed in background, so connections that share the same client
+     * share also the cached information. The metadata object itself is cheap and is rebuilt when the information changes.
      */
+    private final RefreshableValue<Collection<Map<String, String>>> nodesInfo;
+    private volatile Collection<Map<String, String>> databaseMetadataNodesInfo;
     private volatile DatabaseMetaData databaseMetaData;
-    private volatile long databaseMetadataLastUpdate = 0;
     private final long databaseMetadataCacheTimeout;
 
     @VisibleForPackage
@@ -81,21 +105,43 @@ class AerospikeConnection extends WarningsHolder implements Connection, SimpleWr
         this.props = props;
         Host[] hosts = parser.hosts(url);
         Properties info = parser.clientInfo(url, props);
-        client = new AerospikeSqlClient(() -> new AerospikeClient(parser.policy(url, props), hosts));
-        schema.set(parser.schema(url));
-        policyProvider = new AerospikePolicyProvider(client, info);
-        keyRecordFetcherFactory = new KeyRecordFetcherFactory(policyProvider.getQueryPolicy());
-        FunctionManager fm = new FunctionManager(() -> getMetaData());
-        functionManager = init(fm, info);
-        registerScript("stats", "distinct", "groupby");
-        specialFields = SpecialField.specialFields(policyProvider);
-        databaseMetadataCacheTimeout = policyProvider.getDriverPolicy().databaseMetadataCacheTimeout;
-    }
-
-    private void registerScript(String ... names) {
-        Policy regPolicy = policyProvider.getReadPolicy();
-        ClassLoader cl = getClass().getClassLoader();
-        stream(names).map(name -> name + ".lua").forEach(script -> client.register(regPolicy, cl, script, script, Language.LUA).waitTillComplete());
+        ClientPolicy clientPolicy = parser.policy(url, props);
+        DriverPolicy clientDriverPolicy = parser.initProperties(new DriverPolicy(), parser.subProperties(info, "policy.driver"));
+        int eventLoopsCount = clientDriverPolicy.eventLoops;
+        clientKey = AerospikeClientRegistry.key(hosts, clientPolicy, eventLoopsCount, clientDriverPolicy.scanThreads);
+        client = clients.acquire(clientKey, () -> {
+            EventLoops eventLoops = eventLoopsCount > 0 ? new NioEventLoops(eventLoopsCount) : null;
+            clientPolicy.eventLoops = eventLoops;
+            try {
+                return new AerospikeSqlClient(() -> new AerospikeClient(clientPolicy, hosts), eventLoops, clientDriverPolicy.scanThreads);
+            } catch (Throwable e) {
+                if (eventLoops != null) {
+                    eventLoops.close();
+                }
+                throw e;
+            }
+        });
+        try {
+            schema.set(parser.schema(url));
+            policyProvider = new AerospikePolicyProvider(client, info);
+            keyRecordFetcherFactory = new KeyRecordFetcherFactory(policyProvider.getQueryPolicy());
+            FunctionManager fm = new FunctionManager(() -> getMetaData());
+            functionManager = init(fm, info);
+            specialFields = SpecialField.specialFields(policyProvider);
+            databaseMetadataCacheTimeout = policyProvider.getDriverPolicy().databaseMetadataCacheTimeout;
+            // Shared state is attached per settings it depends on, so connections configured differently do not get state
+            // created with settings of the connection that happened to be the first.
+            InfoPolicy metadataInfoPolicy = new InfoPolicy(policyProvider.getInfoPolicy());
+            int planCacheSize = policyProvider.getDriverPolicy().planCacheSize;
+            int indexesCacheTimeout = policyProvider.getDriverPolicy().indexesCacheTimeout;
+            Executor refresher = clients.attachment(clientKey, "refresher", RefreshableValue::newRefresher);
+            nodesInfo = clients.attachment(clientKey, "metadata:" + metadataInfoPolicy.timeout, () -> new RefreshableValue<>(() -> AerospikeDatabaseMetadata.requestNodesInfo(client, metadataInfoPolicy), refresher));
+            sqlParser = clients.attachment(clientKey, "parser:" + planCacheSize, () -> new StatementParser(planCacheSize));
+            indexes = clients.attachment(clientKey, "indexes:" + metadataInfoPolicy.timeout + ":" + indexesCacheTimeout, () -> new IndexCatalog(() -> IndexCatalog.load(client, metadataInfoPolicy, parser), indexesCacheTimeout, refresher));
+        } catch (Throwable e) { // including SQLException thrown by AerospikeSqlClient
+            clients.release(clientKey);
+            throw e;
+        }
     }
 
     @Override
@@ -143,13 +189,22 @@ class AerospikeConnection extends WarningsHolder implements Connection, SimpleWr
 
     @Override
     public void close() throws SQLException {
-        client.close();
-        closed = true;
+        if (closed.compareAndSet(false, true)) {
+            List<AerospikeStatement> openStatements;
+            synchronized (statements) {
+                openStatements = new ArrayList<>(statements);
+                statements.clear();
+            }
+            for (AerospikeStatement statement : openStatements) {
+                statement.cancel(); // stops background work of result sets that were not closed
+            }
+            clients.release(clientKey);
+        }
     }
 
     @Override
     public boolean isClosed() throws SQLException {
-        return closed;
+        return closed.get();
     }
 
     @Override
@@ -158,15 +213,14 @@ class AerospikeConnection extends WarningsHolder implements Connection, SimpleWr
             return retrieveMetaData();
         }
 
-        if (databaseMetaData == null || databaseMetadataLastUpdate < System.currentTimeMillis() - databaseMetadataCacheTimeout) {
-            synchronized (metadataLock) {
-                if (databaseMetaData == null || databaseMetadataLastUpdate < System.currentTimeMillis() - databaseMetadataCacheTimeout) {
-                    databaseMetaData = retrieveMetaData();
-                    databaseMetadataLastUpdate = System.currentTimeMillis();
-                }
+        Collection<Map<String, String>> info = nodesInfo.get(databaseMetadataCacheTimeout);
+        synchronized (metadataLock) {
+            if (databaseMetaData == null || databaseMetadataNodesInfo != info) {
+                databaseMetaData = new AerospikeDatabaseMetadata(url, props, info, this, policyProvider, functionManager);
+                databaseMetadataNodesInfo = info;
             }
+            return databaseMetaData;
         }
-        return databaseMetaData;
     }
 
     public DatabaseMetaData retrieveMetaData() {
@@ -276,14 +330,35 @@ class AerospikeConnection extends WarningsHolder implements Connection, SimpleWr
 
     @Override
     public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return createStatement(this, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    /**
+     * Creates statement that reports given connection as its owner. Used by logical connections of connection pool.
+     */
+    @VisibleForPackage
+    AerospikeStatement createStatement(Connection connection, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
         validateResultSetParameters(resultSetType, resultSetConcurrency, resultSetHoldability);
-        return new AerospikeStatement(client, this, this, schema, policyProvider, functionManager);
+        return register(new AerospikeStatement(client, connection, this, schema, policyProvider, indexes, sqlParser, functionManager));
     }
 
     @Override
     public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+        return prepareStatement(this, sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+    }
+
+    /**
+     * Creates prepared statement that reports given connection as its owner. Used by logical connections of connection pool.
+     */
+    @VisibleForPackage
+    AerospikePreparedStatement prepareStatement(Connection connection, String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
         validateResultSetParameters(resultSetType, resultSetConcurrency, resultSetHoldability);
-        return new AerospikePreparedStatement(client, this, this, schema, policyProvider, sql, keyRecordFetcherFactory, functionManager, specialFields);
+        return register(new AerospikePreparedStatement(client, connection, this, schema, policyProvider, indexes, sqlParser, sql, keyRecordFetcherFactory, functionManager, specialFields));
+    }
+
+    private <S extends AerospikeStatement> S register(S statement) {
+        statements.add(statement);
+        return statement;
     }
 
     @Override
@@ -337,7 +412,7 @@ class AerospikeConnection extends WarningsHolder implements Connection, SimpleWr
 
     @Override
     public boolean isValid(int timeout) throws SQLException {
-        return client.isConnected() && client.getClusterStats() != null;
+        return !closed.get() && client.isConnected() && client.getClusterStats() != null;
     }
 
     @Override
@@ -392,19 +467,25 @@ class AerospikeConnection extends WarningsHolder implements Connection, SimpleWr
 
     @Override
     public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+        // Client is shared among connections, so only policies of this connection are changed here.
         stream(new Policy[] {
-                client.getReadPolicyDefault(),
-                client.getWritePolicyDefault(),
-                client.getScanPolicyDefault(),
-                client.getQueryPolicyDefault(),
-                client.getBatchPolicyDefault()
+                policyProvider.getReadPolicy(),
+                policyProvider.getWritePolicy(),
+                policyProvider.getScanPolicy(),
+                policyProvider.getQueryPolicy(),
+                policyProvider.getBatchPolicy()
         }).forEach(p -> p.totalTimeout = milliseconds);
-        client.getInfoPolicyDefault().timeout = milliseconds;
+        policyProvider.getInfoPolicy().timeout = milliseconds;
     }
 
     @Override
     public int getNetworkTimeout() throws SQLException {
-        return client.getReadPolicyDefault().totalTimeout;
+        return policyProvider.getReadPolicy().totalTimeout;
+    }
+
+    @VisibleForPackage
+    DriverPolicy getDriverPolicy() {
+        return policyProvider.getDriverPolicy();
     }
 
     private void validateResultSetParameters(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
@@ -428,26 +509,47 @@ class AerospikeConnection extends WarningsHolder implements Connection, SimpleWr
 
     @Override
     public void executed(StatementEvent event) {
-        invalidateMetadataCacheIfNeeded(event.getType());
+        invalidateMetadataCacheIfNeeded(event);
     }
 
     @Override
     public void updated(StatementEvent event) {
-        invalidateMetadataCacheIfNeeded(event.getType());
+        invalidateMetadataCacheIfNeeded(event);
     }
 
     @Override
     public void queried(StatementEvent event) {
-        invalidateMetadataCacheIfNeeded(event.getType());
+        invalidateMetadataCacheIfNeeded(event);
     }
 
-    private void invalidateMetadataCacheIfNeeded(StatementType statementType) {
-        switch (statementType) {
-            case INSERT:
-            case UPDATE:
+    /**
+     * Metadata cached for the client is shared by all its connections. Index change and insert into new set are reloaded
+     * before the metadata is used again; other changes of data only make the metadata refreshed in background,
+     * so that writes neither wait for the reload nor make readers of metadata wait for it.
+     */
+    private void invalidateMetadataCacheIfNeeded(StatementEvent event) {
+        switch (event.getType()) {
             case CREATE_INDEX:
             case DROP_INDEX:
-                databaseMetaData = null;
+                indexes.invalidate();
+                nodesInfo.invalidate();
+                break;
+            case INSERT:
+                if (isNewSet(event.getSet())) {
+                    nodesInfo.invalidate();
+                    break;
+                }
+                // fall through
+            case UPDATE:
+                nodesInfo.markStale();
+                break;
+            default:
+                break;
         }
     }
+
+    private boolean isNewSet(String set) {
+        Collection<Map<String, String>> info = nodesInfo.peek();
+        return set != null && info != null && !AerospikeDatabaseMetadata.containsSet(info, set);
+    }
 }
\ No newline at end of file
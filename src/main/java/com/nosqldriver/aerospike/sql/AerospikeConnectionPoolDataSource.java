@@ -0,0 +1,97 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.nosqldriver.VisibleForPackage;
+
+import javax.sql.ConnectionPoolDataSource;
+import javax.sql.PooledConnection;
+import java.io.PrintWriter;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * Factory of {@link PooledConnection}s to be used by connection pools of application servers.
+ * Connection is configured using the same URL and properties that are accepted by {@link AerospikeDriver}.
+ * Login timeout is used as timeout of connecting to the cluster (property {@code timeout} of the client policy)
+ * unless the timeout is configured explicitly.
+ */
+public class AerospikeConnectionPoolDataSource implements ConnectionPoolDataSource {
+    private volatile String url;
+    private volatile Properties properties = new Properties();
+    private volatile PrintWriter logWriter;
+    private static final String TIMEOUT = "timeout";
+    private volatile int loginTimeout = 0;
+
+    @Override
+    public PooledConnection getPooledConnection() throws SQLException {
+        return createPooledConnection(properties);
+    }
+
+    @Override
+    public PooledConnection getPooledConnection(String user, String password) throws SQLException {
+        Properties props = new Properties();
+        props.putAll(properties);
+        props.setProperty("user", user);
+        props.setProperty("password", password);
+        return createPooledConnection(props);
+    }
+
+    private AerospikePooledConnection createPooledConnection(Properties props) throws SQLException {
+        if (url == null) {
+            throw new SQLException("URL is not configured");
+        }
+        return new AerospikePooledConnection(new AerospikeConnection(url, connectionProperties(props)));
+    }
+
+    @VisibleForPackage
+    Properties connectionProperties(Properties props) {
+        Properties copy = new Properties();
+        copy.putAll(props);
+        if (loginTimeout > 0 && !copy.containsKey(TIMEOUT)) {
+            copy.setProperty(TIMEOUT, String.valueOf(loginTimeout * 1000));
+        }
+        return copy;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public Properties getProperties() {
+        return properties;
+    }
+
+    public void setProperties(Properties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return Logger.getLogger(getClass().getName());
+    }
+}
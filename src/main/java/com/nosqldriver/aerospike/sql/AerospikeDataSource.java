@@ -0,0 +1,155 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.sql.SimpleWrapper;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+import javax.sql.DataSource;
+import javax.sql.PooledConnection;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Deque;
+import java.util.Properties;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.logging.Logger;
+
+/**
+ * {@link DataSource} that pools physical connections.
+ *
+ * {@link #getConnection()} returns logical connection; its closing returns the physical connection to the pool.
+ * At most {@code maxIdle} physical connections are kept in the pool; extra connections are closed when released.
+ * Connections created using {@link #getConnection(String, String)} are not pooled because they use other credentials.
+ * All physical connections that use the same hosts and client policy share one Aerospike client anyway, so the pool
+ * mostly saves creation of connection itself and keeps the prepared statement cache of each pooled connection warm.
+ */
+public class AerospikeDataSource implements DataSource, SimpleWrapper, AutoCloseable {
+    private final AerospikeConnectionPoolDataSource factory = new AerospikeConnectionPoolDataSource();
+    private final Deque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private volatile int maxIdle = 8;
+    private volatile boolean closed = false;
+
+    private final ConnectionEventListener pooledConnectionListener = new ConnectionEventListener() {
+        @Override
+        public void connectionClosed(ConnectionEvent event) {
+            PooledConnection connection = (PooledConnection)event.getSource();
+            if (closed || idle.size() >= maxIdle || !idle.offerFirst(connection)) {
+                closeQuietly(connection);
+            }
+        }
+
+        @Override
+        public void connectionErrorOccurred(ConnectionEvent event) {
+            closeQuietly((PooledConnection)event.getSource());
+        }
+    };
+
+    private final ConnectionEventListener notPooledConnectionListener = new ConnectionEventListener() {
+        @Override
+        public void connectionClosed(ConnectionEvent event) {
+            closeQuietly((PooledConnection)event.getSource());
+        }
+
+        @Override
+        public void connectionErrorOccurred(ConnectionEvent event) {
+            closeQuietly((PooledConnection)event.getSource());
+        }
+    };
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Data source is closed");
+        }
+        PooledConnection pooledConnection = idle.pollFirst();
+        if (pooledConnection == null) {
+            pooledConnection = factory.getPooledConnection();
+            pooledConnection.addConnectionEventListener(pooledConnectionListener);
+        }
+        return pooledConnection.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (closed) {
+            throw new SQLException("Data source is closed");
+        }
+        PooledConnection pooledConnection = factory.getPooledConnection(username, password);
+        pooledConnection.addConnectionEventListener(notPooledConnectionListener);
+        return pooledConnection.getConnection();
+    }
+
+    /**
+     * Closes all idle connections. Connections that are in use are closed when they are returned to the pool.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (PooledConnection connection = idle.pollFirst(); connection != null; connection = idle.pollFirst()) {
+            closeQuietly(connection);
+        }
+    }
+
+    @VisibleForPackage
+    int getIdleCount() {
+        return idle.size();
+    }
+
+    private void closeQuietly(PooledConnection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            getParentLogger().warning("Cannot close pooled connection: " + e.getMessage());
+        }
+    }
+
+    public String getUrl() {
+        return factory.getUrl();
+    }
+
+    public void setUrl(String url) {
+        factory.setUrl(url);
+    }
+
+    public Properties getProperties() {
+        return factory.getProperties();
+    }
+
+    public void setProperties(Properties properties) {
+        factory.setProperties(properties);
+    }
+
+    public int getMaxIdle() {
+        return maxIdle;
+    }
+
+    public void setMaxIdle(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return factory.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        factory.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        factory.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return factory.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return Logger.getLogger(getClass().getName());
+    }
+}
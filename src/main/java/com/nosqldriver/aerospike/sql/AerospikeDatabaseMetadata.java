@@ -3,6 +3,7 @@ package com.nosqldriver.aerospike.sql;
 import com.aerospike.client.IAerospikeClient;
 import com.aerospike.client.Info;
 import com.aerospike.client.policy.InfoPolicy;
+import com.nosqldriver.VisibleForPackage;
 import com.nosqldriver.sql.DataColumn;
 import com.nosqldriver.sql.ListRecordSet;
 import com.nosqldriver.sql.SimpleWrapper;
@@ -78,6 +79,15 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
 
 
     public AerospikeDatabaseMetadata(String url, Properties info, IAerospikeClient client, Connection connection, AerospikePolicyProvider policyProvider, FunctionManager functionManager) {
+        this(url, info, requestNodesInfo(client, policyProvider.getInfoPolicy()), connection, policyProvider, functionManager);
+    }
+
+    /**
+     * Creates metadata using information retrieved from cluster nodes in advance, so that the heavy part of metadata retrieval can be cached.
+     * @param nodesInfo responses of {@link #requestNodesInfo(IAerospikeClient, InfoPolicy)}
+     */
+    @VisibleForPackage
+    AerospikeDatabaseMetadata(String url, Properties info, Collection<Map<String, String>> nodesInfo, Connection connection, AerospikePolicyProvider policyProvider, FunctionManager functionManager) {
         this.url = url;
         clientInfo = parser.clientInfo(url, info);
         this.connection = connection;
@@ -89,22 +99,38 @@ public class AerospikeDatabaseMetadata implements DatabaseMetaData, SimpleWrappe
         Collection<String> builds = synchronizedSet(new HashSet<>());
         Collection<String> editions = synchronizedSet(new HashSet<>());
         Collection<String> namespaces = synchronizedSet(new HashSet<>());
-        Arrays.stream(client.getNodes()).parallel()
-                .map(node -> Info.request(infoPolicy, node, "namespaces", "sets", "sindex-list:", "build", "edition"))
-                .forEach(r -> {
-                    builds.add(r.get("build"));
-                    editions.add(r.get("edition"));
-                    namespaces.addAll(Arrays.asList(getOrDefault(r, "namespaces", "").split(";")));
-                    streamOfSubProperties(r, "sets").forEach(p -> tables.computeIfAbsent(p.getProperty("ns"), s -> new HashSet<>()).add(p.getProperty("set")));
-                    streamOfSubProperties(r, "sindex-list:").forEach(p -> indices.computeIfAbsent(p.getProperty("ns"), s -> new HashSet<>())
-                            .add(new IndexInfo(p.getProperty("ns"), p.getProperty("set"), p.getProperty("indexname"), p.getProperty("bin"), p.getProperty("type"))));
-                });
+        nodesInfo.forEach(r -> {
+            builds.add(r.get("build"));
+            editions.add(r.get("edition"));
+            namespaces.addAll(Arrays.asList(getOrDefault(r, "namespaces", "").split(";")));
+            streamOfSubProperties(r, "sets").forEach(p -> tables.computeIfAbsent(p.getProperty("ns"), s -> new HashSet<>()).add(p.getProperty("set")));
+            streamOfSubProperties(r, "sindex-list:").forEach(p -> indices.computeIfAbsent(p.getProperty("ns"), s -> new HashSet<>())
+                    .add(new IndexInfo(p.getProperty("ns"), p.getProperty("set"), p.getProperty("indexname"), p.getProperty("bin"), p.getProperty("type"))));
+        });
 
         dbBuild = join("N/A", ", ", builds);
         dbEdition = join("Aerospike", ", ", editions);
         catalogs = namespaces.stream().filter(n -> !"".equals(n)).collect(Collectors.toList());
     }
 
+    @VisibleForPackage
+    static Collection<Map<String, String>> requestNodesInfo(IAerospikeClient client, InfoPolicy infoPolicy) {
+        return Arrays.stream(client.getNodes())
+                .map(node -> Info.request(infoPolicy, node, "namespaces", "sets", "sindex-list:", "build", "edition"))
+                .collect(toList());
+    }
+
+    /**
+     * @param nodesInfo responses of {@link #requestNodesInfo(IAerospikeClient, InfoPolicy)}
+     * @param set the set name
+     * @return whether set with the given name exists in any namespace according to the given responses
+     */
+    @VisibleForPackage
+    static boolean containsSet(Collection<Map<String, String>> nodesInfo, String set) {
+        String entry = ":set=" + set + ":";
+        return nodesInfo.stream().map(r -> r.get("sets")).anyMatch(sets -> sets != null && sets.contains(entry));
+    }
+
     private Properties initProperties(String lines) {
         return iosafe(() -> {
             Properties properties = new Properties();
@@ -8,6 +8,7 @@ import com.aerospike.client.policy.Policy;
 import com.aerospike.client.policy.QueryPolicy;
 import com.aerospike.client.policy.ScanPolicy;
 import com.aerospike.client.policy.WritePolicy;
+import com.nosqldriver.VisibleForPackage;
 import com.nosqldriver.sql.DriverPolicy;
 
 import java.util.Arrays;
@@ -28,17 +29,59 @@ public class AerospikePolicyProvider {
 
 
     AerospikePolicyProvider(IAerospikeClient client, Properties props) {
+        // Client may be shared by several connections, so its default policies are copied rather than modified.
         Properties common = parser.subProperties(props, "policy.*");
-        readPolicy = parser.initProperties(client.getReadPolicyDefault(), merge(common, parser.subProperties(props, "policy.read")));
-        queryPolicy = parser.initProperties(client.getQueryPolicyDefault(), merge(common, parser.subProperties(props, "policy.query")));
-        batchPolicy = parser.initProperties(client.getBatchPolicyDefault(), merge(common, parser.subProperties(props, "policy.batch")));
-        scanPolicy = parser.initProperties(client.getScanPolicyDefault(), merge(common, parser.subProperties(props, "policy.scan")));
-        writePolicy = parser.initProperties(client.getWritePolicyDefault(), merge(common, parser.subProperties(props, "policy.write")));
-        infoPolicy = parser.initProperties(client.getInfoPolicyDefault(), merge(common, parser.subProperties(props, "policy.info")));
+        readPolicy = parser.initProperties(new Policy(client.getReadPolicyDefault()), merge(common, parser.subProperties(props, "policy.read")));
+        queryPolicy = parser.initProperties(new QueryPolicy(client.getQueryPolicyDefault()), merge(common, parser.subProperties(props, "policy.query")));
+        batchPolicy = parser.initProperties(new BatchPolicy(client.getBatchPolicyDefault()), merge(common, parser.subProperties(props, "policy.batch")));
+        scanPolicy = parser.initProperties(new ScanPolicy(client.getScanPolicyDefault()), merge(common, parser.subProperties(props, "policy.scan")));
+        writePolicy = parser.initProperties(new WritePolicy(client.getWritePolicyDefault()), merge(common, parser.subProperties(props, "policy.write")));
+        infoPolicy = parser.initProperties(new InfoPolicy(client.getInfoPolicyDefault()), merge(common, parser.subProperties(props, "policy.info")));
         clientPolicy = parser.initProperties(new ClientPolicy(), merge(common, parser.subProperties(props, "policy.client")));
         driverPolicy = parser.initProperties(new DriverPolicy(), merge(common, parser.subProperties(props, "policy.driver")));
     }
 
+    /**
+     * Creates copy of policies of the given provider. Each statement uses its own copy, so that its query timeout
+     * does not affect other statements of the same connection.
+     * @param provider the policies of the connection
+     */
+    @VisibleForPackage
+    AerospikePolicyProvider(AerospikePolicyProvider provider) {
+        this(provider, provider.driverPolicy);
+    }
+
+    /**
+     * Creates copy of policies of the given provider that uses the given driver policy.
+     * @param provider the policies to copy
+     * @param driverPolicy the driver policy
+     */
+    @VisibleForPackage
+    AerospikePolicyProvider(AerospikePolicyProvider provider, DriverPolicy driverPolicy) {
+        readPolicy = new Policy(provider.readPolicy);
+        queryPolicy = new QueryPolicy(provider.queryPolicy);
+        batchPolicy = new BatchPolicy(provider.batchPolicy);
+        scanPolicy = new ScanPolicy(provider.scanPolicy);
+        writePolicy = new WritePolicy(provider.writePolicy);
+        infoPolicy = new InfoPolicy(provider.infoPolicy);
+        clientPolicy = provider.clientPolicy;
+        this.driverPolicy = driverPolicy;
+    }
+
+    /**
+     * Sets total timeout of read, query, batch, scan and write policies.
+     * @param timeout the timeout in milliseconds; 0 restores the timeouts of the given defaults
+     * @param defaults the policies which timeouts are used when timeout is 0
+     */
+    @VisibleForPackage
+    void setTotalTimeout(int timeout, AerospikePolicyProvider defaults) {
+        readPolicy.totalTimeout = timeout > 0 ? timeout : defaults.readPolicy.totalTimeout;
+        queryPolicy.totalTimeout = timeout > 0 ? timeout : defaults.queryPolicy.totalTimeout;
+        batchPolicy.totalTimeout = timeout > 0 ? timeout : defaults.batchPolicy.totalTimeout;
+        scanPolicy.totalTimeout = timeout > 0 ? timeout : defaults.scanPolicy.totalTimeout;
+        writePolicy.totalTimeout = timeout > 0 ? timeout : defaults.writePolicy.totalTimeout;
+    }
+
     private Properties merge(Properties ... properties) {
         Properties result = new Properties();
         Arrays.stream(properties).forEach(result::putAll);
@@ -0,0 +1,182 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.nosqldriver.VisibleForPackage;
+
+import javax.sql.ConnectionEvent;
+import javax.sql.ConnectionEventListener;
+import javax.sql.PooledConnection;
+import javax.sql.StatementEvent;
+import javax.sql.StatementEventListener;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static java.sql.ResultSet.CONCUR_READ_ONLY;
+import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
+
+/**
+ * Physical connection managed by connection pool.
+ *
+ * Each call of {@link #getConnection()} returns new logical connection that delegates to the same physical connection.
+ * Closing of the logical connection does not close the physical one but notifies the registered {@link ConnectionEventListener}s,
+ * so that the pool can reuse this object.
+ *
+ * Prepared statements created using default result set type, concurrency and holdability are cached by SQL:
+ * when such statement is closed it is returned to the cache and is reused by the next call of {@code prepareStatement()}
+ * with the same SQL, so that parsing of the query and discovery of the result set metadata are not repeated.
+ * Before the statement is cached its result set is closed and its parameters, max rows, query timeout and fetch size are reset.
+ * Size of the cache is configured using {@code policy.driver.preparedStatementCacheSize}; zero disables the cache.
+ * Statements evicted from the cache, outdated statements and all cached statements when this connection is closed are closed.
+ */
+public class AerospikePooledConnection implements PooledConnection {
+    private final AerospikeConnection connection;
+    private final Collection<ConnectionEventListener> connectionEventListeners = new CopyOnWriteArrayList<>();
+    private final Collection<StatementEventListener> statementEventListeners = new CopyOnWriteArrayList<>();
+    private final Map<String, AerospikePreparedStatement> statements;
+    private final int statementCacheSize;
+    private volatile AerospikeLogicalConnection logicalConnection;
+    private volatile boolean closed = false;
+
+    @VisibleForPackage
+    AerospikePooledConnection(AerospikeConnection connection) {
+        this.connection = connection;
+        statementCacheSize = connection.getDriverPolicy().preparedStatementCacheSize;
+        statements = new LinkedHashMap<String, AerospikePreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AerospikePreparedStatement> eldest) {
+                if (size() > statementCacheSize) {
+                    discard(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Pooled connection is closed");
+        }
+        if (logicalConnection != null) {
+            // JDBC spec: the previous logical connection is closed when a new one is requested
+            logicalConnection.close();
+        }
+        logicalConnection = new AerospikeLogicalConnection(this, connection);
+        return logicalConnection;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            logicalConnection = null;
+        }
+        Collection<AerospikePreparedStatement> cached;
+        synchronized (statements) {
+            cached = new ArrayList<>(statements.values());
+            statements.clear();
+        }
+        cached.forEach(this::discard);
+        connection.close();
+    }
+
+    @Override
+    public void addConnectionEventListener(ConnectionEventListener listener) {
+        connectionEventListeners.add(listener);
+    }
+
+    @Override
+    public void removeConnectionEventListener(ConnectionEventListener listener) {
+        connectionEventListeners.remove(listener);
+    }
+
+    @Override
+    public void addStatementEventListener(StatementEventListener listener) {
+        statementEventListeners.add(listener);
+    }
+
+    @Override
+    public void removeStatementEventListener(StatementEventListener listener) {
+        statementEventListeners.remove(listener);
+    }
+
+    @VisibleForPackage
+    void logicalConnectionClosed(AerospikeLogicalConnection closedConnection) {
+        synchronized (this) {
+            if (logicalConnection == closedConnection) {
+                logicalConnection = null;
+            }
+        }
+        ConnectionEvent event = new ConnectionEvent(this);
+        connectionEventListeners.forEach(l -> l.connectionClosed(event));
+    }
+
+    @VisibleForPackage
+    PreparedStatement prepareStatement(AerospikeLogicalConnection owner, String sql) throws SQLException {
+        AerospikePreparedStatement statement;
+        synchronized (statements) {
+            statement = statements.remove(sql);
+        }
+        if (statement != null && !statement.isUpToDate()) {
+            discard(statement);
+            statement = null;
+        }
+        if (statement == null) {
+            statement = connection.prepareStatement(owner, sql, TYPE_FORWARD_ONLY, CONCUR_READ_ONLY, owner.getHoldability());
+            if (statementCacheSize > 0) {
+                statement.setCloseListener(s -> statementClosed(sql, s));
+            }
+        } else {
+            statement.setConnection(owner);
+        }
+        return statement;
+    }
+
+    private void statementClosed(String sql, AerospikePreparedStatement statement) {
+        try {
+            statement.clearParameters();
+            statement.clearWarnings();
+            statement.reset();
+            if (!closed && statement.isPoolable()) {
+                synchronized (statements) {
+                    statements.put(sql, statement);
+                }
+            }
+        } catch (SQLException e) {
+            StatementEvent event = new StatementEvent(this, statement, e);
+            statementEventListeners.forEach(l -> l.statementErrorOccurred(event));
+            return;
+        }
+        StatementEvent event = new StatementEvent(this, statement);
+        statementEventListeners.forEach(l -> l.statementClosed(event));
+    }
+
+    /**
+     * Closes statement removed from the cache. Its close listener is removed first, so that the statement is not returned to the cache.
+     */
+    private void discard(AerospikePreparedStatement statement) {
+        statement.setCloseListener(s -> {});
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            StatementEvent event = new StatementEvent(this, statement, e);
+            statementEventListeners.forEach(l -> l.statementErrorOccurred(event));
+        }
+    }
+
+    @VisibleForPackage
+    int cachedStatementsCount() {
+        synchronized (statements) {
+            return statements.size();
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.nosqldriver.aerospike.sql;
 
 import com.aerospike.client.IAerospikeClient;
+import com.nosqldriver.VisibleForPackage;
 import com.nosqldriver.aerospike.sql.query.QueryContainer;
 import com.nosqldriver.sql.ByteArrayBlob;
 import com.nosqldriver.sql.DataColumn;
 import com.nosqldriver.sql.DataColumnBasedResultSetMetaData;
 import com.nosqldriver.sql.GenericTypeDiscoverer;
 import com.nosqldriver.sql.SimpleParameterMetaData;
+import com.nosqldriver.sql.SqlUtil;
 import com.nosqldriver.sql.StatementEventListener;
 import com.nosqldriver.sql.StringClob;
 import com.nosqldriver.sql.TypeDiscoverer;
@@ -46,7 +48,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static com.nosqldriver.aerospike.sql.KeyRecordFetcherFactory.emptyKeyRecordExtractor;
 import static com.nosqldriver.aerospike.sql.KeyRecordFetcherFactory.keyRecordDataExtractor;
@@ -63,17 +68,26 @@ public class AerospikePreparedStatement extends AerospikeStatement implements Pr
     private  final String sql;
     private Object[] parameterValues;
     private final QueryContainer<ResultSet> queryPlan;
+    private final AerospikePolicyProvider planPolicyProvider;
     private List<DataColumn> requestedDataColumns = null;
     private final TypeDiscoverer discoverer;
     private final FunctionManager functionManager;
+    private final String preparedSchema;
+    private final Collection<String> preparedIndexes;
+    private volatile boolean poolable = true;
+    private volatile Consumer<AerospikePreparedStatement> closeListener = statement -> {};
 
-    public AerospikePreparedStatement(IAerospikeClient client, Connection connection, StatementEventListener statementEventListener, AtomicReference<String> schema, AerospikePolicyProvider policyProvider, String sql, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) throws SQLException {
-        super(client, connection, statementEventListener, schema, policyProvider, functionManager);
+    public AerospikePreparedStatement(IAerospikeClient client, Connection connection, StatementEventListener statementEventListener, AtomicReference<String> schema, AerospikePolicyProvider policyProvider, Supplier<Collection<String>> indexes, StatementParser sqlParser, String sql, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) throws SQLException {
+        super(client, connection, statementEventListener, schema, policyProvider, indexes, sqlParser, functionManager);
         this.sql = sql;
         int n = parseParameters(sql, 0).getValue();
         parameterValues = new Object[n];
         Arrays.fill(parameterValues, Optional.empty());
-        queryPlan = new AerospikeQueryFactory(this, schema.get(), policyProvider, indexes, functionManager, policyProvider.getDriverPolicy()).createQueryPlan(sql);
+        preparedSchema = schema.get();
+        preparedIndexes = indexes.get();
+        AerospikeQueryFactory aqf = new AerospikeQueryFactory(this, preparedSchema, this.policyProvider, preparedIndexes, sqlParser, functionManager, policyProvider.getDriverPolicy());
+        queryPlan = aqf.createQueryPlan(sql);
+        planPolicyProvider = aqf.getPolicyProvider();
         set = queryPlan.getSetName();
         this.functionManager = functionManager;
         discoverer = new GenericTypeDiscoverer<>(
@@ -84,6 +98,23 @@ public class AerospikePreparedStatement extends AerospikeStatement implements Pr
                 specialFields);
     }
 
+    /**
+     * The plan of prepared statement is created once, so if the statement contains hints the plan uses copy of the
+     * statement policies (see {@link StatementHints}) that must follow the query timeout set later.
+     */
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        super.setQueryTimeout(seconds);
+        if (planPolicyProvider != policyProvider) {
+            planPolicyProvider.setTotalTimeout(0, policyProvider); // copies the timeouts just set to the statement policies
+        }
+    }
+
+    @VisibleForPackage
+    AerospikePolicyProvider getPlanPolicyProvider() {
+        return planPolicyProvider;
+    }
+
     @Override
     public ResultSet executeQuery() throws SQLException {
         return executeQuery(sql);
@@ -94,6 +125,24 @@ public class AerospikePreparedStatement extends AerospikeStatement implements Pr
         return executeUpdate(sql);
     }
 
+    /**
+     * Asynchronous version of {@link #executeQuery()}.
+     * @return future that is completed with the result set
+     * @see AerospikeStatement#executeQueryAsync(String)
+     */
+    public CompletableFuture<ResultSet> executeQueryAsync() {
+        return executeQueryAsync(sql);
+    }
+
+    /**
+     * Asynchronous version of {@link #executeUpdate()}.
+     * @return future that is completed with the number of affected records
+     * @see AerospikeStatement#executeUpdateAsync(String)
+     */
+    public CompletableFuture<Integer> executeUpdateAsync() {
+        return executeUpdateAsync(sql);
+    }
+
     @Override
     public void setNull(int parameterIndex, int sqlType) throws SQLException {
         setObject(parameterIndex, null);
@@ -411,9 +460,19 @@ public class AerospikePreparedStatement extends AerospikeStatement implements Pr
         setClob(parameterIndex, reader);
     }
 
+    /**
+     * Parameters of prepared statement are already bound by the query factory, so the SQL is used as is.
+     */
+    @Override
+    protected QueryContainer<ResultSet> createSelectPlan(AerospikeQueryFactory aqf, String sql) throws SQLException {
+        QueryContainer<ResultSet> plan = aqf.createQueryPlan(SqlUtil.fix(sql));
+        plan.setParameters(this, null);
+        return plan;
+    }
+
     @Override
     protected AerospikeQueryFactory createQueryFactory() {
-        return new AerospikeQueryFactory(this, schema.get(), policyProvider, indexes, functionManager, policyProvider.getDriverPolicy()) {
+        return new AerospikeQueryFactory(this, schema.get(), policyProvider, indexes.get(), sqlParser, functionManager, policyProvider.getDriverPolicy()) {
             @Override  QueryContainer<ResultSet> createQueryPlan(String sql) throws SQLException {
                 QueryContainer<ResultSet> qc = Objects.equals(AerospikePreparedStatement.this.sql, sql) ? AerospikePreparedStatement.this.queryPlan : super.createQueryPlan(sql);
                 qc.setParameters(AerospikePreparedStatement.this, parameterValues);
@@ -422,6 +481,36 @@ public class AerospikePreparedStatement extends AerospikeStatement implements Pr
         };
     }
 
+    @Override
+    public void close() throws SQLException {
+        closeListener.accept(this);
+        super.close();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        this.poolable = poolable;
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return poolable;
+    }
+
+    @VisibleForPackage
+    void setCloseListener(Consumer<AerospikePreparedStatement> closeListener) {
+        this.closeListener = closeListener;
+    }
+
+    /**
+     * Query plan of prepared statement depends on the current schema and on the available secondary indexes.
+     * @return true if statement was prepared using the current schema and indexes and therefore may be reused
+     */
+    @VisibleForPackage
+    boolean isUpToDate() {
+        return Objects.equals(preparedSchema, schema.get()) && preparedIndexes.equals(indexes.get());
+    }
+
     private List<DataColumn> retrieveRequestedDataColumns() {
         if (requestedDataColumns == null) {
             requestedDataColumns = discoverType(queryPlan.getRequestedColumns());
@@ -1,9 +1,11 @@
 package com.nosqldriver.aerospike.sql;
 
+import com.aerospike.client.AerospikeException;
 import com.aerospike.client.Bin;
 import com.aerospike.client.IAerospikeClient;
 import com.aerospike.client.Key;
 import com.aerospike.client.Record;
+import com.aerospike.client.policy.ScanPolicy;
 import com.aerospike.client.policy.WritePolicy;
 import com.aerospike.client.query.PredExp;
 import com.nosqldriver.VisibleForPackage;
@@ -12,7 +14,9 @@ import com.nosqldriver.aerospike.sql.query.BinaryOperation.Operator;
 import com.nosqldriver.aerospike.sql.query.ColumnRefPredExp;
 import com.nosqldriver.aerospike.sql.query.InnerQueryPredExp;
 import com.nosqldriver.aerospike.sql.query.OperatorRefPredExp;
+import com.nosqldriver.aerospike.sql.query.PredExpTranslator;
 import com.nosqldriver.aerospike.sql.query.PredExpValuePlaceholder;
+import com.nosqldriver.aerospike.sql.query.PrimaryKeyRange;
 import com.nosqldriver.aerospike.sql.query.QueryContainer;
 import com.nosqldriver.aerospike.sql.query.QueryHolder;
 import com.nosqldriver.aerospike.sql.query.QueryHolder.ChainOperation;
@@ -47,7 +51,6 @@ import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
 import net.sf.jsqlparser.expression.operators.relational.InExpression;
 import net.sf.jsqlparser.expression.operators.relational.ItemsListVisitorAdapter;
 import net.sf.jsqlparser.expression.operators.relational.MultiExpressionList;
-import net.sf.jsqlparser.parser.CCJSqlParserManager;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
 import net.sf.jsqlparser.statement.ShowStatement;
@@ -57,6 +60,8 @@ import net.sf.jsqlparser.statement.create.index.CreateIndex;
 import net.sf.jsqlparser.statement.delete.Delete;
 import net.sf.jsqlparser.statement.drop.Drop;
 import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.select.AllColumns;
+import net.sf.jsqlparser.statement.select.AllTableColumns;
 import net.sf.jsqlparser.statement.select.FromItem;
 import net.sf.jsqlparser.statement.select.FromItemVisitorAdapter;
 import net.sf.jsqlparser.statement.select.Join;
@@ -75,7 +80,6 @@ import net.sf.jsqlparser.statement.truncate.Truncate;
 import net.sf.jsqlparser.statement.update.Update;
 
 import javax.script.ScriptEngine;
-import java.io.StringReader;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -85,6 +89,7 @@ import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -118,30 +123,38 @@ import static java.util.stream.Collectors.toSet;
 
 public class AerospikeQueryFactory {
     private static final Collection<Class> INT_CLASSES = new HashSet<>(Arrays.asList(Byte.class, Short.class, Integer.class, Long.class));
-    private CCJSqlParserManager parserManager = new CCJSqlParserManager();
     private final Statement statement;
     private String schema;
     private String set;
-    private final AerospikePolicyProvider policyProvider;
+    private final AerospikePolicyProvider statementPolicyProvider;
+    private AerospikePolicyProvider policyProvider;
     private final Collection<String> indexes;
+    private final StatementParser sqlParser;
     private final FunctionManager functionManager;
     private final ScriptEngine engine;
 
     @VisibleForPackage
-    AerospikeQueryFactory(Statement statement, String schema, AerospikePolicyProvider policyProvider, Collection<String> indexes, FunctionManager functionManager, DriverPolicy driverPolicy) {
+    AerospikeQueryFactory(Statement statement, String schema, AerospikePolicyProvider policyProvider, Collection<String> indexes, StatementParser sqlParser, FunctionManager functionManager, DriverPolicy driverPolicy) {
         this.statement = statement;
         this.schema = schema;
+        this.statementPolicyProvider = policyProvider;
         this.policyProvider = policyProvider;
         this.indexes = indexes;
+        this.sqlParser = sqlParser;
         this.functionManager = functionManager;
         engine = new ScriptEngineFactory(functionManager, driverPolicy).getEngine();
     }
 
+    /**
+     * Creates plan of the given SQL statement. Hints written in the statement (see {@link StatementHints}) are applied
+     * to copy of the statement policies used by this plan only.
+     */
     @VisibleForPackage
     QueryContainer<ResultSet> createQueryPlan(String sql) throws SQLException {
+        policyProvider = StatementHints.apply(statementPolicyProvider, sql);
         try {
             QueryHolder queries = new QueryHolder(schema, indexes, policyProvider, functionManager);
-            parserManager.parse(new StringReader(sql)).accept(new StatementVisitorAdapter() {
+            sqlParser.parse(sql).accept(new StatementVisitorAdapter() {
                 @Override
                 public void visit(Select select) {
                     SelectBody selectBody = select.getSelectBody();
@@ -259,6 +272,53 @@ public class AerospikeQueryFactory {
 
 
 
+    /**
+     * Collects names of bins referenced by the select: by its columns and expressions, where clause, join conditions, ordering, grouping and having.
+     * Only these bins have to be retrieved from the server. Names are collected from all tables of the select; names that belong
+     * to joined tables do not harm.
+     * @param plainSelect the select
+     * @return names of required bins or empty optional if all bins are needed (e.g. {@code select *}) or the bins cannot be determined
+     */
+    private static Optional<String[]> requiredBins(PlainSelect plainSelect) {
+        Collection<String> bins = new LinkedHashSet<>();
+        AtomicBoolean all = new AtomicBoolean(false);
+        ExpressionVisitorAdapter columnCollector = new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(Column column) {
+                bins.add(stripQuotes(column.getColumnName()));
+            }
+        };
+        plainSelect.getSelectItems().forEach(si -> si.accept(new SelectItemVisitorAdapter() {
+            @Override
+            public void visit(AllColumns columns) {
+                all.set(true);
+            }
+
+            @Override
+            public void visit(AllTableColumns columns) {
+                all.set(true);
+            }
+
+            @Override
+            public void visit(SelectExpressionItem item) {
+                item.getExpression().accept(columnCollector);
+            }
+        }));
+        Collection<Expression> expressions = new ArrayList<>();
+        expressions.add(plainSelect.getWhere());
+        expressions.add(plainSelect.getHaving());
+        ofNullable(plainSelect.getJoins()).ifPresent(joins -> joins.forEach(join -> expressions.add(join.getOnExpression())));
+        ofNullable(plainSelect.getOrderByElements()).ifPresent(elements -> elements.forEach(e -> expressions.add(e.getExpression())));
+        ofNullable(plainSelect.getGroupBy()).ifPresent(groupBy -> expressions.addAll(groupBy.getGroupByExpressions()));
+        expressions.stream().filter(Objects::nonNull).forEach(e -> e.accept(columnCollector));
+
+        bins.removeIf(SpecialField::isSpecialField);
+        if (all.get() || bins.isEmpty() || bins.stream().anyMatch(bin -> bin.contains("["))) {
+            return Optional.empty();
+        }
+        return Optional.of(bins.toArray(new String[0]));
+    }
+
     private void createSelect(SelectBody selectBody, QueryHolder queries) {
         AtomicReference<Class> lastValueType = new AtomicReference<>();
 
@@ -320,6 +380,8 @@ public class AerospikeQueryFactory {
                 }
 
 
+                requiredBins(plainSelect).ifPresent(queries::setRequiredBins);
+
                 plainSelect.getSelectItems().forEach(si -> si.accept(new SelectItemVisitorAdapter() {
                     @Override
                     public void visit(SelectExpressionItem selectExpressionItem) {
@@ -581,6 +643,35 @@ public class AerospikeQueryFactory {
                             queries.queries(operation.getTable()).addPredExp(PredExp.and(2));
                         }
                     }
+
+                    // Conditions that were not translated to predicates above (e.g. arithmetic expressions, LIKE, NOT) are
+                    // translated here, so that only the rest of the condition is evaluated by the client.
+                    // Conditions with sub-queries and special fields are executed differently (e.g. as query by primary key).
+                    // Conditions with parameters of prepared statement are translated when the values of parameters are known.
+                    boolean negation = PredExpTranslator.containsNegation(where);
+                    boolean translatable = plainSelect.getJoins() == null && queries.getSetName() != null && PredExpTranslator.isTranslatableWhenBound(where);
+                    if (translatable && PredExpTranslator.containsParameter(where)) {
+                        queries.setParameterizedWhere(where);
+                    } else if (translatable && (queries.getWhereExpression() != null || negation)) {
+                        PredExpTranslator translator = new PredExpTranslator(where);
+                        queries.setPredExps(translator.getPredExps());
+                        queries.setWhereExpression(ofNullable(translator.getResidue()).map(Expression::toString).orElse(null));
+                        if (negation) {
+                            queries.removeFilter(); // the filter might be created for negated condition
+                        }
+                    }
+                    // Filters created above ignore OR and IN, so the condition is analyzed again: disjunction of indexed conditions
+                    // is executed as several queries. Comparisons with parameters, sub-queries and special fields are ignored here.
+                    if (plainSelect.getJoins() == null && queries.getSetName() != null && PredExpTranslator.containsDisjunction(where)) {
+                        queries.setFilters(where);
+                    }
+
+                    // Small range of integer primary keys is retrieved by batch get instead of scan
+                    Optional<PrimaryKeyRange> pkRange = PrimaryKeyRange.of(where);
+                    if (plainSelect.getJoins() == null && queries.getSetName() != null && pkRange.isPresent() && pkRange.get().size() <= policyProvider.getDriverPolicy().pkRangeLimit &&
+                            (pkRange.get().getResidue() == null || PredExpTranslator.isTranslatable(pkRange.get().getResidue()))) {
+                        queries.setPrimaryKeyRange(statement, pkRange.get());
+                    }
                 }
 
 
@@ -627,6 +718,8 @@ public class AerospikeQueryFactory {
 
 
     private QueryContainer<Integer> createUpdatePlan(String sql, Object[] parameterValues) throws SQLException {
+        policyProvider = StatementHints.apply(statementPolicyProvider, sql);
+        ScanPolicy scanPolicy = policyProvider.getScanPolicy();
         try {
             AtomicInteger limit = new AtomicInteger(-1);
             AtomicReference<String> tableName = new AtomicReference<>(null);
@@ -639,6 +732,7 @@ public class AerospikeQueryFactory {
             AtomicBoolean filterByPk = new AtomicBoolean(false);
 
             WritePolicy writePolicy = new WritePolicy();
+            writePolicy.priority = policyProvider.getWritePolicy().priority;
 
             AtomicReference<BiFunction<IAerospikeClient, Entry<Key, Record>, Boolean>> worker = new AtomicReference<>((c, e) -> false);
 
@@ -655,7 +749,7 @@ public class AerospikeQueryFactory {
                 truncateCalendar = null;
             }
 
-            parserManager.parse(new StringReader(sql)).accept(new StatementVisitorAdapter() {
+            sqlParser.parse(sql).accept(new StatementVisitorAdapter() {
                 @Override
                 public void visit(Delete delete) {
                     Table table = delete.getTable();
@@ -839,13 +933,24 @@ public class AerospikeQueryFactory {
                         }
                         AtomicInteger count = new AtomicInteger(0);
                         int limitValue = limit.get();
-                        client.scanAll(policyProvider.getScanPolicy(), schema.get(), tableName.get(),
-                                (key, record) -> {
-                                    if ((limitValue < 0 || count.get() < limitValue) && (keyPredicate.get().test(key) || recordPredicate.get().test(record))) {
-                                        worker.get().apply(client, singletonMap(key, record).entrySet().iterator().next());
-                                        count.incrementAndGet();
-                                    }
-                                });
+                        Cancellation cancellation = new Cancellation(statement, () -> {});
+                        try {
+                            client.scanAll(scanPolicy, schema.get(), tableName.get(),
+                                    (key, record) -> {
+                                        if (cancellation.isCanceled()) {
+                                            throw new AerospikeException.ScanTerminated();
+                                        }
+                                        if ((limitValue < 0 || count.get() < limitValue) && (keyPredicate.get().test(key) || recordPredicate.get().test(record))) {
+                                            worker.get().apply(client, singletonMap(key, record).entrySet().iterator().next());
+                                            count.incrementAndGet();
+                                        }
+                                    });
+                        } catch (Exception e) {
+                            cancellation.assertNotCanceled();
+                            SneakyThrower.sneakyThrow(e);
+                        } finally {
+                            cancellation.done();
+                        }
                         return count.get();
                     };
                 }
@@ -1005,6 +1110,14 @@ public class AerospikeQueryFactory {
         return set;
     }
 
+    /**
+     * @return policies used by the last created plan: the statement policies or their copy modified by hints
+     */
+    @VisibleForPackage
+    AerospikePolicyProvider getPolicyProvider() {
+        return policyProvider;
+    }
+
     public static boolean isInt(Object v) {
         return INT_CLASSES.contains(v.getClass());
     }
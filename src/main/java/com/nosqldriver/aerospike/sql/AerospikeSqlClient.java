@@ -14,6 +14,7 @@ import com.aerospike.client.admin.Privilege;
 import com.aerospike.client.admin.Role;
 import com.aerospike.client.admin.User;
 import com.aerospike.client.async.EventLoop;
+import com.aerospike.client.async.EventLoops;
 import com.aerospike.client.cluster.ClusterStats;
 import com.aerospike.client.cluster.Node;
 import com.aerospike.client.listener.BatchListListener;
@@ -42,10 +43,20 @@ import com.aerospike.client.query.Statement;
 import com.aerospike.client.task.ExecuteTask;
 import com.aerospike.client.task.IndexTask;
 import com.aerospike.client.task.RegisterTask;
+import com.nosqldriver.sql.DriverPolicy;
 
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -56,14 +67,56 @@ import static com.nosqldriver.util.SneakyThrower.sneakyThrow;
  * necessary for relational DBs and not performed by Aerospike.
  */
 public class AerospikeSqlClient implements IAerospikeClient {
+    private static final ExecutorService defaultExecutor = executor(new DriverPolicy().scanThreads);
     private final IAerospikeClient client;
+    private final EventLoops eventLoops;
+    private final ExecutorService executor;
 
     AerospikeSqlClient(Supplier<IAerospikeClient> clientSupplier) {
-        this(new ExceptionAwareSupplier<>(clientSupplier).get());
+        this(clientSupplier, null, 0);
     }
 
-    private AerospikeSqlClient(IAerospikeClient client) {
+    /**
+     * @param clientSupplier creates the client
+     * @param eventLoops event loops used by the client for asynchronous calls; they are closed together with the client
+     * @param backgroundThreads maximal number of threads that run background work of queries; 0 means unlimited;
+     *                          tasks submitted when all threads are busy wait in queue
+     */
+    AerospikeSqlClient(Supplier<IAerospikeClient> clientSupplier, EventLoops eventLoops, int backgroundThreads) {
+        this(new ExceptionAwareSupplier<>(clientSupplier).get(), eventLoops, executor(backgroundThreads));
+    }
+
+    private AerospikeSqlClient(IAerospikeClient client, EventLoops eventLoops, ExecutorService executor) {
         this.client = client;
+        this.eventLoops = eventLoops;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns executor that runs background work of queries (e.g. reading of scan results) performed using given client.
+     * Threads of the executor are daemon threads named {@code aerospike-jdbc-N}. The executor is shut down when the client is closed.
+     * Tasks submitted when all threads are busy wait in queue until a thread is available; submitting fails with
+     * {@link java.util.concurrent.RejectedExecutionException} only when the client is closed.
+     * @param client the client
+     * @return executor of the client or the default executor if the given client is not {@link AerospikeSqlClient}
+     */
+    public static Executor executor(IAerospikeClient client) {
+        return client instanceof AerospikeSqlClient ? ((AerospikeSqlClient)client).executor : defaultExecutor;
+    }
+
+    private static ExecutorService executor(int threads) {
+        AtomicInteger count = new AtomicInteger(0);
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "aerospike-jdbc-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        if (threads <= 0) {
+            return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 
 
@@ -99,7 +152,11 @@ public class AerospikeSqlClient implements IAerospikeClient {
 
     @Override
     public void close() {
+        executor.shutdownNow();
         client.close();
+        if (eventLoops != null) {
+            eventLoops.close();
+        }
     }
 
     @Override
@@ -482,8 +539,11 @@ public class AerospikeSqlClient implements IAerospikeClient {
         return get(() -> client.queryRoles(policy));
     }
 
-    private static SQLException sqlException(AerospikeException ae) {
+    public static SQLException sqlException(AerospikeException ae) {
         //TODO: implement sqlState (the second argument). see javadoc, https://stackoverflow.com/questions/14404866/how-to-detect-the-sql-error-state-of-sqlexception and http://www.contrib.andrew.cmu.edu/~shadow/sql/sql1992.txt for reference
+        if (ae instanceof AerospikeException.Timeout) {
+            return new SQLTimeoutException(ae.getMessage(), "", ae.getResultCode(), ae);
+        }
         return new SQLException(ae.getMessage(), "", ae.getResultCode(), ae);
     }
 
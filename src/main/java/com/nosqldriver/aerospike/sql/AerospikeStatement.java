@@ -1,13 +1,12 @@
 package com.nosqldriver.aerospike.sql;
 
 import com.aerospike.client.IAerospikeClient;
-import com.aerospike.client.Info;
 import com.aerospike.client.query.IndexCollectionType;
 import com.aerospike.client.query.IndexType;
 import com.aerospike.client.task.IndexTask;
+import com.nosqldriver.VisibleForPackage;
 import com.nosqldriver.aerospike.sql.query.AerospikeInsertQuery;
 import com.nosqldriver.aerospike.sql.query.QueryContainer;
-import com.nosqldriver.aerospike.sql.query.QueryHolder;
 import com.nosqldriver.sql.ChainedResultSetWrapper;
 import com.nosqldriver.sql.ListRecordSet;
 import com.nosqldriver.sql.PreparedStatementUtil;
@@ -29,10 +28,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -43,17 +46,23 @@ import static java.sql.ResultSet.FETCH_FORWARD;
 import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
 import static java.util.Collections.emptyList;
 import static java.util.Optional.ofNullable;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 public class AerospikeStatement extends WarningsHolder implements java.sql.Statement, SimpleWrapper {
     protected final IAerospikeClient client;
-    private final Connection connection;
+    private volatile Connection connection;
     private final StatementEventListener statementEventListener;
     protected final AtomicReference<String> schema;
     protected String set;
-    private int maxRows = Integer.MAX_VALUE;
+    private static final int DEFAULT_MAX_ROWS = Integer.MAX_VALUE;
+    private int maxRows = DEFAULT_MAX_ROWS;
     private int queryTimeout = 0;
+    private int fetchSize = 0;
     protected final AerospikePolicyProvider policyProvider;
-    protected final Collection<String> indexes;
+    private final AerospikePolicyProvider connectionPolicyProvider;
+    private final Collection<Runnable> cancelActions = new CopyOnWriteArrayList<>();
+    protected final Supplier<Collection<String>> indexes;
+    protected final StatementParser sqlParser;
     private ResultSet resultSet;
     private int updateCount;
     private final FunctionManager functionManager;
@@ -63,9 +72,7 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
             @Override
             ResultSet executeQuery(AerospikeStatement statement, String sql) throws SQLException {
                 AerospikeQueryFactory aqf = statement.createQueryFactory();
-                QueryContainer<ResultSet> plan = aqf.createQueryPlan(SqlUtil.fix(sql));
-                QueryHolder holder = (QueryHolder)plan;
-                holder.setParameters(statement, null);
+                QueryContainer<ResultSet> plan = statement.createSelectPlan(aqf, sql);
                 Function<IAerospikeClient, ResultSet> query = plan.getQuery(statement);
                 statement.set = aqf.getSet();
                 statement.setUpdateCount(-1);
@@ -161,7 +168,7 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
                 }
 
                 List<String> indexes = new ArrayList<>();
-                AerospikeQueryFactory aqf = new AerospikeQueryFactory(statement, statement.schema.get(), statement.policyProvider, indexes, statement.functionManager, statement.policyProvider.getDriverPolicy());
+                AerospikeQueryFactory aqf = new AerospikeQueryFactory(statement, statement.schema.get(), statement.policyProvider, indexes, statement.sqlParser, statement.functionManager, statement.policyProvider.getDriverPolicy());
                 aqf.createQueryPlan(sql);
                 String[] index = aqf.getIndexes().iterator().next().split("\\.");
 
@@ -175,8 +182,8 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
                     indexCollectionType = IndexCollectionType.valueOf(index[1].toUpperCase());
                 }
 
-                IndexTask task = statement.client.createIndex(null, aqf.getSchema(), aqf.getSet(), indexName, binName, indexType, indexCollectionType);
-                int timeout = statement.client.getWritePolicyDefault().totalTimeout;
+                IndexTask task = statement.client.createIndex(statement.policyProvider.getWritePolicy(), aqf.getSchema(), aqf.getSet(), indexName, binName, indexType, indexCollectionType);
+                int timeout = statement.policyProvider.getWritePolicy().totalTimeout;
                 if(timeout > 0) {
                     task.waitTillComplete(timeout);
                 } else {
@@ -206,10 +213,10 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
             @Override
             int executeUpdate(AerospikeStatement statement, String sql) throws SQLException {
                 List<String> indexes = new ArrayList<>();
-                AerospikeQueryFactory aqf = new AerospikeQueryFactory(statement, statement.schema.get(), statement.policyProvider, indexes, statement.functionManager, statement.policyProvider.getDriverPolicy());
+                AerospikeQueryFactory aqf = new AerospikeQueryFactory(statement, statement.schema.get(), statement.policyProvider, indexes, statement.sqlParser, statement.functionManager, statement.policyProvider.getDriverPolicy());
                 aqf.createQueryPlan(sql);
                 String indexName = aqf.getIndexes().iterator().next().split("\\.")[2];
-                statement.client.dropIndex(null, aqf.getSchema(), aqf.getSet(), indexName);
+                statement.client.dropIndex(statement.policyProvider.getWritePolicy(), aqf.getSchema(), aqf.getSet(), indexName);
                 statement.setUpdateCount(1);
                 return 1;
             }
@@ -266,13 +273,15 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
 
 
 
-    public AerospikeStatement(IAerospikeClient client, Connection connection, StatementEventListener statementEventListener, AtomicReference<String> schema, AerospikePolicyProvider policyProvider, FunctionManager functionManager) {
+    public AerospikeStatement(IAerospikeClient client, Connection connection, StatementEventListener statementEventListener, AtomicReference<String> schema, AerospikePolicyProvider policyProvider, Supplier<Collection<String>> indexes, StatementParser sqlParser, FunctionManager functionManager) {
         this.client = client;
         this.connection = connection;
         this.statementEventListener = statementEventListener;
         this.schema = schema;
-        this.policyProvider = policyProvider;
-        indexes = new ConnectionParametersParser().indexesParser(Info.request(client.getNodes()[0], "sindex"), "ns", "set", "bin");
+        this.policyProvider = new AerospikePolicyProvider(policyProvider);
+        connectionPolicyProvider = policyProvider;
+        this.indexes = indexes;
+        this.sqlParser = sqlParser;
         this.functionManager = functionManager;
     }
 
@@ -280,12 +289,13 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
 
     @Override
     public ResultSet executeQuery(String sql) throws SQLException {
+        startExecution();
         List<ResultSet> resultSets = new ArrayList<>();
         int updateCount = 0;
         for (String s : PreparedStatementUtil.splitQueries(sql)) {
             AerospikeStatementType type = getStatementType(sql);
             ResultSet rs = type.executeQuery(this, s);
-            statementEventListener.queried(new StatementEvent(type.statementType, sql));
+            statementEventListener.queried(new StatementEvent(type.statementType, sql, set));
             int n = rs.getStatement().getUpdateCount();
             resultSets.add(rs);
             updateCount += n;
@@ -300,21 +310,100 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
         }
 
         setUpdateCount(allResultSets ? -1 : updateCount);
+        resultSet = rs;
         return rs;
     }
 
     @Override
     public int executeUpdate(String sql) throws SQLException {
+        startExecution();
         int result = 0;
         for (String s : PreparedStatementUtil.splitQueries(sql)) {
             AerospikeStatementType type = getStatementType(sql);
             int n = type.executeUpdate(this, s);
-            statementEventListener.updated(new StatementEvent(type.statementType, sql));
+            statementEventListener.updated(new StatementEvent(type.statementType, sql, set));
             result += n;
         }
         return result;
     }
 
+    /**
+     * Asynchronous version of {@link #executeQuery(String)}; available via {@code statement.unwrap(AerospikeStatement.class)}.
+     * Query by primary key is executed using asynchronous client API if event loops are configured
+     * ({@code policy.driver.eventLoops}). Other queries return result set immediately and fetch records in background.
+     * Scripts of several statements and statements other than {@code SELECT} are executed synchronously by a thread of
+     * the client executor (see {@link AerospikeSqlClient#executor(IAerospikeClient)}), so the caller is not blocked anyway.
+     * @param sql the query
+     * @return future that is completed with the result set
+     */
+    public CompletableFuture<ResultSet> executeQueryAsync(String sql) {
+        try {
+            Iterable<String> queries = PreparedStatementUtil.splitQueries(sql);
+            AerospikeStatementType type = getStatementType(sql);
+            if (type != AerospikeStatementType.SELECT || count(queries) != 1) {
+                return supplyAsync(() -> SneakyThrower.get(() -> executeQuery(sql)), AerospikeSqlClient.executor(client));
+            }
+            startExecution();
+            AerospikeQueryFactory aqf = createQueryFactory();
+            QueryContainer<ResultSet> plan = createSelectPlan(aqf, sql);
+            Function<IAerospikeClient, CompletableFuture<ResultSet>> query = plan.getAsyncQuery(this);
+            set = aqf.getSet();
+            setUpdateCount(-1);
+            return query.apply(client).thenApply(rs -> {
+                resultSet = rs;
+                statementEventListener.queried(new StatementEvent(type.statementType, sql, set));
+                return rs;
+            });
+        } catch (SQLException | RuntimeException e) {
+            return failedFuture(e);
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #executeUpdate(String)}; available via {@code statement.unwrap(AerospikeStatement.class)}.
+     * Records are inserted using asynchronous client API if event loops are configured ({@code policy.driver.eventLoops}).
+     * Other statements are executed synchronously by a thread of the client executor (see {@link AerospikeSqlClient#executor(IAerospikeClient)}).
+     * @param sql the statement
+     * @return future that is completed with the number of affected records
+     */
+    public CompletableFuture<Integer> executeUpdateAsync(String sql) {
+        try {
+            Iterable<String> queries = PreparedStatementUtil.splitQueries(sql);
+            AerospikeStatementType type = getStatementType(sql);
+            if (type != AerospikeStatementType.INSERT || count(queries) != 1 || policyProvider.getDriverPolicy().eventLoops <= 0) {
+                return supplyAsync(() -> SneakyThrower.get(() -> executeUpdate(sql)), AerospikeSqlClient.executor(client));
+            }
+            startExecution();
+            AerospikeQueryFactory aqf = createQueryFactory();
+            Function<IAerospikeClient, ResultSet> insert = aqf.createQueryPlan(sql).getQuery(this);
+            set = aqf.getSet();
+            if (!(insert instanceof AerospikeInsertQuery)) {
+                return supplyAsync(() -> SneakyThrower.get(() -> executeUpdate(sql)), AerospikeSqlClient.executor(client));
+            }
+            return ((AerospikeInsertQuery)insert).insertAsync(client).thenApply(n -> {
+                setUpdateCount(n);
+                statementEventListener.updated(new StatementEvent(type.statementType, sql, set));
+                return n;
+            });
+        } catch (SQLException | RuntimeException e) {
+            return failedFuture(e);
+        }
+    }
+
+    private static int count(Iterable<String> queries) {
+        int count = 0;
+        for (String ignored : queries) {
+            count++;
+        }
+        return count;
+    }
+
+    private static <T> CompletableFuture<T> failedFuture(Throwable e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
     @Override
     public void close() throws SQLException {
         // nothing to do here
@@ -352,12 +441,65 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
 
     @Override
     public void setQueryTimeout(int seconds) throws SQLException {
+        if (seconds < 0) {
+            throw new SQLException(format("Query timeout must be >= 0 but was %d", seconds));
+        }
         this.queryTimeout = seconds;
+        policyProvider.setTotalTimeout(seconds * 1000, connectionPolicyProvider);
     }
 
+    /**
+     * Stops scans, queries and aggregations started by this statement that are still running: the server side work
+     * is terminated and further iteration over their result sets throws {@link SQLException}.
+     */
     @Override
     public void cancel() throws SQLException {
-        throw new SQLFeatureNotSupportedException("Statement cannot be canceled");
+        cancelActions.forEach(Runnable::run);
+    }
+
+    @VisibleForPackage
+    void addCancelAction(Runnable action) {
+        cancelActions.add(action);
+    }
+
+    @VisibleForPackage
+    void removeCancelAction(Runnable action) {
+        cancelActions.remove(action);
+    }
+
+    /**
+     * Returns the statement to the state of newly created one, so that it can be reused: closes the current result set
+     * and resets max rows, query timeout (i.e. restores the connection policies) and fetch size to their defaults.
+     */
+    @VisibleForPackage
+    void reset() throws SQLException {
+        closeResultSet();
+        setMaxRows(DEFAULT_MAX_ROWS);
+        setQueryTimeout(0);
+        setFetchSize(0);
+    }
+
+    /**
+     * Executing statement again implicitly closes the result set of the previous execution and forgets its
+     * cancel actions, so that they are not accumulated by a statement that is executed many times.
+     */
+    private void startExecution() throws SQLException {
+        closeResultSet();
+        cancelActions.clear();
+    }
+
+    @VisibleForPackage
+    void setResultSet(ResultSet resultSet) {
+        this.resultSet = resultSet;
+    }
+
+    @VisibleForPackage
+    void closeResultSet() throws SQLException {
+        ResultSet rs = resultSet;
+        resultSet = null;
+        if (rs != null) {
+            rs.close();
+        }
     }
 
     @Override
@@ -367,12 +509,13 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
 
     @Override
     public boolean execute(String sql) throws SQLException {
+        startExecution();
         Boolean result = null;
         int updateCount = 0;
         for (String s : PreparedStatementUtil.splitQueries(sql)) {
             AerospikeStatementType type = getStatementType(sql);
             boolean r = type.execute(this, s);
-            statementEventListener.executed(new StatementEvent(type.statementType, sql));
+            statementEventListener.executed(new StatementEvent(type.statementType, sql, set));
             int n = getUpdateCount();
             updateCount += n;
             if (result == null) {
@@ -419,14 +562,20 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
 
     @Override
     public void setFetchSize(int rows) throws SQLException {
-        if (rows != 1) {
-            addWarning(format("Fetch size %d (other than 1) is not supported right now and will be ignored", rows));
+        if (rows < 0) {
+            throw new SQLException(format("Fetch size must be >= 0 but was %d", rows));
         }
+        this.fetchSize = rows;
     }
 
+    /**
+     * Fetch size is the number of records read ahead by query or scan executed by this statement: it limits
+     * {@link com.aerospike.client.policy.QueryPolicy#recordQueueSize} of queries and the queue of scan workers
+     * (see {@link com.nosqldriver.sql.DriverPolicy#scanQueueSize}). 0 (the default) means that the policies of the connection are used.
+     */
     @Override
     public int getFetchSize() throws SQLException {
-        return 1;
+        return fetchSize;
     }
 
     @Override
@@ -459,6 +608,14 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
         return connection;
     }
 
+    /**
+     * Statements cached by pooled connection are reused by different logical connections.
+     */
+    @VisibleForPackage
+    void setConnection(Connection connection) {
+        this.connection = connection;
+    }
+
     @Override
     public boolean getMoreResults(int current) throws SQLException {
         return false;
@@ -542,8 +699,20 @@ public class AerospikeStatement extends WarningsHolder implements java.sql.State
     }
 
 
+    /**
+     * Creates plan of select statement. Query by literal primary key is executed as a prepared statement with the key
+     * passed as a parameter, so that queries that differ only by the key share the same parsed statement.
+     * @see PreparedStatementUtil#parameterizePrimaryKey(String)
+     */
+    protected QueryContainer<ResultSet> createSelectPlan(AerospikeQueryFactory aqf, String sql) throws SQLException {
+        Optional<Entry<String, Object[]>> parameterized = PreparedStatementUtil.parameterizePrimaryKey(sql);
+        QueryContainer<ResultSet> plan = aqf.createQueryPlan(SqlUtil.fix(parameterized.map(Entry::getKey).orElse(sql)));
+        plan.setParameters(this, parameterized.map(Entry::getValue).orElse(null));
+        return plan;
+    }
+
     protected AerospikeQueryFactory createQueryFactory() {
-        return new AerospikeQueryFactory(this, schema.get(), policyProvider, indexes, functionManager, policyProvider.getDriverPolicy());
+        return new AerospikeQueryFactory(this, schema.get(), policyProvider, indexes.get(), sqlParser, functionManager, policyProvider.getDriverPolicy());
     }
 
     public IAerospikeClient getClient() {
@@ -0,0 +1,55 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.nosqldriver.VisibleForPackage;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static com.nosqldriver.util.SneakyThrower.sneakyThrow;
+
+/**
+ * Connects query that is running on the cluster to {@link AerospikeStatement#cancel()}.
+ *
+ * The action passed to the constructor is called when the statement is canceled and should stop the server side work
+ * (e.g. close the record set). The query is unregistered from the statement when it is {@link #done()}.
+ */
+@VisibleForPackage
+class Cancellation {
+    private final AerospikeStatement statement;
+    private final Runnable action;
+    private volatile boolean canceled = false;
+
+    @VisibleForPackage
+    Cancellation(Statement statement, Runnable stop) {
+        this.statement = statement instanceof AerospikeStatement ? (AerospikeStatement)statement : null;
+        action = () -> {
+            canceled = true;
+            stop.run();
+        };
+        if (this.statement != null) {
+            this.statement.addCancelAction(action);
+        }
+    }
+
+    @VisibleForPackage
+    boolean isCanceled() {
+        return canceled;
+    }
+
+    /**
+     * Throws {@link SQLException} if the statement was canceled.
+     */
+    @VisibleForPackage
+    void assertNotCanceled() {
+        if (canceled) {
+            sneakyThrow(new SQLException("Statement was canceled"));
+        }
+    }
+
+    @VisibleForPackage
+    void done() {
+        if (statement != null) {
+            statement.removeCancelAction(action);
+        }
+    }
+}
@@ -9,12 +9,14 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static java.lang.String.join;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static java.util.stream.Collectors.toSet;
 
@@ -93,18 +95,38 @@ class ConnectionParametersParser {
 
     @VisibleForPackage
     Collection<String> indexesParser(String infos, String ... propNames) {
+        return infoParser(infos).stream()
+                .map(p -> join(".", Arrays.stream(propNames).map(p::getProperty).toArray(String[]::new)))
+                .collect(toSet());
+    }
+
+    /**
+     * Parses info response that contains list of objects separated by {@code ;} with properties separated by {@code :},
+     * e.g. response of {@code sindex} or {@code sets}.
+     */
+    @VisibleForPackage
+    List<Properties> infoParser(String infos) {
         return Arrays.stream(infos.split(";"))
                 .filter(info -> !info.isEmpty())
-                .map(info -> new StringReader(info.replace(":", "\n")))
-                .map(r -> {
-                    Properties props = new Properties();
-                    try {
-                        props.load(r);
-                    } catch (IOException e) {
-                        throw new IllegalStateException(e);
-                    }
-                    return props;
-                }).map(p -> join(".", Arrays.stream(propNames).map(p::getProperty).toArray(String[]::new)))
-                .collect(toSet());
+                .map(info -> properties(info, ":"))
+                .collect(toList());
+    }
+
+    /**
+     * Parses info response that contains properties separated by {@code ;}, e.g. statistics of index.
+     */
+    @VisibleForPackage
+    Properties statisticsParser(String statistics) {
+        return properties(statistics, ";");
+    }
+
+    private Properties properties(String info, String separator) {
+        Properties props = new Properties();
+        try {
+            props.load(new StringReader(info.replace(separator, "\n")));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return props;
     }
 }
@@ -0,0 +1,76 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Info;
+import com.aerospike.client.cluster.Node;
+import com.aerospike.client.policy.InfoPolicy;
+import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.aerospike.sql.query.SecondaryIndexes;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+
+/**
+ * Holds secondary indexes known to the connection as strings {@code namespace.set.bin}.
+ *
+ * The catalog is loaded on first access. When it becomes older than the configured timeout the current value is still
+ * returned while the fresh value is loaded in background. Statements that create or drop indexes invalidate the catalog,
+ * so that the next access reloads it synchronously. Negative timeout disables caching.
+ *
+ * Together with the indexes the catalog holds statistics (number of indexed records and distinct values of each index
+ * and number of records in each set) used to choose the cheapest way to execute query.
+ */
+@VisibleForPackage
+class IndexCatalog extends RefreshableValue<Collection<String>> implements Supplier<Collection<String>> {
+    private final long cacheTimeout;
+
+    @VisibleForPackage
+    IndexCatalog(Supplier<Collection<String>> loader, long cacheTimeout, Executor refresher) {
+        super(loader, refresher);
+        this.cacheTimeout = cacheTimeout;
+    }
+
+    @Override
+    public Collection<String> get() {
+        return get(cacheTimeout);
+    }
+
+    /**
+     * Loads indexes and their statistics from the first node of the cluster. All statistics are taken from the same node,
+     * so they are comparable with each other even though they do not represent the whole cluster.
+     * Failure to retrieve statistics is not fatal: the indexes are returned without them.
+     */
+    @VisibleForPackage
+    static Collection<String> load(IAerospikeClient client, InfoPolicy policy, ConnectionParametersParser parser) {
+        Node node = client.getNodes()[0];
+        String sindex = Info.request(policy, node, "sindex");
+        SecondaryIndexes indexes = new SecondaryIndexes(parser.indexesParser(sindex, "ns", "set", "bin"));
+        try {
+            List<Properties> infos = parser.infoParser(sindex);
+            String[] commands = infos.stream().map(p -> format("sindex/%s/%s", p.getProperty("ns"), p.getProperty("indexname"))).toArray(String[]::new);
+            Map<String, String> statistics = Info.request(policy, node, commands);
+            for (int i = 0; i < commands.length; i++) {
+                Properties index = infos.get(i);
+                Properties stat = parser.statisticsParser(statistics.getOrDefault(commands[i], ""));
+                if (stat.containsKey("entries") && stat.containsKey("keys")) {
+                    indexes.setIndexStatistics(index.getProperty("ns"), index.getProperty("set"), index.getProperty("bin"), Long.parseLong(stat.getProperty("entries")), Long.parseLong(stat.getProperty("keys")));
+                }
+            }
+            for (Properties set : parser.infoParser(Info.request(policy, node, "sets"))) {
+                if (set.containsKey("objects")) {
+                    indexes.setRecords(set.getProperty("ns"), set.getProperty("set"), Long.parseLong(set.getProperty("objects")));
+                }
+            }
+        } catch (AerospikeException | NumberFormatException e) {
+            // statistics are not available; query execution plan will be chosen without them
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,120 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.nosqldriver.VisibleForPackage;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Value that is expensive to retrieve and therefore is cached (stale-while-revalidate).
+ *
+ * The value is loaded synchronously on first access and after {@link #invalidate()}. When the cached value becomes older
+ * than the timeout passed to {@link #get(long)} or is {@link #markStale() marked stale} it is still returned while the fresh
+ * value is loaded in background.
+ * Only one background refresh runs at a time. Refresh that was started before invalidation is ignored.
+ * The background refresh runs on the given executor, typically the single refresher thread shared by all values cached
+ * for the same client (see {@link #newRefresher()}), so that slow cluster does not occupy threads used by anything else.
+ * Failed background refresh keeps the current value; the next access starts new refresh.
+ * @param <T> type of the value
+ */
+@VisibleForPackage
+class RefreshableValue<T> {
+    private final Supplier<T> loader;
+    private final Executor refresher;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private volatile T value = null;
+    private volatile long lastUpdate = 0;
+    private volatile long generation = 0;
+    private final AtomicLong staleMarks = new AtomicLong(0);
+
+    @VisibleForPackage
+    RefreshableValue(Supplier<T> loader, Executor refresher) {
+        this.loader = loader;
+        this.refresher = refresher;
+    }
+
+    /**
+     * @return executor with one daemon thread named {@code aerospike-jdbc-refresher} used to refresh cached values in background
+     */
+    @VisibleForPackage
+    static ExecutorService newRefresher() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "aerospike-jdbc-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param cacheTimeout maximal age of the value in milliseconds; negative value disables caching
+     * @return the cached value
+     */
+    @VisibleForPackage
+    T get(long cacheTimeout) {
+        if (cacheTimeout < 0) {
+            return loader.get();
+        }
+        T current = value;
+        if (current == null) {
+            synchronized (this) {
+                if (value == null) {
+                    value = loader.get();
+                    lastUpdate = System.currentTimeMillis();
+                }
+                return value;
+            }
+        }
+        if (lastUpdate < System.currentTimeMillis() - cacheTimeout && refreshing.compareAndSet(false, true)) {
+            long startGeneration = generation;
+            long startStaleMarks = staleMarks.get();
+            try {
+                CompletableFuture.supplyAsync(loader, refresher).whenComplete((fresh, e) -> {
+                    synchronized (this) {
+                        if (e == null && generation == startGeneration) {
+                            value = fresh;
+                            // value loaded before it was marked stale may miss the change, so it stays stale
+                            lastUpdate = staleMarks.get() == startStaleMarks ? System.currentTimeMillis() : 0;
+                        }
+                    }
+                    refreshing.set(false);
+                });
+            } catch (RejectedExecutionException e) {
+                // the refresher is shut down because the client is closed; the current value is still returned
+                refreshing.set(false);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Makes the next {@link #get(long)} start background refresh while the current value is still returned.
+     * Unlike {@link #invalidate()} it neither blocks nor makes readers wait for reload.
+     */
+    @VisibleForPackage
+    void markStale() {
+        staleMarks.incrementAndGet();
+        lastUpdate = 0;
+    }
+
+    /**
+     * @return the cached value or {@code null} if it is not loaded; the value is neither loaded nor refreshed
+     */
+    @VisibleForPackage
+    T peek() {
+        return value;
+    }
+
+    @VisibleForPackage
+    void invalidate() {
+        synchronized (this) {
+            generation++;
+            value = null;
+        }
+    }
+}
@@ -7,24 +7,50 @@ import com.nosqldriver.sql.DriverPolicy;
 import com.nosqldriver.sql.GenericTypeDiscoverer;
 import com.nosqldriver.util.FunctionManager;
 
+import java.nio.ByteBuffer;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.function.Supplier;
 
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 
+
+/**
+ * Result set over one or several record sets. Record sets are iterated one after another; if there are several of them
+ * records that appear in more than one record set are returned once (the digests of returned records are kept in memory).
+ * Queries that produce the record sets are started ahead of the iteration, but no more than
+ * {@link DriverPolicy#indexQueryConcurrency} of them run at the same time.
+ */
 public class ResultSetOverAerospikeRecordSet extends AerospikeRecordResultSet {
-    private final RecordSet rs;
+    private final List<Supplier<RecordSet>> queries;
+    private final RecordSet[] recordSets;
+    private final int concurrency;
+    private final Set<ByteBuffer> digests;
+    private int current = 0;
+    private boolean closed = false;
     private Iterator<KeyRecord> it;
     private KeyRecord currentRecord;
+    private final Cancellation cancellation;
 
-    public ResultSetOverAerospikeRecordSet(Statement statement, String schema, String table, List<DataColumn> columns, RecordSet rs, BiFunction<String, String, Iterable<KeyRecord>> keyRecordsFetcher, FunctionManager functionManager, DriverPolicy driverPolicy, Collection<SpecialField> specialFields) {
+    public ResultSetOverAerospikeRecordSet(Statement statement, String schema, String table, List<DataColumn> columns, List<Supplier<RecordSet>> queries, BiFunction<String, String, Iterable<KeyRecord>> keyRecordsFetcher, FunctionManager functionManager, DriverPolicy driverPolicy, Collection<SpecialField> specialFields) {
         super(statement, schema, table, columns,
                 new GenericTypeDiscoverer<>(keyRecordsFetcher, new CompositeKeyRecordExtractor(KeyRecordFetcherFactory.extractors(specialFields)), functionManager, driverPolicy.discoverMetadataLines, specialFields),
                 specialFields);
-        this.rs = rs;
+        this.queries = queries;
+        recordSets = new RecordSet[queries.size()];
+        concurrency = max(driverPolicy.indexQueryConcurrency, 1);
+        digests = queries.size() > 1 ? new HashSet<>() : null;
+        cancellation = new Cancellation(statement, this::closeRecordSets);
+        start();
     }
 
     @Override
@@ -32,30 +58,67 @@ public class ResultSetOverAerospikeRecordSet extends AerospikeRecordResultSet {
         if (isAfterLast()) {
             return false;
         }
-        return it != null && !it.hasNext();
+        return it != null && !it.hasNext() && current == recordSets.length - 1;
     }
 
     @Override
     protected boolean moveToNext() {
         if (it == null) {
-            it = rs.iterator();
+            it = recordSets[current].iterator();
         }
 
 
-        if (it.hasNext()) {
-            currentRecord = it.next();
-            return true;
+        cancellation.assertNotCanceled();
+        while (true) {
+            if (it.hasNext()) {
+                KeyRecord record = it.next();
+                if (digests == null || digests.add(ByteBuffer.wrap(record.key.digest))) {
+                    currentRecord = record;
+                    return true;
+                }
+            } else if (current < recordSets.length - 1) {
+                current++;
+                start();
+                cancellation.assertNotCanceled();
+                it = recordSets[current].iterator();
+            } else {
+                break;
+            }
         }
+        cancellation.assertNotCanceled();
+        cancellation.done();
         return false;
     }
 
 
     @Override
     public void close() throws SQLException {
-        rs.close();
+        cancellation.done();
+        closeRecordSets();
         super.close();
     }
 
+    /**
+     * Starts queries of the current record set and of the following ones up to the concurrency limit.
+     */
+    private synchronized void start() {
+        try {
+            for (int i = current; i < min(current + concurrency, recordSets.length) && !closed; i++) {
+                if (recordSets[i] == null) {
+                    recordSets[i] = queries.get(i).get();
+                }
+            }
+        } catch (RuntimeException e) {
+            closeRecordSets();
+            throw e;
+        }
+    }
+
+    private synchronized void closeRecordSets() {
+        closed = true;
+        Arrays.stream(recordSets).filter(Objects::nonNull).forEach(RecordSet::close);
+    }
+
     @Override
     protected KeyRecord getRecord() {
         return currentRecord;
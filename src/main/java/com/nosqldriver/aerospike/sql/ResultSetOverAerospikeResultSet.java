@@ -33,11 +33,13 @@ public class ResultSetOverAerospikeResultSet extends BaseSchemalessResultSet<Map
     protected final ResultSet rs;
     private static final Pattern functionOfField = Pattern.compile("\\w+\\(\\s*(\\w+)\\s*\\)");
     private final ValueExtractor valueExtractor = new ValueExtractor();
+    private final Cancellation cancellation;
 
 
     public ResultSetOverAerospikeResultSet(Statement statement, String schema, String table, List<DataColumn> columns, ResultSet rs, TypeDiscoverer typeDiscoverer, Collection<SpecialField> specialFields) {
         super(statement, schema, table, columns, typeDiscoverer, specialFields);
         this.rs = rs;
+        cancellation = new Cancellation(statement, rs::close);
     }
 
 
@@ -84,12 +86,14 @@ public class ResultSetOverAerospikeResultSet extends BaseSchemalessResultSet<Map
                 },
                 specialFields);
         this.rs = rs;
+        cancellation = new Cancellation(statement, rs::close);
     }
 
 
 
     @Override
     public void close() throws SQLException {
+        cancellation.done();
         rs.close();
         super.close();
     }
@@ -146,6 +150,12 @@ public class ResultSetOverAerospikeResultSet extends BaseSchemalessResultSet<Map
     }
 
     protected boolean moveToNext() {
-        return rs.next();
+        cancellation.assertNotCanceled();
+        if (rs.next()) {
+            return true;
+        }
+        cancellation.assertNotCanceled();
+        cancellation.done();
+        return false;
     }
 }
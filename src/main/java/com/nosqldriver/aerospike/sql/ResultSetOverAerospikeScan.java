@@ -1,10 +1,12 @@
 package com.nosqldriver.aerospike.sql;
 
+import com.aerospike.client.AerospikeException;
 import com.aerospike.client.IAerospikeClient;
 import com.aerospike.client.Key;
 import com.aerospike.client.Record;
 import com.aerospike.client.ScanCallback;
 import com.aerospike.client.Value;
+import com.aerospike.client.cluster.Node;
 import com.aerospike.client.policy.ScanPolicy;
 import com.aerospike.client.query.KeyRecord;
 import com.nosqldriver.sql.BaseSchemalessResultSet;
@@ -14,39 +16,131 @@ import com.nosqldriver.sql.GenericTypeDiscoverer;
 import com.nosqldriver.util.FunctionManager;
 
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static com.nosqldriver.aerospike.sql.KeyRecordFetcherFactory.emptyKeyRecordExtractor;
 import static com.nosqldriver.aerospike.sql.KeyRecordFetcherFactory.keyRecordDataExtractor;
 import static com.nosqldriver.aerospike.sql.KeyRecordFetcherFactory.keyRecordKeyExtractor;
 import static com.nosqldriver.aerospike.sql.SpecialField.PK;
+import static com.nosqldriver.util.SneakyThrower.sneakyThrow;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.util.Collections.emptyMap;
 import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
 
+/**
+ * Result set over scan of the whole set. The scan is performed by background workers (see {@link AerospikeSqlClient#executor(IAerospikeClient)}).
+ * By default one worker scans all nodes using {@link IAerospikeClient#scanAll(ScanPolicy, String, String, ScanCallback, String...)}.
+ * If {@link DriverPolicy#scanNodeConcurrency} is positive up to this number of workers scan the nodes of the cluster in parallel
+ * using {@link IAerospikeClient#scanNode(ScanPolicy, Node, String, String, ScanCallback, String...)}, each worker scans
+ * the next node that was not scanned yet when it finishes the previous one.
+ * Each worker puts records to its own bounded queue ({@link DriverPolicy#scanQueueSize} or the fetch size of the statement
+ * if it is positive); the queues are merged by
+ * the result set in round robin order.
+ * Only the given bins are retrieved; all bins are retrieved if no bin names are given.
+ * If all threads of the executor are busy the workers wait in its queue; if none of them starts within the total timeout of
+ * the scan policy (if positive) reading of the result set fails with {@link SQLTimeoutException}.
+ * If {@link DriverPolicy#scanRecordsPerSecond} is positive the workers wait before accepting the next record, so that
+ * all workers together do not receive more records per second; the scan is slowed down on the server side as well
+ * because the client does not read the next records while the callback waits.
+ */
 public class ResultSetOverAerospikeScan extends BaseSchemalessResultSet<KeyRecord> {
-    private final ScanCallback callback;
     private volatile KeyRecord current;
-    private final BlockingQueue<KeyRecord> queue = new ArrayBlockingQueue<>(10);
+    private final List<BlockingQueue<KeyRecord>> queues;
+    /**
+     * Number of records (including barriers) available in all queues.
+     */
+    private final Semaphore available = new Semaphore(0);
     private static final KeyRecord barrier = new KeyRecord(new Key("done", "done", "done"), new Record(emptyMap(), 0, 0));
+    private final Cancellation cancellation;
+    private volatile boolean stopped = false;
+    private volatile Throwable failure;
+    private int activeWorkers;
+    private int nextQueue = 0;
+    private final long nanosPerRecord;
+    private final AtomicLong nextPermit = new AtomicLong(System.nanoTime());
+    private volatile boolean started = false;
+    private final long startDeadline;
 
-    public ResultSetOverAerospikeScan(IAerospikeClient client, Statement statement, String schema, String table, List<DataColumn> columns, BiFunction<String, String, Iterable<KeyRecord>> keyRecordsFetcher, FunctionManager functionManager, DriverPolicy driverPolicy, Collection<SpecialField> specialFields) {
+    public ResultSetOverAerospikeScan(IAerospikeClient client, ScanPolicy policy, Statement statement, String schema, String table, List<DataColumn> columns, BiFunction<String, String, Iterable<KeyRecord>> keyRecordsFetcher, FunctionManager functionManager, DriverPolicy driverPolicy, int fetchSize, Collection<SpecialField> specialFields, String... binNames) {
         super(statement,
                 schema,
                 table,
                 columns,
                 new GenericTypeDiscoverer<>(keyRecordsFetcher, new CompositeKeyRecordExtractor(KeyRecordFetcherFactory.extractors(specialFields)), functionManager, driverPolicy.discoverMetadataLines, specialFields),
                 specialFields);
-        this.callback = (key, record) -> enqueue(new KeyRecord(key, record));
-        new Thread(() -> {
-            client.scanAll(new ScanPolicy(), schema, table, callback);
-            enqueue(barrier);
-        }).start();
+        int queueSize = max(fetchSize > 0 ? fetchSize : driverPolicy.scanQueueSize, 1);
+        nanosPerRecord = driverPolicy.scanRecordsPerSecond > 0 ? SECONDS.toNanos(1) / driverPolicy.scanRecordsPerSecond : 0;
+        List<Consumer<ScanCallback>> workers = new ArrayList<>();
+        if (driverPolicy.scanNodeConcurrency > 0) {
+            Node[] nodes = client.getNodes();
+            AtomicInteger nextNode = new AtomicInteger(0);
+            for (int i = 0; i < min(driverPolicy.scanNodeConcurrency, nodes.length); i++) {
+                workers.add(callback -> {
+                    for (int n = nextNode.getAndIncrement(); n < nodes.length && !stopped; n = nextNode.getAndIncrement()) {
+                        client.scanNode(policy, nodes[n], schema, table, callback, binNames);
+                    }
+                });
+            }
+        }
+        if (workers.isEmpty()) {
+            workers.add(callback -> client.scanAll(policy, schema, table, callback, binNames));
+        }
+        queues = workers.stream().map(w -> new ArrayBlockingQueue<KeyRecord>(queueSize)).collect(toList());
+        activeWorkers = workers.size();
+        cancellation = new Cancellation(statement, this::stop);
+        startDeadline = policy.totalTimeout > 0 ? System.nanoTime() + MILLISECONDS.toNanos(policy.totalTimeout) : 0;
+
+        Executor executor = AerospikeSqlClient.executor(client);
+        for (int i = 0; i < workers.size(); i++) {
+            Consumer<ScanCallback> worker = workers.get(i);
+            BlockingQueue<KeyRecord> queue = queues.get(i);
+            ScanCallback callback = (key, record) -> {
+                if (!throttle() || !enqueue(queue, new KeyRecord(key, record))) {
+                    throw new AerospikeException.ScanTerminated();
+                }
+            };
+            try {
+                executor.execute(() -> {
+                    started = true;
+                    try {
+                        if (!stopped) {
+                            worker.accept(callback);
+                        }
+                    } catch (Exception e) {
+                        // the scan is terminated by the callback when the result set is closed or the statement is canceled
+                        if (!stopped) {
+                            failure = e;
+                            stop(); // other workers are stopped too
+                        }
+                    } finally {
+                        enqueue(queue, barrier);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                stop();
+                cancellation.done();
+                sneakyThrow(new SQLException("Cannot start scan: the client is closed", e));
+            }
+        }
     }
 
     @Override
@@ -56,12 +150,51 @@ public class ResultSetOverAerospikeScan extends BaseSchemalessResultSet<KeyRecor
 
     @Override
     protected boolean moveToNext() {
-        try {
-            current = queue.take();
-            return current != barrier;
-        } catch (InterruptedException e) {
-            throw new IllegalStateException(e);
+        cancellation.assertNotCanceled();
+        while (activeWorkers > 0 && !stopped) {
+            try {
+                if (!started && startDeadline != 0) {
+                    if (!available.tryAcquire(max(startDeadline - System.nanoTime(), 0), NANOSECONDS)) {
+                        stop();
+                        cancellation.done();
+                        sneakyThrow(new SQLTimeoutException("Scan was not started within the timeout: too many scans are running concurrently"));
+                    }
+                } else {
+                    available.acquire();
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            cancellation.assertNotCanceled();
+            KeyRecord record = poll();
+            if (record == barrier) {
+                activeWorkers--;
+            } else if (record != null) {
+                current = record;
+                return true;
+            }
+        }
+        cancellation.done();
+        if (failure != null) {
+            sneakyThrow(failure instanceof AerospikeException ? AerospikeSqlClient.sqlException((AerospikeException)failure) : failure);
+        }
+        return false;
+    }
+
+    /**
+     * Takes record from the next queue that is not empty starting from the queue that follows the previously used one.
+     * @return the record or null if all queues are empty (that happens only if the scan was stopped)
+     */
+    private KeyRecord poll() {
+        for (int i = 0; i < queues.size(); i++) {
+            BlockingQueue<KeyRecord> queue = queues.get(nextQueue);
+            nextQueue = (nextQueue + 1) % queues.size();
+            KeyRecord record = queue.poll();
+            if (record != null) {
+                return record;
+            }
         }
+        return null;
     }
 
     @Override
@@ -120,14 +253,61 @@ public class ResultSetOverAerospikeScan extends BaseSchemalessResultSet<KeyRecor
     @Override
     public void close() throws SQLException {
         super.close();
-        enqueue(barrier);
+        cancellation.done();
+        stop();
+    }
+
+    /**
+     * Stops the scan: the next record received by the callbacks terminates it. The queues are cleared,
+     * so that neither the scanning workers nor the reader stay blocked.
+     */
+    private void stop() {
+        stopped = true;
+        queues.forEach(BlockingQueue::clear);
+        available.release();
+    }
+
+    /**
+     * Waits until the next record may be accepted according to {@link DriverPolicy#scanRecordsPerSecond}.
+     * Each record reserves its own time slot, so the rate is shared by all workers.
+     * @return true if record may be accepted, false if scan was stopped
+     */
+    private boolean throttle() {
+        if (nanosPerRecord <= 0) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long permit = max(nextPermit.getAndUpdate(p -> max(p, now) + nanosPerRecord), now);
+        try {
+            for (long wait = permit - System.nanoTime(); wait > 0 && !stopped; wait = permit - System.nanoTime()) {
+                NANOSECONDS.sleep(min(wait, MILLISECONDS.toNanos(100)));
+            }
+            return !stopped;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop();
+            return false;
+        }
     }
 
-    private void enqueue(KeyRecord record) {
+    /**
+     * Waits until the record is added to the queue or the scan is stopped.
+     * The scanning thread is interrupted when the client is closed; the scan is stopped in this case.
+     * @return true if record was added, false if scan was stopped
+     */
+    private boolean enqueue(BlockingQueue<KeyRecord> queue, KeyRecord record) {
         try {
-            queue.put(record);
+            while (!stopped) {
+                if (queue.offer(record, 100, MILLISECONDS)) {
+                    available.release();
+                    return true;
+                }
+            }
+            return false;
         } catch (InterruptedException e) {
-            throw new IllegalStateException(e);
+            Thread.currentThread().interrupt();
+            stop();
+            return false;
         }
     }
 }
@@ -69,7 +69,7 @@ public class ResultSetOverDistinctMap extends ResultSetOverAerospikeResultSet {
     public boolean next() throws SQLException {
         assertClosed();
         if (!nextWasCalled) {
-            nextResult = rs.next();
+            nextResult = moveToNext();
             nextWasCalled = true;
         }
         if (!nextResult) {
@@ -0,0 +1,119 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.policy.Priority;
+import com.aerospike.client.policy.ScanPolicy;
+import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.sql.DriverPolicy;
+
+import java.sql.SQLSyntaxErrorException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.lang.Math.min;
+import static java.lang.String.format;
+
+/**
+ * Hints given in SQL comment that starts with {@code /*+}, e.g.
+ * <pre>select /*+ SCAN_RPS(5000) PRIORITY(LOW) CONCURRENT_NODES(2) *&#47; * from people</pre>
+ * The hints are applied to a copy of the statement policies, so they affect only the statement they are written in.
+ * Supported hints:
+ * <ul>
+ *     <li>{@code SCAN_RPS(n)} - maximal number of records per second retrieved by scan (see {@link DriverPolicy#scanRecordsPerSecond})</li>
+ *     <li>{@code PRIORITY(DEFAULT|LOW|MEDIUM|HIGH)} - priority of scan, query and write</li>
+ *     <li>{@code CONCURRENT_NODES(n)} - maximal number of nodes scanned or queried in parallel</li>
+ * </ul>
+ * Unknown hints are ignored.
+ */
+@VisibleForPackage
+class StatementHints {
+    private static final Pattern HINT_COMMENT = Pattern.compile("/\\*\\+(.*?)\\*/", Pattern.DOTALL);
+    private static final Pattern HINT = Pattern.compile("(\\w+)\\s*\\(\\s*([^)]*?)\\s*\\)");
+
+    private StatementHints() {
+    }
+
+    /**
+     * @param sql the SQL statement
+     * @return hints found in the statement: upper case name to value
+     */
+    @VisibleForPackage
+    static Map<String, String> parse(String sql) {
+        Map<String, String> hints = new LinkedHashMap<>();
+        if (sql.contains("/*+")) {
+            Matcher comment = HINT_COMMENT.matcher(sql);
+            while (comment.find()) {
+                Matcher hint = HINT.matcher(comment.group(1));
+                while (hint.find()) {
+                    hints.put(hint.group(1).toUpperCase(), hint.group(2));
+                }
+            }
+        }
+        return hints;
+    }
+
+    /**
+     * Applies hints of the statement to copy of the given policies.
+     * @param provider the policies of the statement
+     * @param sql the SQL statement
+     * @return the given provider if the statement does not contain hints or copy of it modified according to the hints
+     * @throws SQLSyntaxErrorException if value of a hint is invalid
+     */
+    @VisibleForPackage
+    static AerospikePolicyProvider apply(AerospikePolicyProvider provider, String sql) throws SQLSyntaxErrorException {
+        Map<String, String> hints = parse(sql);
+        if (hints.isEmpty()) {
+            return provider;
+        }
+        DriverPolicy driverPolicy = new DriverPolicy(provider.getDriverPolicy());
+        AerospikePolicyProvider hinted = new AerospikePolicyProvider(provider, driverPolicy);
+        for (Map.Entry<String, String> hint : hints.entrySet()) {
+            String value = hint.getValue();
+            switch (hint.getKey()) {
+                case "SCAN_RPS":
+                    driverPolicy.scanRecordsPerSecond = intValue(hint.getKey(), value);
+                    break;
+                case "PRIORITY":
+                    Priority priority = priority(value);
+                    hinted.getScanPolicy().priority = priority;
+                    hinted.getQueryPolicy().priority = priority;
+                    hinted.getWritePolicy().priority = priority;
+                    break;
+                case "CONCURRENT_NODES":
+                    int nodes = intValue(hint.getKey(), value);
+                    ScanPolicy scanPolicy = hinted.getScanPolicy();
+                    scanPolicy.maxConcurrentNodes = nodes;
+                    scanPolicy.concurrentNodes = nodes != 1;
+                    hinted.getQueryPolicy().maxConcurrentNodes = nodes;
+                    if (driverPolicy.scanNodeConcurrency > 0 && nodes > 0) {
+                        driverPolicy.scanNodeConcurrency = min(driverPolicy.scanNodeConcurrency, nodes);
+                    }
+                    break;
+                default:
+                    break; // unknown hints are ignored like any other comment
+            }
+        }
+        return hinted;
+    }
+
+    private static int intValue(String name, String value) throws SQLSyntaxErrorException {
+        try {
+            int n = Integer.parseInt(value);
+            if (n >= 0) {
+                return n;
+            }
+        } catch (NumberFormatException e) {
+            // the error is reported below
+        }
+        throw new SQLSyntaxErrorException(format("Value of hint %s must be non negative integer but was '%s'", name, value));
+    }
+
+    private static Priority priority(String value) throws SQLSyntaxErrorException {
+        try {
+            return Priority.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new SQLSyntaxErrorException(format("Unsupported priority '%s'", value), e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.nosqldriver.VisibleForPackage;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserManager;
+import net.sf.jsqlparser.statement.Statement;
+
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Collections.synchronizedMap;
+
+/**
+ * Parses SQL statements and caches the parsed statements by SQL text.
+ *
+ * Query plan is bound to the JDBC statement that executes it (its policies and parameter values), so it cannot be shared.
+ * Parsing of SQL is however the most expensive part of the plan creation and the parsed statement is only read while
+ * the plan is being created. Therefore one instance is shared by all connections that use the same Aerospike client.
+ * The least recently used statements are evicted when the number of cached statements exceeds the configured size
+ * ({@code policy.driver.planCacheSize}); zero disables the cache.
+ */
+@VisibleForPackage
+class StatementParser {
+    private final CCJSqlParserManager parserManager = new CCJSqlParserManager();
+    private final Map<String, Statement> statements;
+    private final int size;
+
+    @VisibleForPackage
+    StatementParser(int size) {
+        this.size = size;
+        statements = synchronizedMap(new LinkedHashMap<String, Statement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Statement> eldest) {
+                return size() > StatementParser.this.size;
+            }
+        });
+    }
+
+    @VisibleForPackage
+    Statement parse(String sql) throws JSQLParserException {
+        if (size <= 0) {
+            return parserManager.parse(new StringReader(sql));
+        }
+        Statement statement = statements.get(sql);
+        if (statement == null) {
+            statement = parserManager.parse(new StringReader(sql));
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    @VisibleForPackage
+    int size() {
+        return statements.size();
+    }
+}
@@ -0,0 +1,132 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Info;
+import com.aerospike.client.Language;
+import com.aerospike.client.cluster.Node;
+import com.aerospike.client.policy.InfoPolicy;
+import com.aerospike.client.policy.Policy;
+import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.util.IOUtils;
+import com.nosqldriver.util.SneakyThrower;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.lang.String.format;
+import static java.util.Arrays.stream;
+import static java.util.Collections.synchronizedMap;
+
+/**
+ * Registers Lua modules used by aggregation queries.
+ *
+ * Registration of UDF is cluster wide and relatively expensive operation, so it is done lazily, only when the module
+ * is needed for the first time, and only if the module is absent on the server or its content differs from the content
+ * of the module bundled with the driver. The hash reported by {@code udf-list} info command is SHA-1 of the module content.
+ * Once the module was found up to date or registered it is not checked again for the same client.
+ */
+public class UdfRegistrar {
+    private static final Map<IAerospikeClient, UdfRegistrar> registrars = synchronizedMap(new WeakHashMap<>());
+    private final Map<String, Boolean> modules = new ConcurrentHashMap<>();
+
+    /**
+     * Makes sure that given Lua module is registered and is up to date.
+     * @param client the client
+     * @param policy policy used for registration
+     * @param classLoader class loader used to load the module
+     * @param resourcePath path of the module; used also as the server side module name
+     */
+    public static void register(IAerospikeClient client, Policy policy, ClassLoader classLoader, String resourcePath) {
+        registrar(client).ensureRegistered(client, policy, classLoader, resourcePath);
+    }
+
+    /**
+     * @param client the client
+     * @return registrar that remembers modules already checked for given client
+     */
+    @VisibleForPackage
+    static UdfRegistrar registrar(IAerospikeClient client) {
+        return registrars.computeIfAbsent(client, c -> new UdfRegistrar());
+    }
+
+    @VisibleForPackage
+    void ensureRegistered(IAerospikeClient client, Policy policy, ClassLoader classLoader, String resourcePath) {
+        modules.computeIfAbsent(resourcePath, path -> {
+            String hash = sha1(read(classLoader, path));
+            Node[] nodes = client.getNodes();
+            InfoPolicy infoPolicy = new InfoPolicy();
+            infoPolicy.timeout = policy.totalTimeout;
+            if (nodes.length == 0 || !stream(nodes).allMatch(node -> hash.equals(parseUdfList(udfList(infoPolicy, node)).get(path)))) {
+                registerModule(client, policy, classLoader, path);
+            }
+            return true;
+        });
+    }
+
+    @VisibleForPackage
+    String udfList(InfoPolicy infoPolicy, Node node) {
+        return Info.request(infoPolicy, node, "udf-list");
+    }
+
+    @VisibleForPackage
+    void registerModule(IAerospikeClient client, Policy policy, ClassLoader classLoader, String path) {
+        client.register(policy, classLoader, path, path, Language.LUA).waitTillComplete();
+    }
+
+    /**
+     * Parses response of {@code udf-list} info command that looks like
+     * {@code filename=stats.lua,hash=2b7e4a0e5b2f3a1f9c1a2d0e4a1c8b2f9e7d6c5b,type=LUA;filename=...}
+     * @param udfList the response
+     * @return map of module file name to its hash
+     */
+    @VisibleForPackage
+    static Map<String, String> parseUdfList(String udfList) {
+        Map<String, String> result = new HashMap<>();
+        if (udfList == null) {
+            return result;
+        }
+        for (String udf : udfList.split(";")) {
+            Map<String, String> props = new HashMap<>();
+            for (String prop : udf.split(",")) {
+                String[] kv = prop.split("=", 2);
+                if (kv.length == 2) {
+                    props.put(kv[0].trim(), kv[1].trim());
+                }
+            }
+            if (props.containsKey("filename")) {
+                result.put(props.get("filename"), props.get("hash"));
+            }
+        }
+        return result;
+    }
+
+    @VisibleForPackage
+    static String sha1(byte[] content) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(content)) {
+                hex.append(format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] read(ClassLoader classLoader, String resourcePath) {
+        try (InputStream in = classLoader.getResourceAsStream(resourcePath)) {
+            if (in == null) {
+                throw new IllegalArgumentException(format("Cannot find UDF module %s", resourcePath));
+            }
+            return IOUtils.toByteArray(in);
+        } catch (IOException e) {
+            return SneakyThrower.sneakyThrow(e);
+        }
+    }
+}
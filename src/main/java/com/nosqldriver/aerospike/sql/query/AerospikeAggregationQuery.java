@@ -7,6 +7,7 @@ import com.nosqldriver.aerospike.sql.AerospikePolicyProvider;
 import com.nosqldriver.aerospike.sql.KeyRecordFetcherFactory;
 import com.nosqldriver.aerospike.sql.ResultSetOverAerospikeResultSet;
 import com.nosqldriver.aerospike.sql.SpecialField;
+import com.nosqldriver.aerospike.sql.UdfRegistrar;
 import com.nosqldriver.sql.DataColumn;
 import com.nosqldriver.sql.DriverPolicy;
 import com.nosqldriver.util.FunctionManager;
@@ -25,6 +26,7 @@ public class AerospikeAggregationQuery extends AerospikeQuery<Statement, QueryPo
 
     @Override
     public ResultSet apply(IAerospikeClient client) {
+        UdfRegistrar.register(client, policy, criteria.getResourceLoader(), criteria.getResourcePath());
         return new ResultSetOverAerospikeResultSet(
                 statement,
                 schema,
@@ -14,21 +14,68 @@ import com.nosqldriver.sql.DriverPolicy;
 import com.nosqldriver.util.FunctionManager;
 
 import java.sql.ResultSet;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.IntStream;
 
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+
 public class AerospikeBatchQueryByPk extends AerospikeQuery<Key[], BatchPolicy, KeyRecord> {
     private final DriverPolicy driverPolicy;
+    private final String[] binNames;
 
-    public AerospikeBatchQueryByPk(java.sql.Statement sqlStatement, String schema, String set, List<DataColumn> columns, Key[] keys, AerospikePolicyProvider policyProveder, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
+    public AerospikeBatchQueryByPk(java.sql.Statement sqlStatement, String schema, String set, List<DataColumn> columns, Key[] keys, AerospikePolicyProvider policyProveder, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields, String[] binNames) {
         super(sqlStatement, schema, set, columns, keys, policyProveder.getBatchPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
         driverPolicy = policyProveder.getDriverPolicy();
+        this.binNames = binNames;
     }
 
+    /**
+     * Keys are retrieved by chunks of {@link DriverPolicy#batchSize}; chunks are retrieved one after another.
+     */
     @Override
     public ResultSet apply(IAerospikeClient client) {
-        return new ResultSetOverAerospikeRecords(statement, schema, set, columns, zip(criteria, client.get(policy, criteria)), keyRecordFetcherFactory.createKeyRecordsFetcher(client, schema, set), functionManager, specialFields, driverPolicy);
+        Record[] records = new Record[criteria.length];
+        int from = 0;
+        for (Key[] keys : chunks()) {
+            System.arraycopy(binNames.length == 0 ? client.get(policy, keys) : client.get(policy, keys, binNames), 0, records, from, keys.length);
+            from += keys.length;
+        }
+        return resultSet(client, records);
+    }
+
+    /**
+     * Chunks of keys are retrieved concurrently.
+     */
+    @Override
+    public CompletableFuture<ResultSet> applyAsync(IAerospikeClient client) {
+        List<CompletableFuture<Record[]>> chunks = chunks().stream().map(keys -> {
+            CompletableFuture<Record[]> records = new CompletableFuture<>();
+            return AsyncListeners.call(records, () -> {
+                if (binNames.length == 0) {
+                    client.get(null, AsyncListeners.records(records), policy, keys);
+                } else {
+                    client.get(null, AsyncListeners.records(records), policy, keys, binNames);
+                }
+            });
+        }).collect(toList());
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                .thenApply(v -> resultSet(client, chunks.stream().map(CompletableFuture::join).flatMap(Arrays::stream).toArray(Record[]::new)));
+    }
+
+    private List<Key[]> chunks() {
+        int size = driverPolicy.batchSize > 0 ? driverPolicy.batchSize : criteria.length;
+        if (criteria.length <= size) {
+            return singletonList(criteria);
+        }
+        return IntStream.range(0, (criteria.length + size - 1) / size).mapToObj(i -> Arrays.copyOfRange(criteria, i * size, Math.min(criteria.length, (i + 1) * size))).collect(toList());
+    }
+
+    private ResultSet resultSet(IAerospikeClient client, Record[] records) {
+        return new ResultSetOverAerospikeRecords(statement, schema, set, columns, zip(criteria, records), keyRecordFetcherFactory.createKeyRecordsFetcher(client, schema, set), functionManager, specialFields, driverPolicy);
     }
 
 
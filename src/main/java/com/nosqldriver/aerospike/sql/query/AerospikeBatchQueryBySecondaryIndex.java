@@ -3,6 +3,8 @@ package com.nosqldriver.aerospike.sql.query;
 import com.aerospike.client.IAerospikeClient;
 import com.aerospike.client.Record;
 import com.aerospike.client.policy.QueryPolicy;
+import com.aerospike.client.query.Filter;
+import com.aerospike.client.query.RecordSet;
 import com.aerospike.client.query.Statement;
 import com.nosqldriver.VisibleForPackage;
 import com.nosqldriver.aerospike.sql.AerospikePolicyProvider;
@@ -17,13 +19,26 @@ import com.nosqldriver.util.FunctionManager;
 import java.sql.ResultSet;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Supplier;
 
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Query by secondary index or by predicate expressions only. If several filters are given the statement is executed once
+ * per filter; the queries run concurrently (see {@link DriverPolicy#indexQueryConcurrency}) and their results are merged
+ * skipping records returned by more than one query.
+ * The fetch size of the SQL statement is used as the size of the record queue of each query.
+ */
 public class AerospikeBatchQueryBySecondaryIndex extends AerospikeQuery<Statement, QueryPolicy, Record> {
     private final DriverPolicy driverPolicy;
+    private final List<Filter> filters;
+
     @VisibleForPackage
-    AerospikeBatchQueryBySecondaryIndex(java.sql.Statement sqlStatement, String schema, List<DataColumn> columns, Statement statement, AerospikePolicyProvider policyProvider, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
+    AerospikeBatchQueryBySecondaryIndex(java.sql.Statement sqlStatement, String schema, List<DataColumn> columns, Statement statement, List<Filter> filters, AerospikePolicyProvider policyProvider, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
         super(sqlStatement, schema, statement.getSetName(), columns, statement, policyProvider.getQueryPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
         driverPolicy = policyProvider.getDriverPolicy();
+        this.filters = filters;
     }
 
     @Override
@@ -53,6 +68,38 @@ public class AerospikeBatchQueryBySecondaryIndex extends AerospikeQuery<Statemen
                 }
             };
         }
-        return new ResultSetOverAerospikeRecordSet(statement, schema, set, columns, client.query(policy, criteria), keyRecordFetcherFactory.createKeyRecordsFetcher(client, schema, set), functionManager, driverPolicy, specialFields);
+        QueryPolicy policy = queryPolicy();
+        List<Supplier<RecordSet>> queries = filters.isEmpty() ?
+                singletonList(() -> client.query(policy, criteria)) :
+                filters.stream().map(filter -> (Supplier<RecordSet>) () -> client.query(policy, withFilter(filter))).collect(toList());
+        return new ResultSetOverAerospikeRecordSet(statement, schema, set, columns, queries, keyRecordFetcherFactory.createKeyRecordsFetcher(client, schema, set), functionManager, driverPolicy, specialFields);
+    }
+
+    /**
+     * @return the query policy whose record queue is limited by the fetch size of the statement if it is set
+     */
+    private QueryPolicy queryPolicy() {
+        int fetchSize = fetchSize();
+        if (fetchSize <= 0) {
+            return policy;
+        }
+        QueryPolicy queryPolicy = new QueryPolicy(policy);
+        queryPolicy.recordQueueSize = fetchSize;
+        return queryPolicy;
+    }
+
+    private Statement withFilter(Filter filter) {
+        Statement statement = new Statement();
+        statement.setNamespace(criteria.getNamespace());
+        statement.setSetName(criteria.getSetName());
+        statement.setIndexName(criteria.getIndexName());
+        if (criteria.getBinNames() != null) {
+            statement.setBinNames(criteria.getBinNames());
+        }
+        if (criteria.getPredExp() != null) {
+            statement.setPredExp(criteria.getPredExp());
+        }
+        statement.setFilter(filter);
+        return statement;
     }
 }
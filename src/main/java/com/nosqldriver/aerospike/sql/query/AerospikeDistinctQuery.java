@@ -8,6 +8,7 @@ import com.nosqldriver.aerospike.sql.AerospikePolicyProvider;
 import com.nosqldriver.aerospike.sql.KeyRecordFetcherFactory;
 import com.nosqldriver.aerospike.sql.ResultSetOverDistinctMap;
 import com.nosqldriver.aerospike.sql.SpecialField;
+import com.nosqldriver.aerospike.sql.UdfRegistrar;
 import com.nosqldriver.sql.DataColumn;
 import com.nosqldriver.sql.DriverPolicy;
 import com.nosqldriver.sql.FilteredResultSet;
@@ -37,6 +38,7 @@ public class AerospikeDistinctQuery extends AerospikeQuery<Statement, QueryPolic
 
     @Override
     public ResultSet apply(IAerospikeClient client) {
+        UdfRegistrar.register(client, policy, criteria.getResourceLoader(), criteria.getResourcePath());
         return new FilteredResultSet(
                 new ResultSetOverDistinctMap(
                         statement,
@@ -3,6 +3,7 @@ package com.nosqldriver.aerospike.sql.query;
 import com.aerospike.client.Bin;
 import com.aerospike.client.IAerospikeClient;
 import com.aerospike.client.Key;
+import com.aerospike.client.Record;
 import com.aerospike.client.policy.BatchPolicy;
 import com.aerospike.client.policy.WritePolicy;
 import com.nosqldriver.aerospike.sql.KeyRecordFetcherFactory;
@@ -19,6 +20,7 @@ import java.sql.Clob;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedHashMap;
@@ -26,6 +28,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.IntStream;
@@ -40,6 +43,7 @@ import static java.util.stream.Collectors.toList;
 public class AerospikeInsertQuery extends AerospikeQuery<Iterable<List<Object>>, WritePolicy, Object> {
     private final int indexOfPK;
     private final boolean skipDuplicates;
+    private final BatchPolicy batchPolicy;
     public final static ThreadLocal<Integer> updatedRecordsCount = new ThreadLocal<>();
 
     private final static Map<Predicate<Object>, Function<Object, Object>> valueTransformer = new LinkedHashMap<>();
@@ -85,9 +89,10 @@ public class AerospikeInsertQuery extends AerospikeQuery<Iterable<List<Object>>,
     }
 
 
-    public AerospikeInsertQuery(Statement statement, String schema, String set, List<DataColumn> columns, Iterable<List<Object>> data, WritePolicy policy, boolean skipDuplicates, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
+    public AerospikeInsertQuery(Statement statement, String schema, String set, List<DataColumn> columns, Iterable<List<Object>> data, WritePolicy policy, BatchPolicy batchPolicy, boolean skipDuplicates, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
         super(statement, schema, set, columns, data, policy, keyRecordFetcherFactory, functionManager, specialFields);
         this.skipDuplicates = skipDuplicates;
+        this.batchPolicy = batchPolicy;
         columns.stream().map(DataColumn::getName).filter("PK"::equals).findFirst().orElseThrow(() -> new IllegalArgumentException("PK is not specified"));
 
         indexOfPK =
@@ -106,7 +111,7 @@ public class AerospikeInsertQuery extends AerospikeQuery<Iterable<List<Object>>,
             for (List<Object> row : criteria) {
                 keys.add(createKey(schema, set, row.get(indexOfPK)));
             }
-            if (Arrays.stream(client.get(new BatchPolicy(), keys.toArray(new Key[0]))).anyMatch(Objects::nonNull)) {
+            if (Arrays.stream(client.get(batchPolicy, keys.toArray(new Key[0]))).anyMatch(Objects::nonNull)) {
                 sneakyThrow(new SQLException("Duplicate entries"));
             }
         }
@@ -122,6 +127,42 @@ public class AerospikeInsertQuery extends AerospikeQuery<Iterable<List<Object>>,
         return new ListRecordSet(statement, schema, set, emptyList(), emptyList());
     }
 
+    /**
+     * Asynchronous version of {@link #apply(IAerospikeClient)}: checks duplicates using asynchronous batch get
+     * and then writes all rows concurrently.
+     * @param client the client
+     * @return future number of inserted records
+     */
+    public CompletableFuture<Integer> insertAsync(IAerospikeClient client) {
+        List<Key> keys = new ArrayList<>();
+        List<Bin[]> rows = new ArrayList<>();
+        for (List<Object> row : criteria) {
+            keys.add(createKey(schema, set, row.get(indexOfPK)));
+            rows.add(bins(row));
+        }
+
+        final CompletableFuture<?> validated;
+        if (skipDuplicates || keys.isEmpty()) {
+            validated = CompletableFuture.completedFuture(null);
+        } else {
+            CompletableFuture<Record[]> existing = new CompletableFuture<>();
+            validated = AsyncListeners.call(existing, () -> client.get(null, AsyncListeners.records(existing), batchPolicy, keys.toArray(new Key[0])))
+                    .thenAccept(records -> {
+                        if (Arrays.stream(records).anyMatch(Objects::nonNull)) {
+                            sneakyThrow(new SQLException("Duplicate entries"));
+                        }
+                    });
+        }
+
+        return validated.thenCompose(v -> {
+            CompletableFuture<?>[] writes = IntStream.range(0, keys.size()).mapToObj(i -> {
+                CompletableFuture<Key> write = new CompletableFuture<>();
+                return AsyncListeners.call(write, () -> client.put(null, AsyncListeners.write(write), policy, keys.get(i), rows.get(i)));
+            }).toArray(CompletableFuture<?>[]::new);
+            return CompletableFuture.allOf(writes).thenApply(x -> writes.length);
+        });
+    }
+
     private Bin[] bins(List<Object> row) {
         Bin[] bins = new Bin[columns.size() - 1];
         for (int i = 0, j = 0; i < columns.size(); i++) {
@@ -8,12 +8,16 @@ import com.nosqldriver.sql.DataColumn;
 import com.nosqldriver.util.FunctionManager;
 
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
+import static com.nosqldriver.util.SneakyThrower.sneakyThrow;
+
 abstract class AerospikeQuery<C, P extends Policy, R> implements Function<IAerospikeClient, ResultSet> {
     protected final KeyRecordFetcherFactory keyRecordFetcherFactory;
     protected final Statement statement;
@@ -39,4 +43,26 @@ abstract class AerospikeQuery<C, P extends Policy, R> implements Function<IAeros
 
     @Override
     public abstract ResultSet apply(IAerospikeClient client);
+
+    /**
+     * @return number of records to read ahead requested by {@link Statement#setFetchSize(int)} or 0 if the statement does not limit it
+     */
+    protected int fetchSize() {
+        try {
+            return statement == null ? 0 : statement.getFetchSize();
+        } catch (SQLException e) {
+            return sneakyThrow(e);
+        }
+    }
+
+    /**
+     * Executes the query asynchronously. Queries that do not have asynchronous implementation are executed synchronously
+     * and return already completed future.
+     * @param client the client
+     * @return future result set
+     */
+    public CompletableFuture<ResultSet> applyAsync(IAerospikeClient client) {
+        CompletableFuture<ResultSet> future = new CompletableFuture<>();
+        return AsyncListeners.call(future, () -> future.complete(apply(client)));
+    }
 }
@@ -16,16 +16,36 @@ import com.nosqldriver.util.FunctionManager;
 import java.sql.ResultSet;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class AerospikeQueryByPk extends AerospikeQuery<Key, QueryPolicy, Record> {
     private final DriverPolicy driverPolicy;
-    public AerospikeQueryByPk(java.sql.Statement sqlStatement, String schema, List<DataColumn> columns, Key key, AerospikePolicyProvider policyProvider, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
+    private final String[] binNames;
+
+    public AerospikeQueryByPk(java.sql.Statement sqlStatement, String schema, List<DataColumn> columns, Key key, AerospikePolicyProvider policyProvider, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields, String[] binNames) {
         super(sqlStatement, schema, key.setName, columns, key, policyProvider.getQueryPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
         driverPolicy = policyProvider.getDriverPolicy();
+        this.binNames = binNames;
     }
 
     @Override
     public ResultSet apply(IAerospikeClient client) {
-        return new ResultSetOverAerospikeRecords(statement, schema, set, columns, new KeyRecord[] {new KeyRecord(criteria, client.get(policy, criteria))}, keyRecordFetcherFactory.createKeyRecordsFetcher(client, schema, set), functionManager, specialFields, driverPolicy);
+        return resultSet(client, binNames.length == 0 ? client.get(policy, criteria) : client.get(policy, criteria, binNames));
+    }
+
+    @Override
+    public CompletableFuture<ResultSet> applyAsync(IAerospikeClient client) {
+        CompletableFuture<Record> record = new CompletableFuture<>();
+        return AsyncListeners.call(record, () -> {
+            if (binNames.length == 0) {
+                client.get(null, AsyncListeners.record(record), policy, criteria);
+            } else {
+                client.get(null, AsyncListeners.record(record), policy, criteria, binNames);
+            }
+        }).thenApply(r -> resultSet(client, r));
+    }
+
+    private ResultSet resultSet(IAerospikeClient client, Record record) {
+        return new ResultSetOverAerospikeRecords(statement, schema, set, columns, new KeyRecord[] {new KeyRecord(criteria, record)}, keyRecordFetcherFactory.createKeyRecordsFetcher(client, schema, set), functionManager, specialFields, driverPolicy);
     }
 }
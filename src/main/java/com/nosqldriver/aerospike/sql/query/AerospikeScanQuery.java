@@ -19,15 +19,18 @@ import java.util.function.Predicate;
 
 public class AerospikeScanQuery extends AerospikeQuery<Predicate<ResultSet>, ScanPolicy, Record> {
     private final DriverPolicy driverPolicy;
-    public AerospikeScanQuery(java.sql.Statement sqlStatement, String schema, String set, List<DataColumn> columns, Predicate<ResultSet> predicate, AerospikePolicyProvider policyProvider, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields) {
+    private final String[] binNames;
+
+    public AerospikeScanQuery(java.sql.Statement sqlStatement, String schema, String set, List<DataColumn> columns, Predicate<ResultSet> predicate, AerospikePolicyProvider policyProvider, KeyRecordFetcherFactory keyRecordFetcherFactory, FunctionManager functionManager, Collection<SpecialField> specialFields, String[] binNames) {
         super(sqlStatement, schema, set, columns, predicate, policyProvider.getScanPolicy(), keyRecordFetcherFactory, functionManager, specialFields);
         driverPolicy = policyProvider.getDriverPolicy();
+        this.binNames = binNames;
     }
 
     @Override
     public ResultSet apply(IAerospikeClient client) {
         return new FilteredResultSet(
-                new ResultSetOverAerospikeScan(client, statement, schema, set, columns, keyRecordFetcherFactory.createKeyRecordsFetcher(client, schema, set), functionManager, driverPolicy, specialFields),
+                new ResultSetOverAerospikeScan(client, policy, statement, schema, set, columns, keyRecordFetcherFactory.createKeyRecordsFetcher(client, schema, set), functionManager, driverPolicy, fetchSize(), specialFields, binNames),
                 columns,
                 criteria,
                 true);
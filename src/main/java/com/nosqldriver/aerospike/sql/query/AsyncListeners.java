@@ -0,0 +1,81 @@
+package com.nosqldriver.aerospike.sql.query;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.listener.RecordArrayListener;
+import com.aerospike.client.listener.RecordListener;
+import com.aerospike.client.listener.WriteListener;
+import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.aerospike.sql.AerospikeSqlClient;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Adapters of Aerospike asynchronous listeners to {@link CompletableFuture}.
+ * Failures are reported as {@link java.sql.SQLException} exactly like failures of synchronous calls.
+ */
+@VisibleForPackage
+class AsyncListeners {
+    private AsyncListeners() {
+        // utility class
+    }
+
+    @VisibleForPackage
+    static RecordListener record(CompletableFuture<Record> future) {
+        return new RecordListener() {
+            @Override
+            public void onSuccess(Key key, Record record) {
+                future.complete(record);
+            }
+
+            @Override
+            public void onFailure(AerospikeException exception) {
+                future.completeExceptionally(AerospikeSqlClient.sqlException(exception));
+            }
+        };
+    }
+
+    @VisibleForPackage
+    static RecordArrayListener records(CompletableFuture<Record[]> future) {
+        return new RecordArrayListener() {
+            @Override
+            public void onSuccess(Key[] keys, Record[] records) {
+                future.complete(records);
+            }
+
+            @Override
+            public void onFailure(AerospikeException exception) {
+                future.completeExceptionally(AerospikeSqlClient.sqlException(exception));
+            }
+        };
+    }
+
+    @VisibleForPackage
+    static WriteListener write(CompletableFuture<Key> future) {
+        return new WriteListener() {
+            @Override
+            public void onSuccess(Key key) {
+                future.complete(key);
+            }
+
+            @Override
+            public void onFailure(AerospikeException exception) {
+                future.completeExceptionally(AerospikeSqlClient.sqlException(exception));
+            }
+        };
+    }
+
+    /**
+     * Runs asynchronous call; exception thrown synchronously by the call is reported through the returned future.
+     */
+    @VisibleForPackage
+    static <T> CompletableFuture<T> call(CompletableFuture<T> future, Runnable call) {
+        try {
+            call.run();
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
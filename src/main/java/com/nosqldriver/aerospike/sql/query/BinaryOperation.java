@@ -229,7 +229,7 @@ public class BinaryOperation {
                 if (operation.values.stream().anyMatch(v -> !AerospikeQueryFactory.isInt(v))) {
                     SneakyThrower.sneakyThrow(new SQLException("BETWEEN can be applied to integer values only"));
                 }
-                queries.setFilter(Filter.range(operation.column, ((Number) operation.values.get(0)).longValue(), ((Number) operation.values.get(1)).longValue()), operation.column);
+                queries.setRangeFilter(Filter.range(operation.column, ((Number) operation.values.get(0)).longValue(), ((Number) operation.values.get(1)).longValue()), operation.column);
                 return queries;
             }
         },
@@ -0,0 +1,219 @@
+package com.nosqldriver.aerospike.sql.query;
+
+import com.aerospike.client.query.Filter;
+import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.aerospike.sql.SpecialField;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.schema.Column;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static com.nosqldriver.util.IOUtils.stripQuotes;
+import static java.lang.String.join;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Chooses the secondary index used by query. Query can use only one index, so when the condition refers to several indexed
+ * bins the one that is expected to return the least number of records is chosen; the rest of the condition is evaluated
+ * by predicate expressions anyway. The estimates are based on {@link SecondaryIndexes} statistics:
+ * equality returns {@code entries / keys} records, range returns third of the indexed records.
+ * If even the best index is expected to return more than half of the set the index is not used at all: scan is cheaper.
+ * Without statistics equality is preferred over range and the first condition over the following ones.
+ *
+ * Condition {@code c1 OR c2 OR ...} where each of {@code c1, c2, ...} can use index is executed as several queries
+ * (one per disjunct) whose results are merged. {@code bin IN (v1, v2, ...)} is handled as {@code bin = v1 OR bin = v2 OR ...}.
+ */
+@VisibleForPackage
+class IndexSelector {
+    private static final double RANGE_SELECTIVITY = 1.0 / 3;
+    private static final double SCAN_THRESHOLD = 0.5;
+
+    private final Collection<String> indexes;
+    private final List<Candidate> candidates = new ArrayList<>();
+    private final List<List<IndexSelector>> disjunctions = new ArrayList<>();
+
+    @VisibleForPackage
+    IndexSelector(Collection<String> indexes) {
+        this.indexes = indexes;
+    }
+
+    @VisibleForPackage
+    void add(String namespace, String set, String bin, Filter filter, boolean range) {
+        if (indexes.contains(join(".", namespace, set, bin))) {
+            candidates.add(new Candidate(namespace, set, bin, filter, range));
+        }
+    }
+
+    /**
+     * Registers filters that can be created for the condition: equality or {@code BETWEEN} of bin and literals that
+     * are connected by {@code AND} to the rest of the condition and disjunctions ({@code OR}, {@code IN}) of such conditions.
+     */
+    @VisibleForPackage
+    void add(String namespace, String set, Expression where) {
+        for (Expression conjunct : PredExpTranslator.conjuncts(where, new ArrayList<>())) {
+            Expression expr = unwrap(conjunct);
+            if (expr instanceof OrExpression) {
+                disjunctions.add(disjuncts(expr, new ArrayList<>()).stream().map(disjunct -> {
+                    IndexSelector branch = new IndexSelector(indexes);
+                    branch.add(namespace, set, disjunct);
+                    return branch;
+                }).collect(toList()));
+            } else {
+                addComparison(namespace, set, expr);
+            }
+        }
+    }
+
+    @VisibleForPackage
+    void clear() {
+        candidates.clear();
+        disjunctions.clear();
+    }
+
+    /**
+     * @return filters to be used by the query: empty list if the query should not use secondary index, one filter
+     * if the query uses one index, several filters if the query is executed as union of several queries.
+     */
+    @VisibleForPackage
+    List<Filter> select() {
+        return plan().filter(this::cheaperThanScan).map(plan -> plan.stream().map(c -> c.filter).collect(toList())).orElse(emptyList());
+    }
+
+    /**
+     * @return the cheapest of the single index query and unions of queries for each disjunction that can be executed using indexes.
+     * Without statistics the single index query is preferred.
+     */
+    private Optional<List<Candidate>> plan() {
+        List<List<Candidate>> plans = new ArrayList<>();
+        best().ifPresent(candidate -> plans.add(singletonList(candidate)));
+        for (List<IndexSelector> branches : disjunctions) {
+            List<List<Candidate>> branchPlans = branches.stream().map(IndexSelector::plan).filter(Optional::isPresent).map(Optional::get).collect(toList());
+            if (branchPlans.size() == branches.size()) {
+                plans.add(branchPlans.stream().flatMap(List::stream).collect(toList()));
+            }
+        }
+        return plans.stream().min(Comparator.comparingLong(plan -> estimate(plan).orElse(Long.MAX_VALUE)));
+    }
+
+    private Optional<Candidate> best() {
+        return candidates.stream().min(Comparator.<Candidate>comparingLong(c -> estimate(c).orElse(Long.MAX_VALUE)).thenComparing(c -> c.range));
+    }
+
+    private boolean cheaperThanScan(List<Candidate> plan) {
+        OptionalLong estimate = estimate(plan);
+        OptionalLong records = indexes instanceof SecondaryIndexes ? ((SecondaryIndexes) indexes).records(plan.get(0).namespace, plan.get(0).set) : OptionalLong.empty();
+        return !estimate.isPresent() || !records.isPresent() || estimate.getAsLong() <= records.getAsLong() * SCAN_THRESHOLD;
+    }
+
+    private OptionalLong estimate(List<Candidate> plan) {
+        long total = 0;
+        for (Candidate candidate : plan) {
+            OptionalLong estimate = estimate(candidate);
+            if (!estimate.isPresent()) {
+                return estimate;
+            }
+            total += estimate.getAsLong();
+        }
+        return OptionalLong.of(total);
+    }
+
+    private OptionalLong estimate(Candidate candidate) {
+        if (!(indexes instanceof SecondaryIndexes)) {
+            return OptionalLong.empty();
+        }
+        SecondaryIndexes statistics = (SecondaryIndexes) indexes;
+        if (candidate.range) {
+            OptionalLong entries = statistics.entries(candidate.namespace, candidate.set, candidate.bin);
+            return entries.isPresent() ? OptionalLong.of((long) (entries.getAsLong() * RANGE_SELECTIVITY)) : entries;
+        }
+        return statistics.recordsPerValue(candidate.namespace, candidate.set, candidate.bin);
+    }
+
+    private void addComparison(String namespace, String set, Expression expr) {
+        if (expr instanceof EqualsTo) {
+            EqualsTo eq = (EqualsTo) expr;
+            boolean columnOnLeft = eq.getLeftExpression() instanceof Column;
+            Optional<String> bin = bin(columnOnLeft ? eq.getLeftExpression() : eq.getRightExpression());
+            bin.ifPresent(name -> addEquality(namespace, set, name, columnOnLeft ? eq.getRightExpression() : eq.getLeftExpression()));
+        } else if (expr instanceof Between && !((Between) expr).isNot()) {
+            Between between = (Between) expr;
+            Optional<String> bin = bin(between.getLeftExpression());
+            Optional<Long> start = PredExpTranslator.longValue(between.getBetweenExpressionStart());
+            Optional<Long> end = PredExpTranslator.longValue(between.getBetweenExpressionEnd());
+            if (bin.isPresent() && start.isPresent() && end.isPresent()) {
+                add(namespace, set, bin.get(), Filter.range(bin.get(), start.get(), end.get()), true);
+            }
+        } else if (expr instanceof InExpression && !((InExpression) expr).isNot() && ((InExpression) expr).getRightItemsList() instanceof ExpressionList) {
+            // IN is disjunction of equalities: bin = v1 OR bin = v2 OR ...
+            InExpression in = (InExpression) expr;
+            Optional<String> bin = bin(in.getLeftExpression());
+            bin.ifPresent(name -> disjunctions.add(((ExpressionList) in.getRightItemsList()).getExpressions().stream().map(value -> {
+                IndexSelector branch = new IndexSelector(indexes);
+                branch.addEquality(namespace, set, name, value);
+                return branch;
+            }).collect(toList())));
+        }
+    }
+
+    private void addEquality(String namespace, String set, String bin, Expression value) {
+        Optional<Long> longValue = PredExpTranslator.longValue(value);
+        if (longValue.isPresent()) {
+            add(namespace, set, bin, Filter.equal(bin, longValue.get()), false);
+        } else if (value instanceof StringValue) {
+            add(namespace, set, bin, Filter.equal(bin, ((StringValue) value).getValue()), false);
+        }
+    }
+
+    private static Optional<String> bin(Expression expr) {
+        if (!(expr instanceof Column)) {
+            return Optional.empty();
+        }
+        String name = stripQuotes(((Column) expr).getColumnName());
+        return name.contains("[") || SpecialField.isSpecialField(name) ? Optional.empty() : Optional.of(name);
+    }
+
+    private static Collection<Expression> disjuncts(Expression expr, Collection<Expression> disjuncts) {
+        Expression unwrapped = unwrap(expr);
+        if (unwrapped instanceof OrExpression) {
+            disjuncts(((OrExpression) unwrapped).getLeftExpression(), disjuncts);
+            disjuncts(((OrExpression) unwrapped).getRightExpression(), disjuncts);
+        } else {
+            disjuncts.add(unwrapped);
+        }
+        return disjuncts;
+    }
+
+    private static Expression unwrap(Expression expr) {
+        return expr instanceof Parenthesis ? unwrap(((Parenthesis) expr).getExpression()) : expr;
+    }
+
+    private static class Candidate {
+        private final String namespace;
+        private final String set;
+        private final String bin;
+        private final Filter filter;
+        private final boolean range;
+
+        private Candidate(String namespace, String set, String bin, Filter filter, boolean range) {
+            this.namespace = namespace;
+            this.set = set;
+            this.bin = bin;
+            this.filter = filter;
+            this.range = range;
+        }
+    }
+}
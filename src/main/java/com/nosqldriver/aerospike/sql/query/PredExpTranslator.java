@@ -0,0 +1,369 @@
+package com.nosqldriver.aerospike.sql.query;
+
+import com.aerospike.client.query.PredExp;
+import com.aerospike.client.query.RegexFlag;
+import com.nosqldriver.aerospike.sql.SpecialField;
+import com.nosqldriver.sql.SqlUtil;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.expression.JdbcParameter;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.NotExpression;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.SignedExpression;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.LikeExpression;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.NotEqualsTo;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.statement.select.SubSelect;
+import net.sf.jsqlparser.util.deparser.ExpressionDeParser;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static com.nosqldriver.util.IOUtils.stripQuotes;
+
+/**
+ * Translates {@code WHERE} clause to {@link PredExp} that is evaluated by the server, so records that do not match
+ * the condition are not transferred to the client.
+ *
+ * The clause is split into conjuncts ({@code c1 AND c2 AND ...}). Each conjunct that can be completely expressed using
+ * {@link PredExp} is sent to the server; the rest of conjuncts ({@link #getResidue()}) is evaluated by the client.
+ * Conjuncts that contain parameters of prepared statement, sub-queries or special fields (see {@link #isTranslatable(Expression)})
+ * always belong to the residue; parameters can be substituted by their values first (see {@link #bind(Expression, Object[])}).
+ * Supported are {@code AND}, {@code OR}, {@code NOT}, comparison of bin with integer literal, equality of bin and string literal,
+ * {@code BETWEEN} and {@code IN} with literals and {@code LIKE}. {@link PredExp} does not support floating point values
+ * and comparison of two bins, so such conditions are evaluated by the client.
+ */
+public class PredExpTranslator {
+    private final List<PredExp> predExps = new ArrayList<>();
+    private Expression residue = null;
+
+    public PredExpTranslator(Expression where) {
+        int translated = 0;
+        for (Expression conjunct : conjuncts(where, new ArrayList<>())) {
+            Optional<List<PredExp>> exps = isTranslatable(conjunct) ? translate(conjunct) : Optional.empty();
+            if (exps.isPresent()) {
+                predExps.addAll(exps.get());
+                translated++;
+            } else {
+                residue = residue == null ? conjunct : new AndExpression(residue, conjunct);
+            }
+        }
+        if (translated > 1) {
+            predExps.add(PredExp.and(translated));
+        }
+    }
+
+    /**
+     * @return predicates to be evaluated by the server; empty list if no part of the condition can be evaluated by the server
+     */
+    public List<PredExp> getPredExps() {
+        return predExps;
+    }
+
+    /**
+     * @return part of the condition that must be evaluated by the client or {@code null} if the whole condition is evaluated by the server
+     */
+    public Expression getResidue() {
+        return residue;
+    }
+
+    /**
+     * Checks whether condition can be translated at all. Prepared statement parameters, sub-queries and special fields
+     * (e.g. {@code PK}) are handled differently, so conditions that contain them are not translated.
+     */
+    public static boolean isTranslatable(Expression where) {
+        return !containsParameter(where) && isTranslatableWhenBound(where);
+    }
+
+    /**
+     * @return true if the condition contains parameters of prepared statement
+     */
+    public static boolean containsParameter(Expression where) {
+        AtomicBoolean found = new AtomicBoolean(false);
+        where.accept(new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(JdbcParameter parameter) {
+                found.set(true);
+            }
+        });
+        return found.get();
+    }
+
+    /**
+     * Checks whether condition can be translated once values of parameters of prepared statement are substituted
+     * (see {@link #bind(Expression, Object[])}), i.e. it does not contain sub-queries and special fields.
+     */
+    public static boolean isTranslatableWhenBound(Expression where) {
+        AtomicBoolean translatable = new AtomicBoolean(true);
+        where.accept(new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(SubSelect subSelect) {
+                translatable.set(false);
+            }
+
+            @Override
+            public void visit(Column column) {
+                if (SpecialField.isSpecialField(stripQuotes(column.getColumnName()))) {
+                    translatable.set(false);
+                }
+            }
+        });
+        return translatable.get();
+    }
+
+    /**
+     * @return true if the condition contains {@code NOT}
+     */
+    public static boolean containsNegation(Expression where) {
+        AtomicBoolean negation = new AtomicBoolean(false);
+        where.accept(new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(NotExpression expr) {
+                negation.set(true);
+                super.visit(expr);
+            }
+        });
+        return negation.get();
+    }
+
+    /**
+     * @return true if the condition contains {@code OR} or {@code IN}
+     */
+    public static boolean containsDisjunction(Expression where) {
+        AtomicBoolean disjunction = new AtomicBoolean(false);
+        where.accept(new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(OrExpression expr) {
+                disjunction.set(true);
+                super.visit(expr);
+            }
+
+            @Override
+            public void visit(InExpression expr) {
+                disjunction.set(true);
+                super.visit(expr);
+            }
+        });
+        return disjunction.get();
+    }
+
+    /**
+     * Substitutes values of parameters of prepared statement to the condition, so that it can be translated and evaluated
+     * like condition written with literals. The condition is written with the values and parsed again, which is cheap
+     * comparing to the query.
+     * @param where condition that contains parameters
+     * @param parameters values of parameters
+     * @return condition with literals instead of parameters or empty if a value cannot be written as literal
+     */
+    public static Optional<Expression> bind(Expression where, Object[] parameters) {
+        AtomicBoolean bound = new AtomicBoolean(true);
+        ExpressionDeParser deParser = new ExpressionDeParser() {
+            @Override
+            public void visit(JdbcParameter parameter) {
+                Integer index = parameter.getIndex();
+                Optional<String> literal = index != null && index > 0 && index <= parameters.length ? literal(parameters[index - 1]) : Optional.empty();
+                if (!literal.isPresent()) {
+                    bound.set(false);
+                }
+                getBuffer().append(literal.orElse("NULL"));
+            }
+        };
+        deParser.setBuffer(new StringBuilder());
+        where.accept(deParser);
+        if (!bound.get()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(CCJSqlParserUtil.parseCondExpression(deParser.getBuffer().toString()));
+        } catch (JSQLParserException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return SQL literal of integer, floating point or string value or {@code NULL}; empty for values of other types
+     */
+    private static Optional<String> literal(Object value) {
+        if (value == null) {
+            return Optional.of("NULL");
+        }
+        if ((value instanceof Long && (Long) value != Long.MIN_VALUE) || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return Optional.of(value.toString());
+        }
+        if (value instanceof Double && Double.isFinite((Double) value)) {
+            return Optional.of(BigDecimal.valueOf((Double) value).toPlainString());
+        }
+        if (value instanceof String) {
+            return Optional.of("'" + ((String) value).replace("'", "''") + "'");
+        }
+        return Optional.empty();
+    }
+
+    static Collection<Expression> conjuncts(Expression expr, Collection<Expression> conjuncts) {
+        if (expr instanceof AndExpression) {
+            conjuncts(((AndExpression) expr).getLeftExpression(), conjuncts);
+            conjuncts(((AndExpression) expr).getRightExpression(), conjuncts);
+        } else if (expr instanceof Parenthesis && ((Parenthesis) expr).getExpression() instanceof AndExpression) {
+            conjuncts(((Parenthesis) expr).getExpression(), conjuncts);
+        } else {
+            conjuncts.add(expr);
+        }
+        return conjuncts;
+    }
+
+    private static Optional<List<PredExp>> translate(Expression expr) {
+        if (expr instanceof Parenthesis) {
+            return translate(((Parenthesis) expr).getExpression());
+        }
+        if (expr instanceof AndExpression || expr instanceof OrExpression) {
+            BinaryExpression binary = (BinaryExpression) expr;
+            return combine(translate(binary.getLeftExpression()), translate(binary.getRightExpression()), expr instanceof AndExpression ? PredExp.and(2) : PredExp.or(2));
+        }
+        if (expr instanceof NotExpression) {
+            return negate(translate(((NotExpression) expr).getExpression()), true);
+        }
+        if (expr instanceof Between) {
+            Between between = (Between) expr;
+            Optional<List<PredExp>> range = combine(
+                    compare(between.getLeftExpression(), between.getBetweenExpressionStart(), PredExp::integerGreaterEq, null),
+                    compare(between.getLeftExpression(), between.getBetweenExpressionEnd(), PredExp::integerLessEq, null),
+                    PredExp.and(2));
+            return negate(range, between.isNot());
+        }
+        if (expr instanceof InExpression) {
+            InExpression in = (InExpression) expr;
+            if (!(in.getRightItemsList() instanceof ExpressionList)) {
+                return Optional.empty();
+            }
+            List<Expression> values = ((ExpressionList) in.getRightItemsList()).getExpressions();
+            List<PredExp> exps = new ArrayList<>();
+            for (Expression value : values) {
+                Optional<List<PredExp>> equality = compare(in.getLeftExpression(), value, PredExp::integerEqual, PredExp::stringEqual);
+                if (!equality.isPresent()) {
+                    return Optional.empty();
+                }
+                exps.addAll(equality.get());
+            }
+            if (values.size() > 1) {
+                exps.add(PredExp.or(values.size()));
+            }
+            return negate(values.isEmpty() ? Optional.empty() : Optional.of(exps), in.isNot());
+        }
+        if (expr instanceof LikeExpression) {
+            LikeExpression like = (LikeExpression) expr;
+            if (!(like.getLeftExpression() instanceof Column) || !(like.getRightExpression() instanceof StringValue) || like.getEscape() != null || like.isCaseInsensitive()) {
+                return Optional.empty();
+            }
+            List<PredExp> exps = new ArrayList<>();
+            exps.add(PredExp.stringBin(binName((Column) like.getLeftExpression())));
+            exps.add(PredExp.stringValue(SqlUtil.likeToRegex(((StringValue) like.getRightExpression()).getValue(), true)));
+            exps.add(PredExp.stringRegex(RegexFlag.NONE));
+            return negate(Optional.of(exps), like.isNot());
+        }
+        if (expr instanceof EqualsTo) {
+            return compare((BinaryExpression) expr, PredExp::integerEqual, PredExp::stringEqual, PredExp::integerEqual, PredExp::stringEqual);
+        }
+        if (expr instanceof NotEqualsTo) {
+            return compare((BinaryExpression) expr, PredExp::integerUnequal, PredExp::stringUnequal, PredExp::integerUnequal, PredExp::stringUnequal);
+        }
+        if (expr instanceof GreaterThan) {
+            return compare((BinaryExpression) expr, PredExp::integerGreater, null, PredExp::integerLess, null);
+        }
+        if (expr instanceof GreaterThanEquals) {
+            return compare((BinaryExpression) expr, PredExp::integerGreaterEq, null, PredExp::integerLessEq, null);
+        }
+        if (expr instanceof MinorThan) {
+            return compare((BinaryExpression) expr, PredExp::integerLess, null, PredExp::integerGreater, null);
+        }
+        if (expr instanceof MinorThanEquals) {
+            return compare((BinaryExpression) expr, PredExp::integerLessEq, null, PredExp::integerGreaterEq, null);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Translates comparison of bin and literal in any order; operators used when the literal is on the left side are mirrored.
+     */
+    private static Optional<List<PredExp>> compare(BinaryExpression expr, Supplier<PredExp> integerOp, Supplier<PredExp> stringOp, Supplier<PredExp> mirroredIntegerOp, Supplier<PredExp> mirroredStringOp) {
+        if (expr.getLeftExpression() instanceof Column) {
+            return compare(expr.getLeftExpression(), expr.getRightExpression(), integerOp, stringOp);
+        }
+        return compare(expr.getRightExpression(), expr.getLeftExpression(), mirroredIntegerOp, mirroredStringOp);
+    }
+
+    private static Optional<List<PredExp>> compare(Expression bin, Expression value, Supplier<PredExp> integerOp, Supplier<PredExp> stringOp) {
+        if (!(bin instanceof Column) || binName((Column) bin).contains("[")) {
+            return Optional.empty();
+        }
+        String name = binName((Column) bin);
+        List<PredExp> exps = new ArrayList<>();
+        Optional<Long> longValue = longValue(value);
+        if (longValue.isPresent()) {
+            exps.add(PredExp.integerBin(name));
+            exps.add(PredExp.integerValue(longValue.get()));
+            exps.add(integerOp.get());
+            return Optional.of(exps);
+        }
+        if (value instanceof StringValue && stringOp != null) {
+            exps.add(PredExp.stringBin(name));
+            exps.add(PredExp.stringValue(((StringValue) value).getValue()));
+            exps.add(stringOp.get());
+            return Optional.of(exps);
+        }
+        return Optional.empty();
+    }
+
+    static Optional<Long> longValue(Expression value) {
+        if (value instanceof LongValue) {
+            return Optional.of(((LongValue) value).getValue());
+        }
+        if (value instanceof SignedExpression && ((SignedExpression) value).getExpression() instanceof LongValue) {
+            long v = ((LongValue) ((SignedExpression) value).getExpression()).getValue();
+            return Optional.of(((SignedExpression) value).getSign() == '-' ? -v : v);
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<List<PredExp>> combine(Optional<List<PredExp>> left, Optional<List<PredExp>> right, PredExp op) {
+        if (!left.isPresent() || !right.isPresent()) {
+            return Optional.empty();
+        }
+        List<PredExp> exps = new ArrayList<>(left.get());
+        exps.addAll(right.get());
+        exps.add(op);
+        return Optional.of(exps);
+    }
+
+    private static Optional<List<PredExp>> negate(Optional<List<PredExp>> exps, boolean not) {
+        if (!not || !exps.isPresent()) {
+            return exps;
+        }
+        List<PredExp> negated = new ArrayList<>(exps.get());
+        negated.add(PredExp.not());
+        return Optional.of(negated);
+    }
+
+    private static String binName(Column column) {
+        return stripQuotes(column.getColumnName());
+    }
+}
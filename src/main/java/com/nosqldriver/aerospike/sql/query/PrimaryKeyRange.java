@@ -0,0 +1,107 @@
+package com.nosqldriver.aerospike.sql.query;
+
+import com.aerospike.client.Key;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.schema.Column;
+
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.stream.LongStream;
+
+import static com.nosqldriver.util.IOUtils.stripQuotes;
+
+/**
+ * Range of integer primary keys defined by condition like {@code PK BETWEEN 10 AND 20} or {@code PK >= 10 AND PK < 20}.
+ * Records of small range can be retrieved by batch get of all keys of the range instead of scanning the whole set.
+ * The range is found only if both bounds are integer literals connected by {@code AND} to the rest of the condition
+ * ({@link #getResidue()}).
+ */
+public class PrimaryKeyRange {
+    private final long from;
+    private final long to;
+    private final Expression residue;
+
+    private PrimaryKeyRange(long from, long to, Expression residue) {
+        this.from = from;
+        this.to = to;
+        this.residue = residue;
+    }
+
+    public static Optional<PrimaryKeyRange> of(Expression where) {
+        Long from = null;
+        Long to = null;
+        Expression residue = null;
+        for (Expression conjunct : PredExpTranslator.conjuncts(where, new ArrayList<>())) {
+            Optional<long[]> bounds = bounds(conjunct);
+            if (bounds.isPresent()) {
+                from = from == null ? bounds.get()[0] : Math.max(from, bounds.get()[0]);
+                to = to == null ? bounds.get()[1] : Math.min(to, bounds.get()[1]);
+            } else {
+                residue = residue == null ? conjunct : new AndExpression(residue, conjunct);
+            }
+        }
+        return from == null || to == null || from == Long.MIN_VALUE || to == Long.MAX_VALUE ? Optional.empty() : Optional.of(new PrimaryKeyRange(from, to, residue));
+    }
+
+    /**
+     * @return number of keys in the range
+     */
+    public long size() {
+        if (to < from) {
+            return 0;
+        }
+        long diff = to - from;
+        return diff < 0 || diff == Long.MAX_VALUE ? Long.MAX_VALUE : diff + 1;
+    }
+
+    public Key[] keys(String namespace, String set) {
+        return size() == 0 ? new Key[0] : LongStream.rangeClosed(from, to).mapToObj(pk -> new Key(namespace, set, pk)).toArray(Key[]::new);
+    }
+
+    /**
+     * @return part of the condition that does not limit the primary key or {@code null} if there is no such part
+     */
+    public Expression getResidue() {
+        return residue;
+    }
+
+    /**
+     * @return inclusive bounds {@code [from, to]} defined by the condition; unbounded side is represented by min or max long value
+     */
+    private static Optional<long[]> bounds(Expression expr) {
+        if (expr instanceof Between) {
+            Between between = (Between) expr;
+            Optional<Long> start = PredExpTranslator.longValue(between.getBetweenExpressionStart());
+            Optional<Long> end = PredExpTranslator.longValue(between.getBetweenExpressionEnd());
+            return !between.isNot() && isPk(between.getLeftExpression()) && start.isPresent() && end.isPresent() ? Optional.of(new long[] {start.get(), end.get()}) : Optional.empty();
+        }
+        if (!(expr instanceof GreaterThan || expr instanceof GreaterThanEquals || expr instanceof MinorThan || expr instanceof MinorThanEquals)) {
+            return Optional.empty();
+        }
+        BinaryExpression comparison = (BinaryExpression) expr;
+        boolean pkOnLeft = isPk(comparison.getLeftExpression());
+        Optional<Long> value = PredExpTranslator.longValue(pkOnLeft ? comparison.getRightExpression() : comparison.getLeftExpression());
+        if (!value.isPresent() || !(pkOnLeft || isPk(comparison.getRightExpression()))) {
+            return Optional.empty();
+        }
+        long v = value.get();
+        // PK > v is the same as v < PK
+        boolean lower = pkOnLeft == (expr instanceof GreaterThan || expr instanceof GreaterThanEquals);
+        boolean inclusive = expr instanceof GreaterThanEquals || expr instanceof MinorThanEquals;
+        if (lower) {
+            return inclusive || v < Long.MAX_VALUE ? Optional.of(new long[] {inclusive ? v : v + 1, Long.MAX_VALUE}) : Optional.empty();
+        }
+        return inclusive || v > Long.MIN_VALUE ? Optional.of(new long[] {Long.MIN_VALUE, inclusive ? v : v - 1}) : Optional.empty();
+    }
+
+    private static boolean isPk(Expression expr) {
+        return expr instanceof Column && "PK".equals(stripQuotes(((Column) expr).getColumnName()));
+    }
+}
@@ -6,10 +6,23 @@ import com.nosqldriver.sql.DataColumn;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 public interface QueryContainer<T> {
     Function<IAerospikeClient, T> getQuery(Statement sqlStatement) throws SQLException;
+
+    /**
+     * Returns asynchronous version of the query. By default the query is executed synchronously and the returned future
+     * is already completed.
+     */
+    default Function<IAerospikeClient, CompletableFuture<T>> getAsyncQuery(Statement sqlStatement) throws SQLException {
+        Function<IAerospikeClient, T> query = getQuery(sqlStatement);
+        return client -> {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            return AsyncListeners.call(future, () -> future.complete(query.apply(client)));
+        };
+    }
     void setParameters(Statement sqlStatement, Object ... parameters);
     List<DataColumn> getRequestedColumns();
     List<DataColumn> getFilteredColumns();
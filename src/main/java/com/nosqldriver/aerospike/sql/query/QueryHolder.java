@@ -21,9 +21,9 @@ import com.nosqldriver.sql.DataColumn;
 import com.nosqldriver.sql.ExpressionAwareResultSetFactory;
 import com.nosqldriver.sql.FilteredResultSet;
 import com.nosqldriver.sql.JoinedResultSet;
+import com.nosqldriver.sql.LimitedResultSet;
 import com.nosqldriver.sql.ListRecordSet;
 import com.nosqldriver.sql.NameCheckResultSetWrapper;
-import com.nosqldriver.sql.OffsetLimit;
 import com.nosqldriver.sql.OrderItem;
 import com.nosqldriver.sql.ResultSetDistinctFilter;
 import com.nosqldriver.sql.ResultSetHashExtractor;
@@ -56,6 +56,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -83,8 +84,8 @@ import static com.nosqldriver.util.IOUtils.stripQuotes;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.String.format;
-import static java.lang.String.join;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
@@ -101,14 +102,18 @@ public class QueryHolder implements QueryContainer<ResultSet> {
     private final List<List<Object>> data = new ArrayList<>();
     private boolean skipDuplicates = false;
     private String whereExpression = null;
+    private String[] requiredBins = new String[0];
 
     private final Statement statement;
     private AerospikeBatchQueryBySecondaryIndex secondayIndexQuery = null;
     private AerospikeQueryByPk pkQuery = null;
     private AerospikeBatchQueryByPk pkBatchQuery = null;
     private AerospikeScanQuery scanQuery = null;
-    private Filter filter;
+    private final IndexSelector indexSelector;
     private List<PredExp> predExps = new ArrayList<>();
+    private Expression parameterizedWhere = null;
+    private List<PredExp> unboundPredExps = null;
+    private String unboundWhereExpression = null;
     private long offset = -1;
     private long limit = -1;
 
@@ -132,6 +137,7 @@ public class QueryHolder implements QueryContainer<ResultSet> {
     public QueryHolder(String schema, Collection<String> indexes, AerospikePolicyProvider policyProvider, FunctionManager functionManager) {
         this.schema = schema;
         this.indexes = indexes;
+        indexSelector = new IndexSelector(indexes);
         this.policyProvider = policyProvider;
         keyRecordFetcherFactory = new KeyRecordFetcherFactory(policyProvider.getQueryPolicy());
         this.functionManager = functionManager;
@@ -169,12 +175,27 @@ public class QueryHolder implements QueryContainer<ResultSet> {
             return wrap(sqlStatement, secondayIndexQuery);
         }
         if (!data.isEmpty()) {
-            return new AerospikeInsertQuery(sqlStatement, schema, set, columns, data, policyProvider.getWritePolicy(), skipDuplicates, keyRecordFetcherFactory, functionManager, specialFields);
+            return new AerospikeInsertQuery(sqlStatement, schema, set, columns, data, policyProvider.getWritePolicy(), policyProvider.getBatchPolicy(), skipDuplicates, keyRecordFetcherFactory, functionManager, specialFields);
         }
 
         return wrap(sqlStatement, createSecondaryIndexQuery(sqlStatement));
     }
 
+    /**
+     * Queries by primary key are executed using asynchronous client API if event loops are configured
+     * (see {@link com.nosqldriver.sql.DriverPolicy#eventLoops}); the result set wrappers are applied when the records arrive.
+     * Other queries are executed synchronously: scans and secondary index queries return result set immediately anyway
+     * and fetch records while it is being iterated.
+     */
+    @Override
+    public Function<IAerospikeClient, CompletableFuture<ResultSet>> getAsyncQuery(java.sql.Statement sqlStatement) throws SQLException {
+        AerospikeQuery<?, ?, ?> pkQuery = this.pkQuery != null ? this.pkQuery : pkBatchQuery;
+        if (show != null || !subQeueries.isEmpty() || pkQuery == null || policyProvider.getDriverPolicy().eventLoops <= 0) {
+            return QueryContainer.super.getAsyncQuery(sqlStatement);
+        }
+        return client -> pkQuery.applyAsync(client).thenApply(rs -> wrap(sqlStatement, c -> rs).apply(client));
+    }
+
     public Function<IAerospikeClient, ResultSet> show(java.sql.Statement sqlStatement) {
         return SneakyThrower.get(() -> {
             AerospikeDatabaseMetadata md = ((AerospikeDatabaseMetadata) sqlStatement.getConnection().getMetaData());
@@ -254,6 +275,20 @@ public class QueryHolder implements QueryContainer<ResultSet> {
             data.add(Arrays.asList(parameters));
         }
 
+        if (parameterizedWhere != null && parameters != null) {
+            Optional<Expression> bound = PredExpTranslator.bind(parameterizedWhere, parameters);
+            setFilters(bound.orElse(parameterizedWhere));
+            if (bound.isPresent()) {
+                PredExpTranslator translator = new PredExpTranslator(bound.get());
+                predExps = new ArrayList<>(translator.getPredExps());
+                whereExpression = ofNullable(translator.getResidue()).map(Expression::toString).orElse(null);
+                return;
+            }
+            // a value cannot be written as literal, so the predicates created for parameters are used
+            predExps = new ArrayList<>(unboundPredExps);
+            whereExpression = unboundWhereExpression;
+        }
+
         NavigableSet<Integer> indexesToRemove = new TreeSet<>();
         Class paramType = null;
         Class type = null;
@@ -444,17 +479,17 @@ public class QueryHolder implements QueryContainer<ResultSet> {
     }
 
     private Function<IAerospikeClient, ResultSet>  createSecondaryIndexQuery(java.sql.Statement sqlStatement) {
-        return createSecondaryIndexQuery(sqlStatement, filter, predExps);
+        return createSecondaryIndexQuery(sqlStatement, indexSelector.select(), predExps);
     }
 
 
-    private Function<IAerospikeClient, ResultSet> createSecondaryIndexQuery(java.sql.Statement sqlStatement, Filter filter, List<PredExp> predExps) {
-        statement.setFilter(filter);
+    private Function<IAerospikeClient, ResultSet> createSecondaryIndexQuery(java.sql.Statement sqlStatement, List<Filter> filters, List<PredExp> predExps) {
+        statement.setFilter(filters.size() == 1 ? filters.get(0) : null);
         if ((predExps.size() == 3) && predExps.stream().anyMatch(e -> PredExpUtil.isBin(extractType(e)) && "PK".equals(getValue(e)))) {
             Optional<Object> value = predExps.stream().filter(e -> isValue(extractType(e))).map(PredExpUtil::getValue).findFirst();
             if (value.isPresent()) {
                 Key key = createKey(schema, set, value.get());
-                return new AerospikeQueryByPk(sqlStatement, schema, columns, key, policyProvider, keyRecordFetcherFactory, functionManager, specialFields);
+                return new AerospikeQueryByPk(sqlStatement, schema, columns, key, policyProvider, keyRecordFetcherFactory, functionManager, specialFields, requiredBins);
             }
         }
         if (predExps.size() >= 3) {
@@ -512,12 +547,13 @@ public class QueryHolder implements QueryContainer<ResultSet> {
         }
 
 
-        return secondayIndexQuery = new AerospikeBatchQueryBySecondaryIndex(sqlStatement, schema, columns, statement, policyProvider, keyRecordFetcherFactory, functionManager, specialFields);
+        // aggregations above are executed by the server, so they cannot be split into several queries and scan the set instead
+        return secondayIndexQuery = new AerospikeBatchQueryBySecondaryIndex(sqlStatement, schema, columns, statement, filters.size() > 1 ? filters : emptyList(), policyProvider, keyRecordFetcherFactory, functionManager, specialFields);
     }
 
     @VisibleForPackage
     void createPkQuery(java.sql.Statement statement, Key key) {
-        pkQuery = new AerospikeQueryByPk(statement, schema, columns, key, policyProvider, keyRecordFetcherFactory, functionManager, specialFields);
+        pkQuery = new AerospikeQueryByPk(statement, schema, columns, key, policyProvider, keyRecordFetcherFactory, functionManager, specialFields, requiredBins);
     }
 
     @VisibleForPackage
@@ -530,12 +566,23 @@ public class QueryHolder implements QueryContainer<ResultSet> {
             System.arraycopy(keys, 0, allKeys, existingKesys.length, keys.length);
         }
 
-        pkBatchQuery = new AerospikeBatchQueryByPk(statement, schema, set, columns, allKeys, policyProvider, keyRecordFetcherFactory, functionManager, specialFields);
+        pkBatchQuery = new AerospikeBatchQueryByPk(statement, schema, set, columns, allKeys, policyProvider, keyRecordFetcherFactory, functionManager, specialFields, requiredBins);
+    }
+
+    /**
+     * Replaces scan that compares primary keys with the bounds of the range by batch get of all keys of the range.
+     * The rest of the condition is evaluated by the client.
+     */
+    public void setPrimaryKeyRange(java.sql.Statement statement, PrimaryKeyRange range) {
+        scanQuery = null;
+        pkBatchQuery = null;
+        createPkBatchQuery(statement, range.keys(schema, set));
+        whereExpression = ofNullable(range.getResidue()).map(Expression::toString).orElse(null);
     }
 
     @VisibleForPackage
     void createScanQuery(java.sql.Statement statement, Predicate<ResultSet> predicate) {
-        scanQuery = new AerospikeScanQuery(statement, schema, set, columns, predicate, policyProvider, keyRecordFetcherFactory, functionManager, specialFields);
+        scanQuery = new AerospikeScanQuery(statement, schema, set, columns, predicate, policyProvider, keyRecordFetcherFactory, functionManager, specialFields, requiredBins);
     }
 
 
@@ -563,11 +610,47 @@ public class QueryHolder implements QueryContainer<ResultSet> {
         return predExps;
     }
 
+    public void setPredExps(List<PredExp> predExps) {
+        this.predExps = new ArrayList<>(predExps);
+    }
+
 
+    /**
+     * Registers equality filter that can be used if the bin is indexed. If several filters are registered the query uses
+     * the most selective one (see {@link IndexSelector}).
+     */
     public void setFilter(Filter filter, String binName) {
-        if (indexes.contains(join(".", schema, set, binName))) {
-            this.filter = filter;
-        }
+        indexSelector.add(schema, set, binName, filter, false);
+    }
+
+    public void setRangeFilter(Filter filter, String binName) {
+        indexSelector.add(schema, set, binName, filter, true);
+    }
+
+    /**
+     * Replaces filters registered by {@link #setFilter(Filter, String)} by filters created for the whole condition.
+     * This is needed for conditions that contain {@code OR}: filter is applicable only if the compared bin is
+     * connected to the rest of the condition by {@code AND}; disjunction can be executed as several queries.
+     */
+    public void setFilters(Expression where) {
+        indexSelector.clear();
+        indexSelector.add(schema, set, where);
+    }
+
+    /**
+     * Defers translation of condition that contains parameters of prepared statement to {@link #setParameters(java.sql.Statement, Object[])}:
+     * values of parameters are substituted to the condition that is then translated to predicate expressions, filters and
+     * residue evaluated by the client like condition written with literals. The predicates already created for the parameters
+     * are kept for values that cannot be substituted.
+     */
+    public void setParameterizedWhere(Expression where) {
+        parameterizedWhere = where;
+        unboundPredExps = new ArrayList<>(predExps);
+        unboundWhereExpression = whereExpression;
+    }
+
+    public void removeFilter() {
+        indexSelector.clear();
     }
 
     public void setOffset(long offset) {
@@ -578,6 +661,14 @@ public class QueryHolder implements QueryContainer<ResultSet> {
         this.limit = limit;
     }
 
+    /**
+     * Sets bins that must be retrieved by scan and by queries by primary key. Empty array (the default) means all bins.
+     * @param requiredBins names of bins used by the select
+     */
+    public void setRequiredBins(String[] requiredBins) {
+        this.requiredBins = requiredBins;
+    }
+
     public void setShowTarget(String show) {
         this.show = show;
     }
@@ -616,7 +707,7 @@ public class QueryHolder implements QueryContainer<ResultSet> {
         Function<IAerospikeClient, ResultSet> filtered = whereExpression != null ? client -> new FilteredResultSet(expressioned.apply(client), columns, new ResultSetRowFilter(whereExpression, functionManager, policyProvider.getDriverPolicy()), indexByName) : expressioned;
         Function<IAerospikeClient, ResultSet> joined = joins.isEmpty() ? filtered : client -> new JoinedResultSet(filtered.apply(client), joins.stream().map(join -> new JoinHolder(new JoinRetriever(sqlStatement, client, join, functionManager), new ResultSetMetadataSupplier(sqlStatement, client, join, functionManager), join.skipIfMissing)).collect(toList()));
         Function<IAerospikeClient, ResultSet> ordered = !ordering.isEmpty() ? client -> new SortedResultSet(joined.apply(client), ordering, min(max(offset, 0) + (limit >=0 ? limit : Integer.MAX_VALUE), Integer.MAX_VALUE), functionManager, policyProvider.getDriverPolicy()) : joined;
-        Function<IAerospikeClient, ResultSet> limited = offset >= 0 || limit >= 0 ? client -> new FilteredResultSet(ordered.apply(client), columns, new OffsetLimit(offset < 0 ? 0 : offset, limit < 0 ? Long.MAX_VALUE : limit), indexByName) : ordered;
+        Function<IAerospikeClient, ResultSet> limited = offset >= 0 || limit >= 0 ? client -> new LimitedResultSet(ordered.apply(client), columns, offset < 0 ? 0 : offset, limit < 0 ? Long.MAX_VALUE : limit, indexByName) : ordered;
         return client -> new NameCheckResultSetWrapper(limited.apply(client), columns, indexByName);
 
     }
@@ -914,6 +1005,10 @@ public class QueryHolder implements QueryContainer<ResultSet> {
         this.whereExpression = whereExpression;
     }
 
+    public String getWhereExpression() {
+        return whereExpression;
+    }
+
 
     @Override
     public List<DataColumn> getRequestedColumns() {
@@ -0,0 +1,64 @@
+package com.nosqldriver.aerospike.sql.query;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.OptionalLong;
+
+import static java.lang.String.join;
+
+/**
+ * Secondary indexes represented as strings {@code namespace.set.bin} together with statistics used to estimate
+ * number of records returned by query that uses the index. Statistics are optional: the values that are not known
+ * are returned as empty {@link OptionalLong}.
+ */
+public class SecondaryIndexes extends HashSet<String> {
+    private final Map<String, Long> entries = new HashMap<>();
+    private final Map<String, Long> keys = new HashMap<>();
+    private final Map<String, Long> records = new HashMap<>();
+
+    public SecondaryIndexes(Collection<String> indexes) {
+        super(indexes);
+    }
+
+    /**
+     * @param entries number of records indexed by the index
+     * @param keys number of distinct values of the indexed bin
+     */
+    public void setIndexStatistics(String namespace, String set, String bin, long entries, long keys) {
+        String index = join(".", namespace, set, bin);
+        this.entries.put(index, entries);
+        this.keys.put(index, keys);
+    }
+
+    public void setRecords(String namespace, String set, long records) {
+        this.records.put(join(".", namespace, set), records);
+    }
+
+    /**
+     * @return estimated number of records that contain the given value of the indexed bin
+     */
+    public OptionalLong recordsPerValue(String namespace, String set, String bin) {
+        String index = join(".", namespace, set, bin);
+        Long n = entries.get(index);
+        Long k = keys.get(index);
+        return n == null || k == null || k == 0 ? OptionalLong.empty() : OptionalLong.of(n / k);
+    }
+
+    /**
+     * @return number of records indexed by the index
+     */
+    public OptionalLong entries(String namespace, String set, String bin) {
+        Long n = entries.get(join(".", namespace, set, bin));
+        return n == null ? OptionalLong.empty() : OptionalLong.of(n);
+    }
+
+    /**
+     * @return number of records in the set
+     */
+    public OptionalLong records(String namespace, String set) {
+        Long n = records.get(join(".", namespace, set));
+        return n == null ? OptionalLong.empty() : OptionalLong.of(n);
+    }
+}
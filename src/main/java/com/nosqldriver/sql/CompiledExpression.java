@@ -0,0 +1,35 @@
+package com.nosqldriver.sql;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Expression compiled by {@link ExpressionCompiler}. Variables (columns, bins or parameters) the expression refers to are
+ * resolved to slots at compile time, so that the caller finds them once and then passes their values for each row by position.
+ */
+public interface CompiledExpression {
+    /**
+     * @return names of variables the expression refers to; position of the name is index of the slot that holds value of the variable
+     */
+    List<String> getVariables();
+
+    /**
+     * @param slots values of variables in order of {@link #getVariables()}, {@code null} if the value is unknown
+     * @return value of the expression
+     */
+    Object eval(Object[] slots);
+
+    /**
+     * Evaluates the expression finding values of its variables by name; convenient when the expression is evaluated once.
+     * @param variables returns value of variable (column, bin or parameter) by its name or {@code null} if it is unknown
+     * @return value of the expression
+     */
+    default Object eval(Function<String, Object> variables) {
+        List<String> names = getVariables();
+        Object[] slots = new Object[names.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = variables.apply(names.get(i));
+        }
+        return eval(slots);
+    }
+}
@@ -3,6 +3,9 @@ package com.nosqldriver.sql;
 
 import com.aerospike.client.policy.Policy;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
 public class DriverPolicy extends Policy {
     public enum Script {
         js, lua
@@ -14,6 +17,39 @@ public class DriverPolicy extends Policy {
     public boolean sendExpiration;
     public int discoverMetadataLines = 1;
     public int databaseMetadataCacheTimeout = 60000;
+    public int indexesCacheTimeout = 60000;
+    public int preparedStatementCacheSize = 64;
+    public int planCacheSize = 256;
+    public int eventLoops = 0;
+    public int scanThreads = 256;
+    public int scanQueueSize = 10;
+    public int scanNodeConcurrency = 0;
+    public int scanRecordsPerSecond = 0;
+    public int indexQueryConcurrency = 8;
+    public int pkRangeLimit = 1000;
+    public int batchSize = 5000;
+
+    public DriverPolicy() {
+    }
+
+    /**
+     * Copies all public fields of the given policy including fields of {@link Policy}, so that fields added later
+     * are copied too.
+     * @param other the policy to copy
+     */
+    public DriverPolicy(DriverPolicy other) {
+        super(other);
+        for (Field field : DriverPolicy.class.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers)) {
+                try {
+                    field.set(this, field.get(other));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
 
     public Script getScript() {
         return script;
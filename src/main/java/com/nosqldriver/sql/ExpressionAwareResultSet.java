@@ -23,10 +23,14 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import static com.nosqldriver.sql.TypeTransformer.cast;
@@ -36,12 +40,18 @@ import static java.sql.Types.OTHER;
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 
 @VisibleForPackage
 class ExpressionAwareResultSet extends ResultSetWrapper {
-    private final ScriptEngine engine;
+    private final FunctionManager functionManager;
+    private final DriverPolicy driverPolicy;
+    private volatile ScriptEngine engine;
     private final ResultSet rs;
     private final Map<String, String> aliasToEval;
+    private final Collection<String> dataColumnNames;
+    private final ExpressionCompiler compiler;
+    private final Map<String, Optional<BoundExpression>> compiled = new ConcurrentHashMap<>();
     private boolean wasNull = false;
     private volatile ResultSetMetaData metaData;
 
@@ -50,7 +60,10 @@ class ExpressionAwareResultSet extends ResultSetWrapper {
         super(rs, columns, indexByName);
         //TODO: store DataColumn in aliasToEval, call it alias to Expression
         aliasToEval = columns.stream().filter(c -> DataColumn.DataColumnRole.EXPRESSION.equals(c.getRole())).filter(c -> c.getLabel() != null).collect(toMap(DataColumn::getLabel, DataColumn::getExpression));
-        engine = new ScriptEngineFactory(functionManager, driverPolicy).getEngine();
+        dataColumnNames = columns.stream().filter(c -> !DataColumn.DataColumnRole.EXPRESSION.equals(c.getRole())).map(DataColumn::getName).filter(Objects::nonNull).collect(toSet());
+        compiler = new ExpressionCompiler(functionManager);
+        this.functionManager = functionManager;
+        this.driverPolicy = driverPolicy;
         this.rs = rs;
     }
 
@@ -273,48 +286,20 @@ class ExpressionAwareResultSet extends ResultSetWrapper {
         List<DataColumn> dataColumns = md.getColumns().stream().filter(c -> !DataColumn.DataColumnRole.EXPRESSION.equals(c.getRole())).collect(toList());
         List<DataColumn> expressions = md.getColumns().stream().filter(c -> DataColumn.DataColumnRole.EXPRESSION.equals(c.getRole())).filter(c -> c.getType() == 0).collect(toList());
         if (!expressions.isEmpty()) {
-            Bindings bindings = engine.getBindings(ScriptContext.ENGINE_SCOPE);
-            Collection<String> bound = bind(rs, columns, bindings);
-
+            Map<String, Object> sampleValues = new HashMap<>();
             for (DataColumn column : dataColumns) {
                 String name = column.getName();
-                if (name != null && !bound.contains(name)) {
-                    int type = column.getType();
-                    Object value = null;
-                    switch (type) {
-                        case Types.BIGINT:
-                        case Types.INTEGER:
-                        case Types.SMALLINT:
-                            value = currentTimeMillis() / 10000;
-                            break;
-                        case Types.DOUBLE:
-                        case Types.FLOAT:
-                            value = Math.PI * Math.E;
-                            break;
-                        case Types.VARCHAR:
-                        case Types.LONGNVARCHAR:
-                        case Types.CLOB:
-                            value = "";
-                            break;
-                        case Types.OTHER:
-                        case Types.JAVA_OBJECT:
-                            value = new Object();
-                            break;
-                        case Types.BLOB:
-                            value = new byte[0];
-                        default:
-                            break; // do nothing
-                    }
+                if (name != null) {
+                    Object value = sampleValue(column.getType());
                     if (value != null) {
-                        bindings.put(bindingName(name), value);
+                        sampleValues.put(name, value);
                     }
                 }
             }
 
-
             for (DataColumn ec : expressions) {
                 try {
-                    Object result = eval(ec.getExpression());
+                    Object result = eval(ec.getExpression(), sampleValues);
                     if (result != null) {
                         ec.withType(SqlLiterals.sqlTypes.getOrDefault(TypeTransformer.getMinimalType(result, Integer.class), OTHER));
                     }
@@ -327,25 +312,68 @@ class ExpressionAwareResultSet extends ResultSetWrapper {
         return md;
     }
 
-    private Collection<String> bind(ResultSet rs, Collection<DataColumn> columns, Bindings bindings) {
-        Collection<String> bound = new HashSet<>();
+    /**
+     * @return value of the column of given SQL type used to discover type of expression when the column value is not available
+     */
+    private static Object sampleValue(int type) {
+        switch (type) {
+            case Types.BIGINT:
+            case Types.INTEGER:
+            case Types.SMALLINT:
+                return currentTimeMillis() / 10000;
+            case Types.DOUBLE:
+            case Types.FLOAT:
+                return Math.PI * Math.E;
+            case Types.VARCHAR:
+            case Types.LONGNVARCHAR:
+            case Types.CLOB:
+                return "";
+            case Types.OTHER:
+            case Types.JAVA_OBJECT:
+                return new Object();
+            case Types.BLOB:
+                return new byte[0];
+            default:
+                return null;
+        }
+    }
 
-        columns.stream().filter(c -> !DataColumn.DataColumnRole.EXPRESSION.equals(c.getRole())).map(DataColumn::getName).forEach(name -> {
+    private Object eval(String expr) {
+        return eval(expr, Collections.emptyMap());
+    }
+
+    /**
+     * Evaluates the expression using the compiled form if the expression can be compiled and the script engine otherwise.
+     * Compiled expression reads only the columns it refers to.
+     * @param expr the expression
+     * @param fallbackValues values of columns which value cannot be retrieved from the result set
+     */
+    private Object eval(String expr, Map<String, Object> fallbackValues) {
+        Optional<BoundExpression> compiledExpression = compiled.computeIfAbsent(expr, e -> compiler.compile(e, columnTypes()).map(BoundExpression::new));
+        if (compiledExpression.isPresent()) {
+            try {
+                return compiledExpression.get().eval(fallbackValues);
+            } catch (RuntimeException e) {
+                return SneakyThrower.sneakyThrow(new SQLException(e));
+            }
+        }
+
+        ScriptEngine engine = getEngine();
+        Bindings bindings = engine.getBindings(ScriptContext.ENGINE_SCOPE);
+        Collection<String> bound = new HashSet<>();
+        for (String name : dataColumnNames) {
+            String bindingName = bindingName(name);
             try {
-                String bindingName = bindingName(name);
                 bindings.put(bindingName, rs.getObject(name));
                 bound.add(bindingName);
             } catch (SQLException e) {
                 // ignore exception thrown by specific field
+                if (fallbackValues.containsKey(name)) {
+                    bindings.put(bindingName, fallbackValues.get(name));
+                    bound.add(bindingName);
+                }
             }
-        });
-        return bound;
-    }
-
-
-    private Object eval(String expr) {
-        Bindings bindings = engine.getBindings(ScriptContext.ENGINE_SCOPE);
-        Collection<String> bound = bind(rs, columns, bindings);
+        }
         try {
             return engine.eval(expr);
         } catch (ScriptException | RuntimeException e) {
@@ -355,6 +383,65 @@ class ExpressionAwareResultSet extends ResultSetWrapper {
         }
     }
 
+    /**
+     * SQL types of data columns used to specialize compiled expressions. Types are read when expression is compiled
+     * because they may be discovered after the result set is created.
+     */
+    private Map<String, Integer> columnTypes() {
+        Map<String, Integer> types = new HashMap<>();
+        for (DataColumn column : columns) {
+            if (!DataColumn.DataColumnRole.EXPRESSION.equals(column.getRole()) && column.getName() != null && column.getType() != 0) {
+                types.put(column.getName(), column.getType());
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Compiled expression which slots are mapped to data columns once, so that evaluating it for each row reads only
+     * the columns it refers to without resolving its variables.
+     */
+    private class BoundExpression {
+        private final CompiledExpression expression;
+        private final String[] columnNames;
+
+        private BoundExpression(CompiledExpression expression) {
+            this.expression = expression;
+            List<String> variables = expression.getVariables();
+            columnNames = new String[variables.size()];
+            for (int i = 0; i < columnNames.length; i++) {
+                String name = variables.get(i);
+                columnNames[i] = dataColumnNames.contains(name) ? name : null;
+            }
+        }
+
+        private Object eval(Map<String, Object> fallbackValues) {
+            Object[] slots = new Object[columnNames.length];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = columnNames[i] != null ? getColumnValue(columnNames[i], fallbackValues) : fallbackValues.get(expression.getVariables().get(i));
+            }
+            return expression.eval(slots);
+        }
+
+        private Object getColumnValue(String name, Map<String, Object> fallbackValues) {
+            try {
+                return rs.getObject(name);
+            } catch (SQLException e) {
+                return fallbackValues.get(name);
+            }
+        }
+    }
+
+    /**
+     * Script engine is created only if there is expression that cannot be compiled.
+     */
+    private ScriptEngine getEngine() {
+        if (engine == null) {
+            engine = new ScriptEngineFactory(functionManager, driverPolicy).getEngine();
+        }
+        return engine;
+    }
+
     private String getEval(int index) {
         return index <= columns.size() ? ofNullable(columns.get(index - 1)).map(DataColumn::getExpression).orElse(null) : null;
     }
@@ -0,0 +1,1215 @@
+package com.nosqldriver.sql;
+
+import com.nosqldriver.VisibleForPackage;
+import com.nosqldriver.util.FunctionManager;
+import com.nosqldriver.util.SneakyThrower;
+import com.nosqldriver.util.TriFunction;
+import com.nosqldriver.util.VarargsFunction;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.BinaryExpression;
+import net.sf.jsqlparser.expression.CaseExpression;
+import net.sf.jsqlparser.expression.DoubleValue;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.expression.LongValue;
+import net.sf.jsqlparser.expression.NotExpression;
+import net.sf.jsqlparser.expression.NullValue;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.SignedExpression;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.WhenClause;
+import net.sf.jsqlparser.expression.operators.arithmetic.Addition;
+import net.sf.jsqlparser.expression.operators.arithmetic.Concat;
+import net.sf.jsqlparser.expression.operators.arithmetic.Division;
+import net.sf.jsqlparser.expression.operators.arithmetic.Modulo;
+import net.sf.jsqlparser.expression.operators.arithmetic.Multiplication;
+import net.sf.jsqlparser.expression.operators.arithmetic.Subtraction;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.conditional.OrExpression;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.expression.operators.relational.LikeExpression;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.NotEqualsTo;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.schema.Column;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.LongBinaryOperator;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import static com.nosqldriver.util.IOUtils.stripQuotes;
+import static java.lang.String.format;
+
+/**
+ * Compiles SQL expression (condition of {@code WHERE} or {@code HAVING}, calculated column etc.) to tree of Java functions,
+ * so that the expression is parsed once and evaluating it for each row does not require script engine.
+ *
+ * Supported are literals, references to columns and parameters, arithmetic operators, string concatenation, comparison,
+ * {@code AND}, {@code OR}, {@code NOT}, {@code IS NULL}, {@code BETWEEN}, {@code IN} with list of values, {@code LIKE},
+ * {@code CASE} and functions registered in {@link FunctionManager}. Call of aggregate function (e.g. in {@code HAVING})
+ * refers to column named by the text of the call. Call of function unknown to {@link FunctionManager} is compiled only if
+ * the compiler is created with a callback that calls such functions (e.g. defined in the script engine): its arguments are
+ * evaluated by the compiled expression and only the call itself is delegated. Expression that contains anything else (or call
+ * of unknown function if there is no callback) is not compiled; it is evaluated by the script engine.
+ *
+ * Each variable (column or parameter) the expression refers to is assigned a slot at compile time (see {@link CompiledExpression#getVariables()}),
+ * so the compiled expression reads values of variables from array by index and never looks them up by name.
+ *
+ * If SQL types of columns are known (see {@link #compile(String, Map)}) maximal sub-expressions built of arithmetic, comparison and
+ * logical operators over columns of integer or floating point type and numeric literals are specialized: such sub-expression is
+ * combined to {@link MethodHandle} that unboxes the slots once and calculates using primitive {@code long} and {@code double}
+ * arithmetic without boxing intermediate results. The specialized code is guarded by the actual classes of values of the slots;
+ * if a value is {@code null} or of other type or the long arithmetic overflows the generic evaluation is used, so both give the same result.
+ *
+ * Results follow the script engine: whole numbers calculated by arithmetic operators are returned as {@code Integer} if they
+ * fit into int and as {@code Long} otherwise, {@code +} concatenates strings; functions return exactly what their
+ * implementation returns (e.g. {@code floor(2.5)} is {@code Double} 2.0). Unlike the script
+ * engine {@code null} is handled according to SQL three-valued logic: the result of arithmetic with {@code null} and of comparison
+ * with {@code null} (including {@code BETWEEN}, {@code IN} and {@code LIKE}) is {@code null} that means unknown, {@code NOT} of unknown
+ * is unknown, {@code AND} is false if any operand is false and {@code OR} is true if any operand is true, otherwise they are unknown
+ * if any operand is unknown. Unknown condition is not true (see {@link #isTrue(Object)}), so {@code NOT} of a condition and the
+ * corresponding negated operator (e.g. {@code NOT a = b} and {@code a <> b}) give the same result.
+ */
+public class ExpressionCompiler {
+    private static final Collection<String> AGGREGATE_FUNCTIONS = new HashSet<>(Arrays.asList("count", "sum", "avg", "min", "max"));
+    // created by this class, so that the specialized expressions can use its private primitive operations
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private final FunctionManager functionManager;
+    private final BiFunction<String, Object[], Object> unknownFunctions;
+
+    public ExpressionCompiler(FunctionManager functionManager) {
+        this(functionManager, null);
+    }
+
+    /**
+     * @param functionManager the registered functions
+     * @param unknownFunctions calls function that is not registered in {@code functionManager} by its name with already evaluated
+     *                         arguments; {@code null} if expression that calls unknown function should not be compiled
+     */
+    public ExpressionCompiler(FunctionManager functionManager, BiFunction<String, Object[], Object> unknownFunctions) {
+        this.functionManager = functionManager;
+        this.unknownFunctions = unknownFunctions;
+    }
+
+    /**
+     * @param expr the expression
+     * @return compiled expression or empty if expression cannot be parsed or contains unsupported constructs
+     */
+    public Optional<CompiledExpression> compile(String expr) {
+        return compile(expr, Collections.emptyMap());
+    }
+
+    /**
+     * Compiles expression specialized for the given types of columns.
+     * @param expr the expression
+     * @param columnTypes SQL types (see {@link Types}) of columns by name
+     * @return compiled expression or empty if expression cannot be parsed or contains unsupported constructs
+     */
+    public Optional<CompiledExpression> compile(String expr, Map<String, Integer> columnTypes) {
+        return parse(expr).flatMap(e -> {
+            Compilation compilation = new Compilation(columnTypes);
+            return compilation.compile(e).map(compilation::result);
+        });
+    }
+
+    /**
+     * @param md metadata of result set
+     * @return SQL types of columns by their names and labels
+     */
+    @VisibleForPackage
+    static Map<String, Integer> columnTypes(ResultSetMetaData md) throws SQLException {
+        Map<String, Integer> types = new HashMap<>();
+        int n = md.getColumnCount();
+        for (int i = 1; i <= n; i++) {
+            int type = md.getColumnType(i);
+            if (type != 0) {
+                types.put(md.getColumnName(i), type);
+                if (md.getColumnLabel(i) != null) {
+                    types.put(md.getColumnLabel(i), type);
+                }
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Finds names of variables (columns and parameters) the expression may refer to, so that the caller can resolve them once
+     * instead of exposing all fields of each row to the compiled expression. Both fully qualified and simple names of columns are
+     * returned as well as text of function calls that can refer to already calculated column (e.g. {@code count(*)}).
+     * @param expr the expression
+     * @return names of variables or empty collection if expression cannot be parsed
+     */
+    public Collection<String> variables(String expr) {
+        Collection<String> names = new LinkedHashSet<>();
+        parse(expr).ifPresent(e -> e.accept(new ExpressionVisitorAdapter() {
+            @Override
+            public void visit(Column column) {
+                if (column.getTable() != null && column.getTable().getName() != null) {
+                    names.add(column.getFullyQualifiedName());
+                }
+                names.add(stripQuotes(column.getColumnName()));
+            }
+
+            @Override
+            public void visit(net.sf.jsqlparser.expression.Function function) {
+                names.add(function.toString());
+                super.visit(function);
+            }
+        }));
+        return names;
+    }
+
+    /**
+     * Parses the expression. Both conditions and simple expressions are accepted. Expression that is parsed only partially
+     * (i.e. the text of the parsed expression differs from the given one) is not compiled.
+     */
+    private static Optional<Expression> parse(String expr) {
+        Expression expression;
+        try {
+            expression = CCJSqlParserUtil.parseCondExpression(expr);
+        } catch (JSQLParserException | RuntimeException e) {
+            try {
+                expression = CCJSqlParserUtil.parseExpression(expr);
+            } catch (JSQLParserException | RuntimeException e2) {
+                return Optional.empty();
+            }
+        }
+        return expression != null && normalizeText(expression.toString()).equals(normalizeText(expr)) ? Optional.of(expression) : Optional.empty();
+    }
+
+    private static String normalizeText(String expr) {
+        return expr.replaceAll("\\s+", "").toLowerCase();
+    }
+
+    /**
+     * State of compilation of one expression: slots assigned to the variables the expression refers to.
+     */
+    private class Compilation {
+        private final Map<String, Integer> columnTypes;
+        private final Map<String, Integer> slots = new LinkedHashMap<>();
+        private boolean specialize;
+
+        private Compilation(Map<String, Integer> columnTypes) {
+            this.columnTypes = columnTypes;
+            specialize = !columnTypes.isEmpty();
+        }
+
+        private CompiledExpression result(Node root) {
+            return new Compiled(new ArrayList<>(slots.keySet()), root);
+        }
+
+        /**
+         * @return index of the slot of the variable; the same variable referred several times shares the slot
+         */
+        private int slot(String name) {
+            return slots.computeIfAbsent(name, n -> slots.size());
+        }
+
+        private Optional<Node> compile(Expression expr) {
+            if (specialize) {
+                Optional<Node> specialized = specialized(expr);
+                if (specialized.isPresent()) {
+                    return specialized;
+                }
+            }
+            if (expr instanceof NullValue) {
+                return constant(null);
+            }
+            if (expr instanceof LongValue) {
+                return constant(normalize(((LongValue) expr).getValue()));
+            }
+            if (expr instanceof DoubleValue) {
+                return constant(((DoubleValue) expr).getValue());
+            }
+            if (expr instanceof StringValue) {
+                return constant(((StringValue) expr).getValue());
+            }
+            if (expr instanceof Column) {
+                return column((Column) expr);
+            }
+            if (expr instanceof Parenthesis) {
+                return compile(((Parenthesis) expr).getExpression());
+            }
+            if (expr instanceof SignedExpression) {
+                SignedExpression signed = (SignedExpression) expr;
+                if (signed.getSign() == '+') {
+                    return compile(signed.getExpression());
+                }
+                return signed.getSign() == '-' ? compile(signed.getExpression()).map(e -> fold(e, null, (x, y) -> negate(x)).orElse(s -> negate(e.eval(s)))) : Optional.empty();
+            }
+            if (expr instanceof net.sf.jsqlparser.expression.Function) {
+                return function((net.sf.jsqlparser.expression.Function) expr);
+            }
+            if (expr instanceof Addition) {
+                return binary((BinaryExpression) expr, ExpressionCompiler::add);
+            }
+            if (expr instanceof Subtraction) {
+                return binary((BinaryExpression) expr, (a, b) -> arithmetic(a, b, Math::subtractExact, (x, y) -> x - y));
+            }
+            if (expr instanceof Multiplication) {
+                return binary((BinaryExpression) expr, (a, b) -> arithmetic(a, b, Math::multiplyExact, (x, y) -> x * y));
+            }
+            if (expr instanceof Division) {
+                return binary((BinaryExpression) expr, (a, b) -> arithmetic(a, b, null, (x, y) -> x / y));
+            }
+            if (expr instanceof Modulo) {
+                return binary((BinaryExpression) expr, (a, b) -> arithmetic(a, b, (x, y) -> x % y, (x, y) -> x % y));
+            }
+            if (expr instanceof Concat) {
+                return binary((BinaryExpression) expr, (a, b) -> a == null || b == null ? null : string(a) + string(b));
+            }
+            if (expr instanceof EqualsTo) {
+                return comparison((BinaryExpression) expr, c -> c == 0, (a, b) -> a == null || b == null ? null : isEqual(a, b));
+            }
+            if (expr instanceof NotEqualsTo) {
+                return comparison((BinaryExpression) expr, c -> c != 0, (a, b) -> a == null || b == null ? null : !isEqual(a, b));
+            }
+            if (expr instanceof GreaterThan) {
+                return comparison((BinaryExpression) expr, c -> c > 0);
+            }
+            if (expr instanceof GreaterThanEquals) {
+                return comparison((BinaryExpression) expr, c -> c >= 0);
+            }
+            if (expr instanceof MinorThan) {
+                return comparison((BinaryExpression) expr, c -> c < 0);
+            }
+            if (expr instanceof MinorThanEquals) {
+                return comparison((BinaryExpression) expr, c -> c <= 0);
+            }
+            if (expr instanceof AndExpression) {
+                Optional<Node> left = compile(((AndExpression) expr).getLeftExpression());
+                Optional<Node> right = compile(((AndExpression) expr).getRightExpression());
+                return left.isPresent() && right.isPresent() ? Optional.of(s -> and(left.get().eval(s), () -> right.get().eval(s))) : Optional.empty();
+            }
+            if (expr instanceof OrExpression) {
+                Optional<Node> left = compile(((OrExpression) expr).getLeftExpression());
+                Optional<Node> right = compile(((OrExpression) expr).getRightExpression());
+                return left.isPresent() && right.isPresent() ? Optional.of(s -> or(left.get().eval(s), () -> right.get().eval(s))) : Optional.empty();
+            }
+            if (expr instanceof NotExpression) {
+                return compile(((NotExpression) expr).getExpression()).map(e -> s -> not(e.eval(s)));
+            }
+            if (expr instanceof IsNullExpression) {
+                boolean not = ((IsNullExpression) expr).isNot();
+                return compile(((IsNullExpression) expr).getLeftExpression()).map(e -> s -> (e.eval(s) == null) != not);
+            }
+            if (expr instanceof Between) {
+                return between((Between) expr);
+            }
+            if (expr instanceof InExpression) {
+                return in((InExpression) expr);
+            }
+            if (expr instanceof LikeExpression) {
+                return like((LikeExpression) expr);
+            }
+            if (expr instanceof CaseExpression) {
+                return caseExpression((CaseExpression) expr);
+            }
+            return Optional.empty();
+        }
+
+        /**
+         * Specializes the expression if it is built of numeric operations over at least one column of known numeric type.
+         * Sub-expressions of the generic fallback are not specialized again.
+         */
+        private Optional<Node> specialized(Expression expr) {
+            Expression e = expr;
+            while (e instanceof Parenthesis) {
+                e = ((Parenthesis) e).getExpression();
+            }
+            if (e instanceof Column || e instanceof LongValue || e instanceof DoubleValue) {
+                return Optional.empty(); // nothing to calculate
+            }
+            Map<Integer, Class<?>> guards = new LinkedHashMap<>();
+            Optional<MethodHandle> typed = typed(e, guards);
+            if (!typed.isPresent() || guards.isEmpty()) {
+                return Optional.empty();
+            }
+            specialize = false;
+            try {
+                return compile(e).map(generic -> new Specialized(typed.get(), guards, generic));
+            } finally {
+                specialize = true;
+            }
+        }
+
+        /**
+         * Combines method handle that calculates the expression using primitive types.
+         * @param guards collects slots read by the handle and the expected primitive types of their values
+         * @return handle of type {@code (Object[])long}, {@code (Object[])double} or {@code (Object[])boolean} or empty if the expression cannot be specialized
+         */
+        private Optional<MethodHandle> typed(Expression expr, Map<Integer, Class<?>> guards) {
+            if (expr instanceof Parenthesis) {
+                return typed(((Parenthesis) expr).getExpression(), guards);
+            }
+            if (expr instanceof LongValue) {
+                return Optional.of(Specialized.constant(long.class, ((LongValue) expr).getValue()));
+            }
+            if (expr instanceof DoubleValue) {
+                return Optional.of(Specialized.constant(double.class, ((DoubleValue) expr).getValue()));
+            }
+            if (expr instanceof Column) {
+                return typedColumn((Column) expr, guards);
+            }
+            if (expr instanceof SignedExpression) {
+                SignedExpression signed = (SignedExpression) expr;
+                Optional<MethodHandle> operand = typed(signed.getExpression(), guards).filter(h -> !Specialized.isBoolean(h));
+                if (signed.getSign() == '+') {
+                    return operand;
+                }
+                return signed.getSign() == '-' ? operand.map(Specialized::negate) : Optional.empty();
+            }
+            if (expr instanceof Addition) {
+                return typedArithmetic((BinaryExpression) expr, guards, Specialized.ADD_EXACT, Specialized.ADD);
+            }
+            if (expr instanceof Subtraction) {
+                return typedArithmetic((BinaryExpression) expr, guards, Specialized.SUBTRACT_EXACT, Specialized.SUBTRACT);
+            }
+            if (expr instanceof Multiplication) {
+                return typedArithmetic((BinaryExpression) expr, guards, Specialized.MULTIPLY_EXACT, Specialized.MULTIPLY);
+            }
+            if (expr instanceof Division) {
+                return typedArithmetic((BinaryExpression) expr, guards, null, Specialized.DIVIDE);
+            }
+            if (expr instanceof Modulo) {
+                return typedArithmetic((BinaryExpression) expr, guards, Specialized.LONG_REMAINDER, Specialized.REMAINDER);
+            }
+            if (expr instanceof EqualsTo) {
+                return typedComparison((BinaryExpression) expr, guards, c -> c == 0);
+            }
+            if (expr instanceof NotEqualsTo) {
+                return typedComparison((BinaryExpression) expr, guards, c -> c != 0);
+            }
+            if (expr instanceof GreaterThan) {
+                return typedComparison((BinaryExpression) expr, guards, c -> c > 0);
+            }
+            if (expr instanceof GreaterThanEquals) {
+                return typedComparison((BinaryExpression) expr, guards, c -> c >= 0);
+            }
+            if (expr instanceof MinorThan) {
+                return typedComparison((BinaryExpression) expr, guards, c -> c < 0);
+            }
+            if (expr instanceof MinorThanEquals) {
+                return typedComparison((BinaryExpression) expr, guards, c -> c <= 0);
+            }
+            if (expr instanceof AndExpression || expr instanceof OrExpression) {
+                BinaryExpression logical = (BinaryExpression) expr;
+                Optional<MethodHandle> left = typed(logical.getLeftExpression(), guards).filter(Specialized::isBoolean);
+                Optional<MethodHandle> right = left.isPresent() ? typed(logical.getRightExpression(), guards).filter(Specialized::isBoolean) : Optional.empty();
+                if (!right.isPresent()) {
+                    return Optional.empty();
+                }
+                return Optional.of(expr instanceof AndExpression ? Specialized.and(left.get(), right.get()) : Specialized.or(left.get(), right.get()));
+            }
+            if (expr instanceof NotExpression) {
+                return typed(((NotExpression) expr).getExpression(), guards).filter(Specialized::isBoolean).map(Specialized::not);
+            }
+            return Optional.empty();
+        }
+
+        private Optional<MethodHandle> typedColumn(Column column, Map<Integer, Class<?>> guards) {
+            if (column.getTable() != null && column.getTable().getName() != null) {
+                return Optional.empty();
+            }
+            String name = stripQuotes(column.getColumnName());
+            Class<?> type = primitiveType(columnTypes.get(name));
+            if (type == null) {
+                return Optional.empty();
+            }
+            int slot = slot(name);
+            guards.put(slot, type);
+            return Optional.of(Specialized.slot(slot, type));
+        }
+
+        private Optional<MethodHandle> typedArithmetic(BinaryExpression expr, Map<Integer, Class<?>> guards, MethodHandle longOp, MethodHandle doubleOp) {
+            Optional<MethodHandle> left = typed(expr.getLeftExpression(), guards).filter(h -> !Specialized.isBoolean(h));
+            Optional<MethodHandle> right = left.isPresent() ? typed(expr.getRightExpression(), guards).filter(h -> !Specialized.isBoolean(h)) : Optional.empty();
+            if (!right.isPresent()) {
+                return Optional.empty();
+            }
+            if (longOp != null && Specialized.isLong(left.get()) && Specialized.isLong(right.get())) {
+                return Optional.of(Specialized.combine(longOp, left.get(), right.get()));
+            }
+            return Optional.of(Specialized.combine(doubleOp, Specialized.toDouble(left.get()), Specialized.toDouble(right.get())));
+        }
+
+        private Optional<MethodHandle> typedComparison(BinaryExpression expr, Map<Integer, Class<?>> guards, IntPredicate predicate) {
+            Optional<MethodHandle> left = typed(expr.getLeftExpression(), guards).filter(h -> !Specialized.isBoolean(h));
+            Optional<MethodHandle> right = left.isPresent() ? typed(expr.getRightExpression(), guards).filter(h -> !Specialized.isBoolean(h)) : Optional.empty();
+            if (!right.isPresent()) {
+                return Optional.empty();
+            }
+            MethodHandle comparison = Specialized.isLong(left.get()) && Specialized.isLong(right.get()) ?
+                    Specialized.combine(Specialized.LONG_COMPARE, left.get(), right.get()) :
+                    Specialized.combine(Specialized.DOUBLE_COMPARE, Specialized.toDouble(left.get()), Specialized.toDouble(right.get()));
+            return Optional.of(Specialized.test(comparison, predicate));
+        }
+
+        private Optional<Node> column(Column column) {
+            String name = stripQuotes(column.getColumnName());
+            if (column.getTable() == null || column.getTable().getName() == null) {
+                if ("true".equalsIgnoreCase(name) || "false".equalsIgnoreCase(name)) {
+                    return constant(Boolean.valueOf(name));
+                }
+                int slot = slot(name);
+                return Optional.of(s -> s[slot]);
+            }
+            int fullName = slot(column.getFullyQualifiedName());
+            int simpleName = slot(name);
+            return Optional.of(s -> s[fullName] != null ? s[fullName] : s[simpleName]);
+        }
+
+        private Optional<Node> function(net.sf.jsqlparser.expression.Function function) {
+            String name = function.getName();
+            Object f = functionManager.getFunction(name);
+            if (f == null) {
+                f = functionManager.getFunction(name.toLowerCase());
+            }
+            if (function.isAllColumns() || function.isDistinct() || AGGREGATE_FUNCTIONS.contains(name.toLowerCase())) {
+                // aggregate function which value is already calculated and available as column
+                int slot = slot(function.toString());
+                return Optional.of(s -> s[slot]);
+            }
+            if (f == null && unknownFunctions == null) {
+                return Optional.empty(); // unknown function is left to the script engine
+            }
+            List<Expression> params = function.getParameters() == null ? new ArrayList<>() : function.getParameters().getExpressions();
+            List<Node> args = new ArrayList<>();
+            for (Expression param : params) {
+                Optional<Node> arg = compile(param);
+                if (!arg.isPresent()) {
+                    return Optional.empty();
+                }
+                args.add(arg.get());
+            }
+            if (f == null) {
+                // only the call is delegated, so operators around it still follow SQL three-valued logic
+                return Optional.of(s -> {
+                    Object[] values = new Object[args.size()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = args.get(i).eval(s);
+                    }
+                    return unknownFunctions.apply(name, values);
+                });
+            }
+            Class<?>[] types = parameterTypes(f, args.size());
+            return invocation(f, args.size()).map(invocation -> s -> {
+                Object[] values = new Object[args.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = cast(args.get(i).eval(s), types[i]);
+                }
+                return invocation.apply(values);
+            });
+        }
+
+        private Optional<Node> binary(BinaryExpression expr, BiFunction<Object, Object, Object> op) {
+            Optional<Node> left = compile(expr.getLeftExpression());
+            Optional<Node> right = compile(expr.getRightExpression());
+            if (!left.isPresent() || !right.isPresent()) {
+                return Optional.empty();
+            }
+            Node l = left.get();
+            Node r = right.get();
+            Optional<Node> folded = fold(l, r, op);
+            return folded.isPresent() ? folded : Optional.of(s -> op.apply(l.eval(s), r.eval(s)));
+        }
+
+        private Optional<Node> comparison(BinaryExpression expr, IntPredicate predicate) {
+            return comparison(expr, predicate, (a, b) -> test(a, b, predicate));
+        }
+
+        /**
+         * Compiles comparison. Comparison of an operand with numeric literal (e.g. {@code year > 1900}), that is the most
+         * common condition, is specialized: the literal is unboxed once and integer and double values of the operand are compared
+         * using primitive arithmetic; other values are compared by the given generic operation.
+         */
+        private Optional<Node> comparison(BinaryExpression expr, IntPredicate predicate, BiFunction<Object, Object, Object> generic) {
+            Optional<Node> left = compile(expr.getLeftExpression());
+            Optional<Node> right = compile(expr.getRightExpression());
+            if (!left.isPresent() || !right.isPresent()) {
+                return Optional.empty();
+            }
+            Node l = left.get();
+            Node r = right.get();
+            Optional<Node> folded = fold(l, r, generic);
+            if (folded.isPresent()) {
+                return folded;
+            }
+            if (isNumericConstant(r)) {
+                return Optional.of(numericComparison(l, (Number) ((Constant) r).value, predicate, generic));
+            }
+            if (isNumericConstant(l)) {
+                return Optional.of(numericComparison(r, (Number) ((Constant) l).value, c -> predicate.test(-c), (a, b) -> generic.apply(b, a)));
+            }
+            return Optional.of(s -> generic.apply(l.eval(s), r.eval(s)));
+        }
+
+        private Optional<Node> between(Between between) {
+            Optional<Node> value = compile(between.getLeftExpression());
+            Optional<Node> start = compile(between.getBetweenExpressionStart());
+            Optional<Node> end = compile(between.getBetweenExpressionEnd());
+            if (!value.isPresent() || !start.isPresent() || !end.isPresent()) {
+                return Optional.empty();
+            }
+            boolean not = between.isNot();
+            return Optional.of(s -> {
+                Object x = value.get().eval(s);
+                Boolean afterStart = test(x, start.get().eval(s), c -> c >= 0);
+                Boolean result = and(afterStart, () -> test(x, end.get().eval(s), c -> c <= 0));
+                return not ? not(result) : result;
+            });
+        }
+
+        private Optional<Node> in(InExpression in) {
+            if (!(in.getRightItemsList() instanceof ExpressionList)) {
+                return Optional.empty();
+            }
+            Optional<Node> value = compile(in.getLeftExpression());
+            Collection<Node> candidates = new ArrayList<>();
+            for (Expression candidate : ((ExpressionList) in.getRightItemsList()).getExpressions()) {
+                Optional<Node> compiled = compile(candidate);
+                if (!compiled.isPresent()) {
+                    return Optional.empty();
+                }
+                candidates.add(compiled.get());
+            }
+            if (!value.isPresent()) {
+                return Optional.empty();
+            }
+            boolean not = in.isNot();
+            return Optional.of(s -> {
+                Object x = value.get().eval(s);
+                if (x == null) {
+                    return null;
+                }
+                Boolean result = false;
+                for (Node candidate : candidates) {
+                    Object c = candidate.eval(s);
+                    if (c == null) {
+                        result = null; // x is not in the list unless it is equal to another candidate
+                    } else if (isEqual(x, c)) {
+                        result = true;
+                        break;
+                    }
+                }
+                return not ? not(result) : result;
+            });
+        }
+
+        private Optional<Node> like(LikeExpression like) {
+            if (like.getEscape() != null) {
+                return Optional.empty();
+            }
+            Optional<Node> value = compile(like.getLeftExpression());
+            Optional<Node> pattern = compile(like.getRightExpression());
+            if (!value.isPresent() || !pattern.isPresent()) {
+                return Optional.empty();
+            }
+            boolean not = like.isNot();
+            int flags = Pattern.DOTALL | (like.isCaseInsensitive() ? Pattern.CASE_INSENSITIVE : 0);
+            Function<Object, Pattern> patterns;
+            if (like.getRightExpression() instanceof StringValue) {
+                Pattern p = Pattern.compile(SqlUtil.likeToRegex(((StringValue) like.getRightExpression()).getValue(), false), flags);
+                patterns = x -> p;
+            } else {
+                patterns = x -> Pattern.compile(SqlUtil.likeToRegex(string(x), false), flags);
+            }
+            return Optional.of(s -> {
+                Object x = value.get().eval(s);
+                Object p = pattern.get().eval(s);
+                return x == null || p == null ? null : patterns.apply(p).matcher(string(x)).matches() != not;
+            });
+        }
+
+        private Optional<Node> caseExpression(CaseExpression expr) {
+            Optional<Node> switchValue = expr.getSwitchExpression() == null ? Optional.empty() : compile(expr.getSwitchExpression());
+            if (expr.getSwitchExpression() != null && !switchValue.isPresent()) {
+                return Optional.empty();
+            }
+            List<Node[]> whens = new ArrayList<>();
+            for (WhenClause when : expr.getWhenClauses()) {
+                Optional<Node> condition = compile(when.getWhenExpression());
+                Optional<Node> then = compile(when.getThenExpression());
+                if (!condition.isPresent() || !then.isPresent()) {
+                    return Optional.empty();
+                }
+                whens.add(new Node[] {condition.get(), then.get()});
+            }
+            Optional<Node> elseValue = expr.getElseExpression() == null ? constant(null) : compile(expr.getElseExpression());
+            if (!elseValue.isPresent()) {
+                return Optional.empty();
+            }
+            return Optional.of(s -> {
+                Object switchResult = switchValue.map(v -> v.eval(s)).orElse(null);
+                for (Node[] when : whens) {
+                    Object condition = when[0].eval(s);
+                    if (switchValue.isPresent() ? switchResult != null && isEqual(switchResult, condition) : isTrue(condition)) {
+                        return when[1].eval(s);
+                    }
+                }
+                return elseValue.get().eval(s);
+            });
+        }
+    }
+
+    /**
+     * @return primitive type used to calculate values of column of given SQL type or {@code null} if calculation with such values is not specialized
+     */
+    private static Class<?> primitiveType(Integer sqlType) {
+        if (sqlType == null) {
+            return null;
+        }
+        switch (sqlType) {
+            case Types.BIGINT:
+            case Types.INTEGER:
+            case Types.SMALLINT:
+            case Types.TINYINT:
+                return long.class;
+            case Types.DOUBLE:
+            case Types.FLOAT:
+            case Types.REAL:
+                return double.class;
+            default:
+                return null;
+        }
+    }
+
+    private static Optional<Node> constant(Object value) {
+        return Optional.of(new Constant(value));
+    }
+
+    /**
+     * Calculates value of operation once if all its operands are constant.
+     * @return the constant result or empty if any operand is not constant or the operation fails (the failure is then reported when the expression is evaluated)
+     */
+    private static Optional<Node> fold(Node left, Node right, BiFunction<Object, Object, Object> op) {
+        if (!(left instanceof Constant) || (right != null && !(right instanceof Constant))) {
+            return Optional.empty();
+        }
+        try {
+            return constant(op.apply(((Constant) left).value, right == null ? null : ((Constant) right).value));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Optional<Function<Object[], Object>> invocation(Object f, int n) {
+        if (f instanceof VarargsFunction) {
+            return Optional.of(a -> ((VarargsFunction<Object, Object>) f).apply(a));
+        }
+        switch (n) {
+            case 0: return f instanceof Supplier ? Optional.of(a -> ((Supplier<Object>) f).get()) : Optional.empty();
+            case 1: return f instanceof Function ? Optional.of(a -> ((Function<Object, Object>) f).apply(a[0])) : Optional.empty();
+            case 2: return f instanceof BiFunction ? Optional.of(a -> ((BiFunction<Object, Object, Object>) f).apply(a[0], a[1])) : Optional.empty();
+            case 3: return f instanceof TriFunction ? Optional.of(a -> ((TriFunction<Object, Object, Object, Object>) f).apply(a[0], a[1], a[2])) : Optional.empty();
+            default: return Optional.empty();
+        }
+    }
+
+    /**
+     * Discovers types of parameters of function implemented as class (rather than lambda), so that numeric arguments
+     * can be converted to the required type.
+     */
+    private static Class<?>[] parameterTypes(Object f, int n) {
+        Class<?>[] types = new Class<?>[n];
+        if (f instanceof VarargsFunction) {
+            return types;
+        }
+        Arrays.stream(f.getClass().getGenericInterfaces())
+                .filter(t -> t instanceof ParameterizedType)
+                .map(t -> ((ParameterizedType) t).getActualTypeArguments())
+                .findFirst()
+                .ifPresent(args -> {
+                    for (int i = 0; i < n && i < args.length; i++) {
+                        Type type = args[i];
+                        types[i] = type instanceof Class ? (Class<?>) type : null;
+                    }
+                });
+        return types;
+    }
+
+    private static Object cast(Object value, Class<?> type) {
+        if (!(value instanceof Number) || type == null || type.isInstance(value)) {
+            return value;
+        }
+        Number n = (Number) value;
+        if (Integer.class.equals(type)) {
+            return n.intValue();
+        }
+        if (Long.class.equals(type)) {
+            return n.longValue();
+        }
+        if (Double.class.equals(type)) {
+            return n.doubleValue();
+        }
+        if (Float.class.equals(type)) {
+            return n.floatValue();
+        }
+        if (Short.class.equals(type)) {
+            return n.shortValue();
+        }
+        if (Byte.class.equals(type)) {
+            return n.byteValue();
+        }
+        return value;
+    }
+
+    private static boolean isNumericConstant(Node e) {
+        return e instanceof Constant && ((Constant) e).value instanceof Number;
+    }
+
+    private static Node numericComparison(Node operand, Number constant, IntPredicate predicate, BiFunction<Object, Object, Object> generic) {
+        if (isIntegral(constant)) {
+            long y = constant.longValue();
+            return s -> {
+                Object x = operand.eval(s);
+                return x instanceof Long || x instanceof Integer ? predicate.test(Long.compare(((Number) x).longValue(), y)) : generic.apply(x, constant);
+            };
+        }
+        double y = constant.doubleValue();
+        return s -> {
+            Object x = operand.eval(s);
+            if (x instanceof Double || x instanceof Long || x instanceof Integer) {
+                double d = ((Number) x).doubleValue();
+                return predicate.test(d < y ? -1 : d > y ? 1 : 0);
+            }
+            return generic.apply(x, constant);
+        };
+    }
+
+    /**
+     * Truth value of condition: {@code null}, {@code false}, zero and empty string are false like in the script engine.
+     */
+    public static boolean isTrue(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue() != 0;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() > 0;
+        }
+        return true;
+    }
+
+    /**
+     * Applies the predicate to result of comparison of the given values.
+     * @return {@code null} (unknown) if any of the values is {@code null}, false if the values are not comparable
+     */
+    private static Boolean test(Object a, Object b, IntPredicate predicate) {
+        if (a == null || b == null) {
+            return null;
+        }
+        Integer c = compare(a, b);
+        return c != null && predicate.test(c);
+    }
+
+    private static Boolean not(Object value) {
+        return value == null ? null : !isTrue(value);
+    }
+
+    /**
+     * {@code AND} of three-valued logic. The second operand is not evaluated if the first one is false.
+     */
+    private static Boolean and(Object a, Supplier<Object> b) {
+        if (a != null && !isTrue(a)) {
+            return false;
+        }
+        Object y = b.get();
+        if (y != null && !isTrue(y)) {
+            return false;
+        }
+        return a == null || y == null ? null : true;
+    }
+
+    /**
+     * {@code OR} of three-valued logic. The second operand is not evaluated if the first one is true.
+     */
+    private static Boolean or(Object a, Supplier<Object> b) {
+        if (isTrue(a)) {
+            return true;
+        }
+        Object y = b.get();
+        if (isTrue(y)) {
+            return true;
+        }
+        return a == null || y == null ? null : false;
+    }
+
+    private static Object add(Object a, Object b) {
+        if (a == null || b == null) {
+            return null;
+        }
+        if (a instanceof CharSequence || b instanceof CharSequence) {
+            return string(a) + string(b);
+        }
+        return arithmetic(a, b, Math::addExact, (x, y) -> x + y);
+    }
+
+    /**
+     * Performs arithmetic operation using long if both operands are integer and the long operation is given and does not overflow
+     * and using double otherwise.
+     */
+    private static Object arithmetic(Object a, Object b, LongBinaryOperator longOp, DoubleBinaryOperator doubleOp) {
+        if (a == null || b == null) {
+            return null;
+        }
+        Number x = number(a);
+        Number y = number(b);
+        if (longOp != null && isIntegral(x) && isIntegral(y)) {
+            try {
+                return normalize(longOp.applyAsLong(x.longValue(), y.longValue()));
+            } catch (ArithmeticException e) {
+                // overflow or division by zero; calculated using double
+            }
+        }
+        return normalizeDouble(doubleOp.applyAsDouble(x.doubleValue(), y.doubleValue()));
+    }
+
+    private static Object negate(Object value) {
+        if (value == null) {
+            return null;
+        }
+        Number n = number(value);
+        return isIntegral(n) && n.longValue() != Long.MIN_VALUE ? normalize(-n.longValue()) : normalizeDouble(-n.doubleValue());
+    }
+
+    private static Number number(Object value) {
+        if (value instanceof Number) {
+            return (Number) value;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        throw new IllegalArgumentException(format("%s is not a number", value));
+    }
+
+    private static boolean isIntegral(Number n) {
+        return n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte;
+    }
+
+    private static Object normalize(long value) {
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? (Object) (int) value : (Object) value;
+    }
+
+    private static Object normalizeDouble(Object value) {
+        return value instanceof Double ? normalizeDouble((double) (Double) value) : value;
+    }
+
+    private static Object normalizeDouble(double value) {
+        if (value == Math.floor(value) && !Double.isInfinite(value) && value >= Long.MIN_VALUE && value <= Long.MAX_VALUE) {
+            return normalize((long) value);
+        }
+        return value;
+    }
+
+    private static String string(Object value) {
+        return String.valueOf(normalizeDouble(value));
+    }
+
+    private static boolean isEqual(Object a, Object b) {
+        if (a == null || b == null) {
+            return false;
+        }
+        Integer c = compare(a, b);
+        return c != null ? c == 0 : Objects.deepEquals(a, b);
+    }
+
+    /**
+     * Compares two values. Numbers are compared by value regardless of their type; number and string are compared as numbers if
+     * the string represents number.
+     * @return result of comparison or {@code null} if any of values is {@code null} or the values are not comparable
+     */
+    @SuppressWarnings("unchecked")
+    private static Integer compare(Object a, Object b) {
+        if (a == null || b == null) {
+            return null;
+        }
+        if (a instanceof Number && b instanceof Number) {
+            return compare((Number) a, (Number) b);
+        }
+        if (a instanceof Number && b instanceof String) {
+            return parseNumber((String) b).map(n -> compare((Number) a, n)).orElseGet(() -> string(a).compareTo((String) b));
+        }
+        if (a instanceof String && b instanceof Number) {
+            return parseNumber((String) a).map(n -> compare(n, (Number) b)).orElseGet(() -> ((String) a).compareTo(string(b)));
+        }
+        if (a instanceof Comparable && a.getClass().isInstance(b)) {
+            return ((Comparable<Object>) a).compareTo(b);
+        }
+        if (b instanceof Comparable && b.getClass().isInstance(a)) {
+            return -((Comparable<Object>) b).compareTo(a);
+        }
+        return null;
+    }
+
+    private static int compare(Number a, Number b) {
+        if (isIntegral(a) && isIntegral(b)) {
+            return Long.compare(a.longValue(), b.longValue());
+        }
+        double x = a.doubleValue();
+        double y = b.doubleValue();
+        return x < y ? -1 : x > y ? 1 : 0;
+    }
+
+    private static Optional<Number> parseNumber(String s) {
+        try {
+            return Optional.of(Double.parseDouble(s.trim()));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Node of compiled expression tree that reads values of variables from slots.
+     */
+    private interface Node {
+        Object eval(Object[] slots);
+    }
+
+    private static final class Constant implements Node {
+        private final Object value;
+
+        private Constant(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public Object eval(Object[] slots) {
+            return value;
+        }
+    }
+
+    /**
+     * Node that evaluates sub-expression specialized for primitive types by method handle built of the handles of its operations.
+     * The handle is guarded by classes of values of the slots it reads and falls back to the generic node if the values are
+     * not of the expected types or the long arithmetic fails (e.g. overflows).
+     */
+    private static final class Specialized implements Node {
+        private static final MethodHandle SLOT = MethodHandles.arrayElementGetter(Object[].class);
+        private static final MethodHandle LONG_VALUE = virtualMethod(Number.class, "longValue", long.class).asType(MethodType.methodType(long.class, Object.class));
+        private static final MethodHandle DOUBLE_VALUE = virtualMethod(Number.class, "doubleValue", double.class).asType(MethodType.methodType(double.class, Object.class));
+        private static final MethodHandle IS_LONG = staticMethod(ExpressionCompiler.class, "isLongValue", boolean.class, Object.class);
+        private static final MethodHandle IS_DOUBLE = staticMethod(ExpressionCompiler.class, "isDoubleValue", boolean.class, Object.class);
+        private static final MethodHandle ADD_EXACT = staticMethod(Math.class, "addExact", long.class, long.class, long.class);
+        private static final MethodHandle SUBTRACT_EXACT = staticMethod(Math.class, "subtractExact", long.class, long.class, long.class);
+        private static final MethodHandle MULTIPLY_EXACT = staticMethod(Math.class, "multiplyExact", long.class, long.class, long.class);
+        private static final MethodHandle NEGATE_EXACT = staticMethod(Math.class, "negateExact", long.class, long.class);
+        private static final MethodHandle LONG_REMAINDER = staticMethod(ExpressionCompiler.class, "remainder", long.class, long.class, long.class);
+        private static final MethodHandle ADD = staticMethod(ExpressionCompiler.class, "add", double.class, double.class, double.class);
+        private static final MethodHandle SUBTRACT = staticMethod(ExpressionCompiler.class, "subtract", double.class, double.class, double.class);
+        private static final MethodHandle MULTIPLY = staticMethod(ExpressionCompiler.class, "multiply", double.class, double.class, double.class);
+        private static final MethodHandle DIVIDE = staticMethod(ExpressionCompiler.class, "divide", double.class, double.class, double.class);
+        private static final MethodHandle REMAINDER = staticMethod(ExpressionCompiler.class, "remainder", double.class, double.class, double.class);
+        private static final MethodHandle NEGATE = staticMethod(ExpressionCompiler.class, "negate", double.class, double.class);
+        private static final MethodHandle LONG_COMPARE = staticMethod(Long.class, "compare", int.class, long.class, long.class);
+        private static final MethodHandle DOUBLE_COMPARE = staticMethod(ExpressionCompiler.class, "compare", int.class, double.class, double.class);
+        private static final MethodHandle TEST = virtualMethod(IntPredicate.class, "test", boolean.class, int.class);
+        private static final MethodHandle NOT = staticMethod(ExpressionCompiler.class, "isFalse", boolean.class, boolean.class);
+        private static final MethodHandle TRUE = constant(boolean.class, true);
+        private static final MethodHandle FALSE = constant(boolean.class, false);
+        private static final MethodHandle BOX_LONG = staticMethod(ExpressionCompiler.class, "normalize", Object.class, long.class);
+        private static final MethodHandle BOX_DOUBLE = staticMethod(ExpressionCompiler.class, "normalizeDouble", Object.class, double.class);
+        private static final MethodHandle BOX_BOOLEAN = staticMethod(Boolean.class, "valueOf", Boolean.class, boolean.class).asType(MethodType.methodType(Object.class, boolean.class));
+        private static final MethodHandle EVAL = virtualMethod(Node.class, "eval", Object.class, Object[].class);
+
+        private final MethodHandle handle;
+
+        /**
+         * @param typed handle that calculates the expression using primitive types
+         * @param guards slots read by the typed handle and primitive types of their values
+         * @param generic generic evaluation of the same expression
+         */
+        private Specialized(MethodHandle typed, Map<Integer, Class<?>> guards, Node generic) {
+            Class<?> type = typed.type().returnType();
+            MethodHandle boxed = MethodHandles.filterReturnValue(typed, type == long.class ? BOX_LONG : type == double.class ? BOX_DOUBLE : BOX_BOOLEAN);
+            MethodHandle fallback = EVAL.bindTo(generic);
+            MethodHandle safe = MethodHandles.catchException(boxed, ArithmeticException.class, MethodHandles.dropArguments(fallback, 0, ArithmeticException.class));
+            MethodHandle guard = TRUE;
+            for (Entry<Integer, Class<?>> slot : guards.entrySet()) {
+                MethodHandle check = MethodHandles.filterReturnValue(MethodHandles.insertArguments(SLOT, 1, slot.getKey()), slot.getValue() == long.class ? IS_LONG : IS_DOUBLE);
+                guard = MethodHandles.guardWithTest(check, guard, FALSE);
+            }
+            handle = MethodHandles.guardWithTest(guard, safe, fallback);
+        }
+
+        @Override
+        public Object eval(Object[] slots) {
+            try {
+                return (Object) handle.invokeExact(slots);
+            } catch (Throwable e) {
+                return SneakyThrower.sneakyThrow(e);
+            }
+        }
+
+        /**
+         * @return handle of type {@code (Object[])type} that unboxes value of the slot
+         */
+        private static MethodHandle slot(int slot, Class<?> type) {
+            return MethodHandles.filterReturnValue(MethodHandles.insertArguments(SLOT, 1, slot), type == long.class ? LONG_VALUE : DOUBLE_VALUE);
+        }
+
+        private static MethodHandle constant(Class<?> type, Object value) {
+            return MethodHandles.dropArguments(MethodHandles.constant(type, value), 0, Object[].class);
+        }
+
+        /**
+         * Applies binary operation to results of the operands, i.e. creates {@code slots -> op(left(slots), right(slots))}.
+         */
+        private static MethodHandle combine(MethodHandle op, MethodHandle left, MethodHandle right) {
+            MethodHandle operands = MethodHandles.filterArguments(op, 0, left, right);
+            return MethodHandles.permuteArguments(operands, MethodType.methodType(op.type().returnType(), Object[].class), 0, 0);
+        }
+
+        private static MethodHandle toDouble(MethodHandle h) {
+            return isLong(h) ? h.asType(h.type().changeReturnType(double.class)) : h;
+        }
+
+        private static MethodHandle negate(MethodHandle h) {
+            return MethodHandles.filterReturnValue(h, isLong(h) ? NEGATE_EXACT : NEGATE);
+        }
+
+        private static MethodHandle test(MethodHandle comparison, IntPredicate predicate) {
+            return MethodHandles.filterReturnValue(comparison, TEST.bindTo(predicate));
+        }
+
+        private static MethodHandle and(MethodHandle left, MethodHandle right) {
+            return MethodHandles.guardWithTest(left, right, FALSE);
+        }
+
+        private static MethodHandle or(MethodHandle left, MethodHandle right) {
+            return MethodHandles.guardWithTest(left, TRUE, right);
+        }
+
+        private static MethodHandle not(MethodHandle h) {
+            return MethodHandles.filterReturnValue(h, NOT);
+        }
+
+        private static boolean isLong(MethodHandle h) {
+            return h.type().returnType() == long.class;
+        }
+
+        private static boolean isBoolean(MethodHandle h) {
+            return h.type().returnType() == boolean.class;
+        }
+
+        private static MethodHandle staticMethod(Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+            try {
+                return LOOKUP.findStatic(owner, name, MethodType.methodType(returnType, parameterTypes));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static MethodHandle virtualMethod(Class<?> owner, String name, Class<?> returnType, Class<?>... parameterTypes) {
+            try {
+                return LOOKUP.findVirtual(owner, name, MethodType.methodType(returnType, parameterTypes));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // primitive operations used by specialized expressions
+
+    private static boolean isLongValue(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
+    private static boolean isDoubleValue(Object value) {
+        return value instanceof Double || value instanceof Float;
+    }
+
+    private static long remainder(long x, long y) {
+        return x % y;
+    }
+
+    private static double add(double x, double y) {
+        return x + y;
+    }
+
+    private static double subtract(double x, double y) {
+        return x - y;
+    }
+
+    private static double multiply(double x, double y) {
+        return x * y;
+    }
+
+    private static double divide(double x, double y) {
+        return x / y;
+    }
+
+    private static double remainder(double x, double y) {
+        return x % y;
+    }
+
+    private static double negate(double x) {
+        return -x;
+    }
+
+    private static int compare(double x, double y) {
+        return x < y ? -1 : x > y ? 1 : 0;
+    }
+
+    private static boolean isFalse(boolean value) {
+        return !value;
+    }
+
+    private static final class Compiled implements CompiledExpression {
+        private final List<String> variables;
+        private final Node root;
+
+        private Compiled(List<String> variables, Node root) {
+            this.variables = Collections.unmodifiableList(variables);
+            this.root = root;
+        }
+
+        @Override
+        public List<String> getVariables() {
+            return variables;
+        }
+
+        @Override
+        public Object eval(Object[] slots) {
+            return root.eval(slots);
+        }
+    }
+}
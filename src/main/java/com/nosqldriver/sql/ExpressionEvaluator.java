@@ -8,59 +8,178 @@ import com.nosqldriver.util.SneakyThrower;
 import javax.script.Bindings;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
+import javax.script.ScriptException;
 import java.sql.SQLException;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 import static java.util.Optional.ofNullable;
 
+/**
+ * Evaluates expression for each record. The expression is compiled by {@link ExpressionCompiler} when possible, so that
+ * {@code null} is handled according to SQL three-valued logic. Functions unknown to {@link FunctionManager} (e.g. defined
+ * in the script engine) do not prevent compilation: only their calls are delegated to the script engine. The script engine
+ * evaluates the whole expression (and its null semantics apply) only if the expression uses syntax of the script language
+ * or SQL constructs the compiler does not support.
+ */
 @VisibleForPackage
 public abstract class ExpressionEvaluator<T> implements Predicate<T>, Function<T, Object> {
+    private static final Pattern SIMPLE_NAME = Pattern.compile("[a-zA-Z0-9_]+");
     private final String expr;
-    private final ScriptEngine engine;
+    private final Map<String, Object> initialBindings;
+    private final FunctionManager functionManager;
+    private final DriverPolicy driverPolicy;
+    private final ExpressionCompiler compiler;
+    private final CompiledExpression compiled;
     private final String fixedExpr;
+    private ScriptEngine engine;
 
     public ExpressionEvaluator(String expr, Map<String, Object> initialBindings, FunctionManager functionManager, DriverPolicy driverPolicy) {
+        this(expr, initialBindings, functionManager, driverPolicy, Collections.emptyMap());
+    }
+
+    /**
+     * @param columnTypes SQL types of columns by name used to specialize the compiled expression, see {@link ExpressionCompiler#compile(String, Map)}
+     */
+    public ExpressionEvaluator(String expr, Map<String, Object> initialBindings, FunctionManager functionManager, DriverPolicy driverPolicy, Map<String, Integer> columnTypes) {
         this.expr = expr;
-        engine = new ScriptEngineFactory(functionManager, driverPolicy).getEngine();
-        fixedExpr = engine instanceof ScriptEngineWrapper ? ((ScriptEngineWrapper)engine).fixWhereExpression(expr) : expr;
-        Bindings bindings = engine.getBindings(ScriptContext.ENGINE_SCOPE);
-        bindings.putAll(initialBindings);
+        this.initialBindings = initialBindings;
+        this.functionManager = functionManager;
+        this.driverPolicy = driverPolicy;
+        compiler = new ExpressionCompiler(functionManager, this::callScriptFunction);
+        compiled = compiler.compile(expr, columnTypes).orElse(null);
+        if (compiled == null) {
+            ScriptEngine scriptEngine = engine();
+            fixedExpr = scriptEngine instanceof ScriptEngineWrapper ? ((ScriptEngineWrapper)scriptEngine).fixWhereExpression(expr) : expr;
+        } else {
+            fixedExpr = expr;
+        }
+    }
+
+    /**
+     * @return the script engine created when it is needed for the first time
+     */
+    private ScriptEngine engine() {
+        if (engine == null) {
+            engine = new ScriptEngineFactory(functionManager, driverPolicy).getEngine();
+            engine.getBindings(ScriptContext.ENGINE_SCOPE).putAll(initialBindings);
+        }
+        return engine;
+    }
+
+    /**
+     * Calls function unknown to the compiler in the script engine. Arguments are already evaluated by the compiled expression
+     * and bound as variables, so the text of the call is the same for all records and the engine compiles it once.
+     */
+    private Object callScriptFunction(String name, Object[] args) {
+        Bindings bindings = engine().getBindings(ScriptContext.ENGINE_SCOPE);
+        StringBuilder call = new StringBuilder(name).append('(');
+        for (int i = 0; i < args.length; i++) {
+            String arg = "__arg" + i;
+            bindings.put(arg, args[i]);
+            call.append(i > 0 ? ", " : "").append(arg);
+        }
+        call.append(')');
+        try {
+            return engine.eval(call.toString());
+        } catch (ScriptException e) {
+            return SneakyThrower.sneakyThrow(new SQLException(e.getMessage(), e));
+        }
     }
 
 
     @Override
     public boolean test(T record) {
+        if (compiled != null) {
+            return ExpressionCompiler.isTrue(evalCompiled(record));
+        }
         return ofNullable((Boolean)eval(record, fixedExpr)).orElse(false);
     }
 
     @Override
     public Object apply(T record) {
-        return eval(record, expr);
+        return compiled != null ? evalCompiled(record) : eval(record, expr);
+    }
+
+    private Object evalCompiled(T record) {
+        try {
+            return eval(compiled, record);
+        } catch (RuntimeException e) {
+            return SneakyThrower.sneakyThrow(e.getCause() instanceof SQLException ? e.getCause() : new SQLException(e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Evaluates the compiled expression for given record. By default values of its variables are found in the map
+     * returned by {@link #toMap(Object)}; subclasses can read only the fields the expression refers to (see {@link CompiledExpression#getVariables()})
+     * without creating the map.
+     * @param compiled the compiled expression
+     * @param record the record
+     * @return value of the expression
+     */
+    protected Object eval(CompiledExpression compiled, T record) {
+        Map<String, Object> fields = ofNullable(toMap(record)).orElse(Collections.emptyMap());
+        List<String> names = compiled.getVariables();
+        Object[] slots = new Object[names.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = variable(fields, names.get(i));
+        }
+        return compiled.eval(slots);
+    }
+
+    /**
+     * Compiles the expression specialized for types of columns that become known only when records are available
+     * (e.g. from metadata of result set).
+     * @param columnTypes SQL types of columns by name
+     * @return the specialized expression or the expression compiled without types if it cannot be compiled
+     */
+    protected CompiledExpression compile(Map<String, Integer> columnTypes) {
+        return columnTypes.isEmpty() ? compiled : compiler.compile(expr, columnTypes).orElse(compiled);
+    }
+
+    /**
+     * Finds value of the variable among the fields of the record and the initial bindings (e.g. parameters of prepared statement).
+     * Names are case insensitive like in the script engine.
+     */
+    private Object variable(Map<String, Object> fields, String name) {
+        Object value = fields.get(name);
+        if (value != null || fields.containsKey(name)) {
+            return value;
+        }
+        value = initialBindings.get(name);
+        if (value != null) {
+            return value;
+        }
+        for (Entry<String, Object> e : fields.entrySet()) {
+            if (name.equalsIgnoreCase(e.getKey())) {
+                return e.getValue();
+            }
+        }
+        return null;
     }
 
     private Object eval(T record, String expr) {
         try {
             Bindings bindings = engine.getBindings(ScriptContext.ENGINE_SCOPE);
             Map<String, Object> fields = toMap(record);
-            Map<String, Object> ctx = new HashMap<>();
             int replacementCount = 0;
             for (Entry<String, Object> e : fields.entrySet()) {
                 String key = e.getKey();
                 String trimmedKey = key.trim();
                 String varName = key;
-                if (!trimmedKey.matches("[a-zA-Z0-9_]+") && expr.contains(trimmedKey)) { //TODO use better pattern instead of contains to be sure that subset of expression is not replaced by mistake
+                if (!SIMPLE_NAME.matcher(trimmedKey).matches() && expr.contains(trimmedKey)) { //TODO use better pattern instead of contains to be sure that subset of expression is not replaced by mistake
                     String newVarName = "var" + replacementCount;
                     expr = expr.replace(varName, newVarName);
                     varName = newVarName;
                     replacementCount++;
                 }
-                ctx.put(varName, e.getValue());
+                bindings.put(varName, e.getValue());
             }
-            bindings.putAll(ctx);
             return engine.eval(expr);
         } catch (Exception e) {
             return SneakyThrower.sneakyThrow(new SQLException(e.getMessage(), e));
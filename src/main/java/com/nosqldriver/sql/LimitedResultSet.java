@@ -0,0 +1,52 @@
+package com.nosqldriver.sql;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Implements {@code OFFSET} and {@code LIMIT}. Once the last row allowed by the limit was returned the wrapped result set
+ * is closed, so that the scan or query that still produces records is stopped instead of being read till its end.
+ */
+public class LimitedResultSet extends FilteredResultSet {
+    private final OffsetLimit offsetLimit;
+    private volatile boolean closed = false;
+
+    public LimitedResultSet(ResultSet rs, List<DataColumn> columns, long offset, long limit, boolean indexByName) {
+        this(rs, columns, new OffsetLimit(offset, limit), indexByName);
+    }
+
+    private LimitedResultSet(ResultSet rs, List<DataColumn> columns, OffsetLimit offsetLimit, boolean indexByName) {
+        super(rs, columns, offsetLimit, indexByName);
+        this.offsetLimit = offsetLimit;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (closed) {
+            throw new SQLException("Result set is closed");
+        }
+        if (offsetLimit.isExhausted()) {
+            release();
+            return false;
+        }
+        return super.next();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        closed = true;
+        release();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void release() throws SQLException {
+        if (!super.isClosed()) {
+            super.close();
+        }
+    }
+}
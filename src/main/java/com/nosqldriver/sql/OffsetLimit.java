@@ -18,4 +18,11 @@ public class OffsetLimit implements Predicate<ResultSet> {
         current++;
         return current > offset && current - offset <= limit;
     }
+
+    /**
+     * @return true if all rows allowed by the limit were already accepted, so the following rows are not needed
+     */
+    public boolean isExhausted() {
+        return current - offset >= limit;
+    }
 }
@@ -1,12 +1,18 @@
 package com.nosqldriver.sql;
 
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class PreparedStatementUtil {
     public static final char PS_PLACEHOLDER_PREFIX = '_';
+    private static final Pattern pkLookupPattern = Pattern.compile(
+            "(?is)^\\s*select\\s+(?:(?!\\b(?:select|join|union)\\b).)+?\\swhere\\s+(?-i:PK)\\s*=\\s*(\\d{1,18}|'[^']*')\\s*(?:limit\\s+\\d+\\s*)?$");
 
 
     public static Entry<String, Integer> parseParameters(String sql, int offset) {
@@ -27,6 +33,29 @@ public class PreparedStatementUtil {
         return Collections.singletonMap(fixedIndexSqlBuf.toString(), count).entrySet().iterator().next();
     }
 
+    /**
+     * Converts query that retrieves record by literal primary key (e.g. {@code select * from people where PK=1}) to
+     * the query with placeholder ({@code select * from people where PK=?}) and the value of the key. Such queries are
+     * often sent by applications that do not use prepared statements. Executing them as prepared statements allows
+     * to reuse the parsed query that is cached by its SQL text.
+     * Queries of other forms are not changed because literals and parameters are not always processed the same way.
+     * @param sql the query
+     * @return the query with placeholder and the parameter value or empty if the query cannot be parameterized
+     */
+    public static Optional<Entry<String, Object[]>> parameterizePrimaryKey(String sql) {
+        if (sql.indexOf('?') >= 0) {
+            return Optional.empty();
+        }
+        Matcher m = pkLookupPattern.matcher(sql);
+        if (!m.find()) {
+            return Optional.empty();
+        }
+        String literal = m.group(1);
+        Object value = literal.startsWith("'") ? literal.substring(1, literal.length() - 1) : Long.parseLong(literal);
+        String template = sql.substring(0, m.start(1)) + "?" + sql.substring(m.end(1));
+        return Optional.of(new SimpleImmutableEntry<>(template, new Object[] {value}));
+    }
+
     public static Iterable<String> splitQueries(String sql) {
         Collection<String> queries = new ArrayList<>();
         StringBuilder currentQuery = new StringBuilder();
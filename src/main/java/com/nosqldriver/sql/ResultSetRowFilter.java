@@ -5,11 +5,15 @@ import com.nosqldriver.util.SneakyThrower;
 
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class ResultSetRowFilter extends ExpressionEvaluator<ResultSet> {
+    private volatile RowBinding binding;
+
     public ResultSetRowFilter(String expr, FunctionManager functionManager, DriverPolicy driverPolicy) {
         super(expr, Collections.emptyMap(), functionManager, driverPolicy);
     }
@@ -21,14 +25,75 @@ public class ResultSetRowFilter extends ExpressionEvaluator<ResultSet> {
             ResultSetMetaData md = rs.getMetaData();
             int n = md.getColumnCount();
             for (int i = 1; i <= n; i++) {
-                String name = md.getColumnName(i);
-                ctx.put(name, rs.getObject(i));
+                Object value = rs.getObject(i);
+                ctx.put(md.getColumnName(i), value);
                 String label = md.getColumnLabel(i);
                 if (label != null) {
-                    ctx.put(label, rs.getObject(i));
+                    ctx.put(label, value);
                 }
             }
             return ctx;
         });
     }
+
+    /**
+     * Reads only the columns the compiled expression refers to by their indexes resolved once per result set,
+     * so that neither metadata nor map of all fields is created and no name is looked up for each row.
+     * The expression is specialized for types of the columns of the result set.
+     */
+    @Override
+    protected Object eval(CompiledExpression compiled, ResultSet rs) {
+        RowBinding current = binding;
+        if (current == null || current.rs != rs) {
+            current = SneakyThrower.get(() -> new RowBinding(rs));
+            binding = current;
+        }
+        try {
+            return current.eval();
+        } catch (SQLException e) {
+            return SneakyThrower.sneakyThrow(e);
+        }
+    }
+
+    /**
+     * Maps slots of variables referenced by expression to indexes of columns of the result set. The array of slots is reused
+     * for every row of the result set.
+     */
+    private class RowBinding {
+        private final ResultSet rs;
+        private final CompiledExpression expression;
+        private final int[] indexes;
+        private final Object[] slots;
+
+        private RowBinding(ResultSet rs) throws SQLException {
+            this.rs = rs;
+            ResultSetMetaData md = rs.getMetaData();
+            expression = compile(ExpressionCompiler.columnTypes(md));
+            List<String> variables = expression.getVariables();
+            indexes = new int[variables.size()];
+            slots = new Object[variables.size()];
+            int n = md.getColumnCount();
+            for (int v = 0; v < indexes.length; v++) {
+                String variable = variables.get(v);
+                for (int i = 1; i <= n && indexes[v] == 0; i++) {
+                    if (variable.equals(md.getColumnName(i)) || variable.equals(md.getColumnLabel(i))) {
+                        indexes[v] = i;
+                    }
+                }
+                // names are case insensitive like in the script engine
+                for (int i = 1; i <= n && indexes[v] == 0; i++) {
+                    if (variable.equalsIgnoreCase(md.getColumnName(i)) || variable.equalsIgnoreCase(md.getColumnLabel(i))) {
+                        indexes[v] = i;
+                    }
+                }
+            }
+        }
+
+        private Object eval() throws SQLException {
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = indexes[i] == 0 ? null : rs.getObject(indexes[i]);
+            }
+            return expression.eval(slots);
+        }
+    }
 }
@@ -9,7 +9,10 @@ import com.nosqldriver.util.ScriptEngineWrapper;
 import javax.script.Bindings;
 import javax.script.ScriptEngine;
 import javax.script.SimpleBindings;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -30,9 +33,14 @@ import static javax.script.ScriptEngine.LANGUAGE;
 import static javax.script.ScriptEngine.LANGUAGE_VERSION;
 import static javax.script.ScriptEngine.NAME;
 
+/**
+ * Provides script engine used to evaluate expressions that cannot be compiled. Each thread has its own engine, so that
+ * no synchronization is needed: the engine is created once per thread and reused by all evaluators created by the thread.
+ * Variables bound by previous user of the engine are removed; functions are bound incrementally, i.e. only functions
+ * that were not bound yet or were changed since the last use are put to the engine.
+ */
 public class ScriptEngineFactory {
-    private static final Object lock = new Object();
-    private static final ThreadLocal<ScriptEngine> threadEngine = new ThreadLocal<>();
+    private static final ThreadLocal<EngineHolder> threadEngine = new ThreadLocal<>();
     private static final Map<Script, Supplier<ScriptEngineWrapper>> scriptEngineFactories = new LinkedHashMap<>();
     static {
         scriptEngineFactories.put(Script.js, JavaScriptEngineWrapper::new);
@@ -45,35 +53,26 @@ public class ScriptEngineFactory {
     }
 
     private ScriptEngineFactory(Map<String, Object> bindings, FunctionManager functionManager, DriverPolicy driverPolicy) {
-        synchronized (lock) {
-            ScriptEngine tmp = threadEngine.get();
-            final ScriptEngine engine;
-            if (tmp == null) {
-                engine = driverPolicy.getScript() == null ? scriptEngineFactories.values().stream().map(Supplier::get).filter(ScriptEngineWrapper::isValid).findFirst()
-                        .orElseThrow(() -> new IllegalStateException("Cannot initialize scripting engine"))
-                        :
-                        scriptEngineFactories.get(driverPolicy.getScript()).get();
-                setBindings(engine, GLOBAL_SCOPE);
-                setBindings(engine, ENGINE_SCOPE);
-                threadEngine.set(engine);
-            } else {
-                engine = tmp;
-                Bindings b = engine.getBindings(ENGINE_SCOPE);
-                Map<String, Object> internal = b.entrySet().stream().filter(e -> internalScriptConstants.contains(e.getKey())).collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-                b.clear();
-                b.putAll(internal);
-            }
-            if (functionManager != null) {
-                functionManager.getFunctionNames().forEach(name -> engine.put(name, functionManager.getFunction(name)));
-            }
-            engine.getBindings(ENGINE_SCOPE).putAll(bindings);
+        EngineHolder holder = threadEngine.get();
+        if (holder == null) {
+            ScriptEngine engine = driverPolicy.getScript() == null ? scriptEngineFactories.values().stream().map(Supplier::get).filter(ScriptEngineWrapper::isValid).findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Cannot initialize scripting engine"))
+                    :
+                    scriptEngineFactories.get(driverPolicy.getScript()).get();
+            setBindings(engine, GLOBAL_SCOPE);
+            setBindings(engine, ENGINE_SCOPE);
+            holder = new EngineHolder(engine);
+            threadEngine.set(holder);
+        } else {
+            holder.removeVariables();
         }
+        holder.bindFunctions(functionManager);
+        holder.engine.getBindings(ENGINE_SCOPE).putAll(bindings);
     }
 
     public ScriptEngine getEngine() {
-        synchronized (lock) {
-            return threadEngine.get();
-        }
+        EngineHolder holder = threadEngine.get();
+        return holder == null ? null : holder.engine;
     }
 
     private void setBindings(ScriptEngine engine, int scope) {
@@ -86,8 +85,65 @@ public class ScriptEngineFactory {
 
 
     public static void cleanup() {
-        synchronized (lock) {
-            threadEngine.remove();
+        threadEngine.remove();
+    }
+
+    /**
+     * Script engine of the thread and functions bound to it.
+     */
+    private static class EngineHolder {
+        private final ScriptEngine engine;
+        /**
+         * Function by name as it was given by {@link FunctionManager}.
+         */
+        private final Map<String, Object> functions = new HashMap<>();
+        /**
+         * Function by name as it is stored in the bindings; the engine may wrap the function when it is bound.
+         */
+        private final Map<String, Object> boundFunctions = new HashMap<>();
+
+        private EngineHolder(ScriptEngine engine) {
+            this.engine = engine;
+        }
+
+        /**
+         * Removes everything except internal constants and functions from the bindings. Function overridden by variable of the same
+         * name is removed too, so that it is bound again.
+         */
+        private void removeVariables() {
+            Bindings b = engine.getBindings(ENGINE_SCOPE);
+            Collection<String> names = new ArrayList<>();
+            for (Map.Entry<String, Object> e : b.entrySet()) {
+                String name = e.getKey();
+                if (!internalScriptConstants.contains(name) && (!boundFunctions.containsKey(name) || boundFunctions.get(name) != e.getValue())) {
+                    names.add(name);
+                }
+            }
+            for (String name : names) {
+                b.remove(name);
+                functions.remove(name);
+                boundFunctions.remove(name);
+            }
+        }
+
+        private void bindFunctions(FunctionManager functionManager) {
+            Collection<String> names = functionManager == null ? Collections.emptySet() : functionManager.getFunctionNames();
+            Bindings b = engine.getBindings(ENGINE_SCOPE);
+            for (String name : new ArrayList<>(functions.keySet())) {
+                if (!names.contains(name)) {
+                    b.remove(name);
+                    functions.remove(name);
+                    boundFunctions.remove(name);
+                }
+            }
+            for (String name : names) {
+                Object function = functionManager.getFunction(name);
+                if (!functions.containsKey(name) || functions.get(name) != function || b.get(name) != boundFunctions.get(name)) {
+                    engine.put(name, function);
+                    functions.put(name, function);
+                    boundFunctions.put(name, b.get(name));
+                }
+            }
         }
     }
 }
@@ -4,6 +4,7 @@ import com.nosqldriver.util.CompositeComparator;
 import com.nosqldriver.util.ExpressionAwareMapComparator;
 import com.nosqldriver.util.FunctionManager;
 import com.nosqldriver.util.PagedCollection;
+import com.nosqldriver.util.SneakyThrower;
 
 import java.sql.ResultSet;
 import java.util.List;
@@ -20,7 +21,8 @@ public class SortedResultSet extends BufferedResultSet {
 
     public SortedResultSet(ResultSet rs, List<OrderItem> orderItems, long limit, FunctionManager functionManager, DriverPolicy driverPolicy) {
         //limit is long here because limit and offset returned by SQL parser are long. However fetchSize of JDBC is int, so we have to cast limit to int.
-        super(rs, new PagedCollection<>(new TreeSet<>(new CompositeComparator<>(new ExpressionAwareMapComparator(orderItems, functionManager, driverPolicy), comparingInt(System::identityHashCode))), limit, false, TreeSet::pollLast), safeCast(limit));
+        //expressions used for ordering are specialized for types of columns of the sorted result set; its metadata is available when the first rows are compared.
+        super(rs, new PagedCollection<>(new TreeSet<>(new CompositeComparator<>(new ExpressionAwareMapComparator(orderItems, functionManager, driverPolicy, () -> SneakyThrower.get(() -> ExpressionCompiler.columnTypes(rs.getMetaData()))), comparingInt(System::identityHashCode))), limit, false, TreeSet::pollLast), safeCast(limit));
         this.driverPolicy = driverPolicy;
     }
 
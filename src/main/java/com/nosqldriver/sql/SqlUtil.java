@@ -29,6 +29,31 @@ public class SqlUtil {
         return sql;
     }
 
+    /**
+     * Transforms pattern of {@code LIKE} to regular expression: {@code %} matches any sequence of characters,
+     * {@code _} matches any single character, all other characters match themselves. The result is both Java and
+     * POSIX regular expression.
+     * @param pattern the pattern of {@code LIKE}
+     * @param anchored whether the expression is wrapped with {@code ^} and {@code $}; required when it is used for search
+     *                 (e.g. by the server) rather than for matching of the whole string
+     * @return the regular expression
+     */
+    public static String likeToRegex(String pattern, boolean anchored) {
+        StringBuilder regex = new StringBuilder(anchored ? "^" : "");
+        for (char c : pattern.toCharArray()) {
+            switch (c) {
+                case '%': regex.append(".*"); break;
+                case '_': regex.append('.'); break;
+                default:
+                    if (".[]()*+?{}|^$\\".indexOf(c) >= 0) {
+                        regex.append('\\');
+                    }
+                    regex.append(c);
+            }
+        }
+        return anchored ? regex.append('$').toString() : regex.toString();
+    }
+
     private static String wrap(String s) {
         return s.startsWith("\"") && s.endsWith("\"") ? s : "\"" + s + "\"";
     }
@@ -2,8 +2,18 @@ package com.nosqldriver.sql;
 
 public class StatementEvent {
     public StatementEvent(StatementType type, String sql) {
+        this(type, sql, null);
+    }
+
+    /**
+     * @param type the statement type
+     * @param sql the statement
+     * @param set the set (table) the statement was applied to or {@code null} if unknown
+     */
+    public StatementEvent(StatementType type, String sql, String set) {
         this.type = type;
         this.sql = sql;
+        this.set = set;
     }
 
     public enum StatementType {
@@ -12,6 +22,7 @@ public class StatementEvent {
 
     private final StatementType type;
     private final String sql;
+    private final String set;
 
 
     public StatementType getType() {
@@ -21,4 +32,8 @@ public class StatementEvent {
     public String getSql() {
         return sql;
     }
+
+    public String getSet() {
+        return set;
+    }
 }
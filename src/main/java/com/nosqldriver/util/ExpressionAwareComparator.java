@@ -4,12 +4,19 @@ import com.nosqldriver.sql.DriverPolicy;
 import com.nosqldriver.sql.OrderItem;
 import com.nosqldriver.sql.OrderItemsComparator;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class ExpressionAwareComparator<T> extends OrderItemsComparator<T> {
     public ExpressionAwareComparator(List<OrderItem> orderItems, BiFunction<T, String, Object> propGetter, Function<T, Iterable<String>> nameLister, FunctionManager functionManager, DriverPolicy driverPolicy) {
-        super(orderItems, new ExpressionAwarePropertyGetter<>(propGetter, nameLister, functionManager, driverPolicy));
+        this(orderItems, propGetter, nameLister, functionManager, driverPolicy, Collections::emptyMap);
+    }
+
+    public ExpressionAwareComparator(List<OrderItem> orderItems, BiFunction<T, String, Object> propGetter, Function<T, Iterable<String>> nameLister, FunctionManager functionManager, DriverPolicy driverPolicy, Supplier<Map<String, Integer>> columnTypes) {
+        super(orderItems, new ExpressionAwarePropertyGetter<>(propGetter, nameLister, functionManager, driverPolicy, columnTypes));
     }
 }
@@ -3,11 +3,17 @@ package com.nosqldriver.util;
 import com.nosqldriver.sql.DriverPolicy;
 import com.nosqldriver.sql.OrderItem;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 public class ExpressionAwareMapComparator extends ExpressionAwareComparator<Map<String, Object>> {
     public ExpressionAwareMapComparator(List<OrderItem> orderItems, FunctionManager functionManager, DriverPolicy driverPolicy) {
-        super(orderItems, Map::get, Map::keySet, functionManager, driverPolicy);
+        this(orderItems, functionManager, driverPolicy, Collections::emptyMap);
+    }
+
+    public ExpressionAwareMapComparator(List<OrderItem> orderItems, FunctionManager functionManager, DriverPolicy driverPolicy, Supplier<Map<String, Integer>> columnTypes) {
+        super(orderItems, Map::get, Map::keySet, functionManager, driverPolicy, columnTypes);
     }
 }
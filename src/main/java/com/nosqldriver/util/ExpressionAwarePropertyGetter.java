@@ -7,8 +7,10 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 public class ExpressionAwarePropertyGetter<T> implements BiFunction<T, String, Object> {
@@ -17,12 +19,25 @@ public class ExpressionAwarePropertyGetter<T> implements BiFunction<T, String, O
     private final Function<T, Iterable<String>> namesLister;
     private final FunctionManager functionManager;
     private final DriverPolicy driverPolicy;
+    private final Supplier<Map<String, Integer>> columnTypes;
+    /**
+     * Evaluators of expressions by expression text; the getter is applied to every compared row, so each expression is compiled only once.
+     */
+    private final Map<String, Function<T, Object>> evaluators = new ConcurrentHashMap<>();
 
     public ExpressionAwarePropertyGetter(BiFunction<T, String, Object> valueGetter, Function<T, Iterable<String>> namesLister, FunctionManager functionManager, DriverPolicy driverPolicy) {
+        this(valueGetter, namesLister, functionManager, driverPolicy, Collections::emptyMap);
+    }
+
+    /**
+     * @param columnTypes supplies SQL types of properties by name used to specialize compiled expressions; called when the first expression is compiled
+     */
+    public ExpressionAwarePropertyGetter(BiFunction<T, String, Object> valueGetter, Function<T, Iterable<String>> namesLister, FunctionManager functionManager, DriverPolicy driverPolicy, Supplier<Map<String, Integer>> columnTypes) {
         this.valueGetter = valueGetter;
         this.namesLister = namesLister;
         this.functionManager = functionManager;
         this.driverPolicy = driverPolicy;
+        this.columnTypes = columnTypes;
     }
 
 
@@ -30,26 +45,29 @@ public class ExpressionAwarePropertyGetter<T> implements BiFunction<T, String, O
     public Object apply(T object, String name) {
         Object value = valueGetter.apply(object, name);
         if (value == null && isExpression(name) && find(namesLister.apply(object), name) == null) {
-            Function<T, Object> evaluator = new ExpressionEvaluator<T>(name, Collections.emptyMap(), functionManager, driverPolicy) {
-                @SuppressWarnings("unchecked")
-                @Override
-                protected Map<String, Object> toMap(T record) {
-                    if (record instanceof Map) {
-                        return (Map<String, Object>)record;
-                    }
-                    Map<String, Object> map = new LinkedHashMap<>();
-                    for (String name : namesLister.apply(record)) {
-                        Object value = valueGetter.apply(record, name);
-                        map.put(name, value);
-                    }
-                    return map;
-                }
-            };
-            return evaluator.apply(object);
+            return evaluators.computeIfAbsent(name, this::evaluator).apply(object);
         }
         return value;
     }
 
+    private Function<T, Object> evaluator(String expr) {
+        return new ExpressionEvaluator<T>(expr, Collections.emptyMap(), functionManager, driverPolicy, columnTypes.get()) {
+            @SuppressWarnings("unchecked")
+            @Override
+            protected Map<String, Object> toMap(T record) {
+                if (record instanceof Map) {
+                    return (Map<String, Object>)record;
+                }
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (String name : namesLister.apply(record)) {
+                    Object value = valueGetter.apply(record, name);
+                    map.put(name, value);
+                }
+                return map;
+            }
+        };
+    }
+
 
     private String find(Iterable<String> names, String name) {
         for (String n : names) {
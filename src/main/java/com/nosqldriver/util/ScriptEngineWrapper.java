@@ -1,6 +1,8 @@
 package com.nosqldriver.util;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
@@ -8,16 +10,23 @@ import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 import java.io.IOException;
 import java.io.Reader;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
+import static java.util.Collections.synchronizedMap;
+
 public class ScriptEngineWrapper implements ScriptEngine {
     public static final String EMPTY_COLUMN_PLACEHOLDER = "__EMPTY_COLUMN__";
+    private static final int SCRIPT_CACHE_SIZE = 256;
     private final ScriptEngine engine;
+    private final Map<String, CompiledScript> compiledScripts = lruCache();
+    private final Map<String, Collection<String>> quotedNames = lruCache();
 
     public ScriptEngineWrapper(String engineName) {
         this(new ScriptEngineManager().getEngineByName(engineName));
@@ -29,32 +38,53 @@ public class ScriptEngineWrapper implements ScriptEngine {
 
     @Override
     public Object eval(String script, ScriptContext context) throws ScriptException {
-        return unwrapResult(engine.eval(fixScript(script), context));
+        return eval(fixScript(script), compiled -> compiled.eval(context), fixed -> engine.eval(fixed, context));
     }
 
     @Override
     public Object eval(Reader reader, ScriptContext context) throws ScriptException {
-        return unwrapResult(engine.eval(fixScript(read(reader)), context));
+        return eval(read(reader), context);
     }
 
     @Override
     public Object eval(String script) throws ScriptException {
-        return unwrapResult(engine.eval(fixScript(script)));
+        return eval(fixScript(script), CompiledScript::eval, engine::eval);
     }
 
     @Override
     public Object eval(Reader reader) throws ScriptException {
-        return unwrapResult(engine.eval(fixScript(read(reader))));
+        return eval(read(reader));
     }
 
     @Override
     public Object eval(String script, Bindings n) throws ScriptException {
-        return unwrapResult(engine.eval(fixScript(script), n));
+        return eval(fixScript(script), compiled -> compiled.eval(n), fixed -> engine.eval(fixed, n));
     }
 
     @Override
     public Object eval(Reader reader, Bindings n) throws ScriptException {
-        return unwrapResult(engine.eval(fixScript(read(reader)), n));
+        return eval(read(reader), n);
+    }
+
+    /**
+     * Evaluates the script using its compiled form if the engine supports compilation and interprets it otherwise.
+     * @param script the script already fixed by {@link #fixScript(String)}
+     */
+    private Object eval(String script, ThrowingFunction<CompiledScript, Object, ScriptException> compiledEval, ThrowingFunction<String, Object, ScriptException> interpretedEval) throws ScriptException {
+        CompiledScript compiled = compile(script);
+        return unwrapResult(compiled != null ? compiledEval.apply(compiled) : interpretedEval.apply(script));
+    }
+
+    private CompiledScript compile(String script) throws ScriptException {
+        if (!(engine instanceof Compilable)) {
+            return null;
+        }
+        CompiledScript compiled = compiledScripts.get(script);
+        if (compiled == null) {
+            compiled = ((Compilable) engine).compile(script);
+            compiledScripts.put(script, compiled);
+        }
+        return compiled;
     }
 
     @Override
@@ -102,11 +132,45 @@ public class ScriptEngineWrapper implements ScriptEngine {
         if (bindings == null) {
             return script;
         }
-        AtomicReference<String> fixedScript = new AtomicReference<>(script);
-        bindings.entrySet().stream().filter(e -> !isFunction(e.getValue())).map(Map.Entry::getKey)
-                .forEach(name -> fixedScript.getAndUpdate(s -> s == null ? null : s.replace("\"" + name + "\"", name)));
-
-        return fixedScript.get().replace("\"\"", EMPTY_COLUMN_PLACEHOLDER);
+        String fixedScript = script;
+        for (String name : quotedNames.computeIfAbsent(script, ScriptEngineWrapper::findQuotedNames)) {
+            if (bindings.containsKey(name) && !isFunction(bindings.get(name))) {
+                fixedScript = fixedScript.replace("\"" + name + "\"", name);
+            }
+        }
+        return fixedScript.replace("\"\"", EMPTY_COLUMN_PLACEHOLDER);
+    }
+
+    /**
+     * @return all strings enclosed between two double quotes; only they can be names of bound variables that should be unquoted
+     */
+    private static Collection<String> findQuotedNames(String script) {
+        Collection<String> names = new LinkedHashSet<>();
+        int start = script.indexOf('"');
+        while (start >= 0) {
+            int end = script.indexOf('"', start + 1);
+            if (end < 0) {
+                break;
+            }
+            if (end > start + 1) {
+                names.add(script.substring(start + 1, end));
+            }
+            start = end;
+        }
+        return names;
+    }
+
+    /**
+     * Scripts are evaluated for each row, so that they are compiled once and cached. The number of cached scripts is bounded:
+     * the least recently used ones are evicted.
+     */
+    private static <V> Map<String, V> lruCache() {
+        return synchronizedMap(new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > SCRIPT_CACHE_SIZE;
+            }
+        });
     }
 
     private boolean isFunction(Object obj) {
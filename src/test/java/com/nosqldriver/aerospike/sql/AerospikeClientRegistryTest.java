@@ -0,0 +1,122 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.Host;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.policy.ClientPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static com.nosqldriver.util.SneakyThrower.sneakyThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class AerospikeClientRegistryTest {
+    private final Host[] hosts = new Host[] {new Host("localhost", 3000)};
+
+    @Test
+    void sameKeySharesClient() {
+        AerospikeClientRegistry registry = new AerospikeClientRegistry();
+        IAerospikeClient client = mock(IAerospikeClient.class);
+        String key = AerospikeClientRegistry.key(hosts, new ClientPolicy());
+
+        assertSame(client, registry.acquire(key, () -> client));
+        assertSame(client, registry.acquire(key, () -> mock(IAerospikeClient.class)));
+        assertEquals(1, registry.size());
+
+        registry.release(key);
+        verify(client, never()).close();
+        assertEquals(1, registry.size());
+
+        registry.release(key);
+        verify(client, times(1)).close();
+        assertEquals(0, registry.size());
+
+        registry.release(key); // releasing of already closed client is ignored
+        verify(client, times(1)).close();
+    }
+
+    @Test
+    void clientIsRecreatedAfterRelease() {
+        AerospikeClientRegistry registry = new AerospikeClientRegistry();
+        String key = AerospikeClientRegistry.key(hosts, new ClientPolicy());
+        IAerospikeClient client1 = registry.acquire(key, () -> mock(IAerospikeClient.class));
+        registry.release(key);
+        IAerospikeClient client2 = registry.acquire(key, () -> mock(IAerospikeClient.class));
+        assertNotSame(client1, client2);
+    }
+
+    @Test
+    void differentKeysUseDifferentClients() {
+        AerospikeClientRegistry registry = new AerospikeClientRegistry();
+        ClientPolicy policy = new ClientPolicy();
+        policy.user = "somebody";
+        String key1 = AerospikeClientRegistry.key(hosts, new ClientPolicy());
+        String key2 = AerospikeClientRegistry.key(hosts, policy);
+        assertNotEquals(key1, key2);
+
+        IAerospikeClient client1 = registry.acquire(key1, () -> mock(IAerospikeClient.class));
+        IAerospikeClient client2 = registry.acquire(key2, () -> mock(IAerospikeClient.class));
+        assertNotSame(client1, client2);
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    void key() {
+        ClientPolicy policy1 = new ClientPolicy();
+        policy1.timeout = 1234;
+        ClientPolicy policy2 = new ClientPolicy();
+        policy2.timeout = 1234;
+
+        assertEquals(AerospikeClientRegistry.key(hosts, policy1), AerospikeClientRegistry.key(hosts, policy2));
+        assertEquals(
+                AerospikeClientRegistry.key(new Host[] {new Host("one", 3000), new Host("two", 3000)}, policy1),
+                AerospikeClientRegistry.key(new Host[] {new Host("two", 3000), new Host("one", 3000)}, policy1));
+        assertNotEquals(AerospikeClientRegistry.key(hosts, policy1), AerospikeClientRegistry.key(hosts, new ClientPolicy()));
+        assertNotEquals(AerospikeClientRegistry.key(hosts, policy1), AerospikeClientRegistry.key(new Host[] {new Host("localhost", 3100)}, policy1));
+    }
+
+    @Test
+    void keyDependsOnEventLoopsAndScanThreads() {
+        ClientPolicy policy = new ClientPolicy();
+        assertEquals(AerospikeClientRegistry.key(hosts, policy), AerospikeClientRegistry.key(hosts, policy, 0, 0));
+        assertEquals(AerospikeClientRegistry.key(hosts, policy, 2, 4), AerospikeClientRegistry.key(hosts, policy, 2, 4));
+        assertNotEquals(AerospikeClientRegistry.key(hosts, policy, 2, 4), AerospikeClientRegistry.key(hosts, policy, 2, 0));
+        assertNotEquals(AerospikeClientRegistry.key(hosts, policy, 2, 4), AerospikeClientRegistry.key(hosts, policy, 0, 4));
+    }
+
+    @Test
+    void attachmentIsSharedAndDiscardedWithClient() {
+        AerospikeClientRegistry registry = new AerospikeClientRegistry();
+        String key = AerospikeClientRegistry.key(hosts, new ClientPolicy());
+        assertThrows(IllegalStateException.class, () -> registry.attachment(key, "metadata", Object::new));
+
+        registry.acquire(key, () -> mock(IAerospikeClient.class));
+        registry.acquire(key, () -> mock(IAerospikeClient.class));
+        Object attachment = registry.attachment(key, "metadata", Object::new);
+        assertSame(attachment, registry.attachment(key, "metadata", Object::new));
+        assertNotSame(attachment, registry.attachment(key, "other", Object::new));
+
+        registry.release(key);
+        assertSame(attachment, registry.attachment(key, "metadata", Object::new));
+        registry.release(key);
+
+        registry.acquire(key, () -> mock(IAerospikeClient.class));
+        assertNotSame(attachment, registry.attachment(key, "metadata", Object::new));
+    }
+
+    @Test
+    void failedCreationIsNotRegistered() {
+        AerospikeClientRegistry registry = new AerospikeClientRegistry();
+        String key = AerospikeClientRegistry.key(hosts, new ClientPolicy());
+        assertThrows(SQLException.class, () -> registry.acquire(key, () -> sneakyThrow(new SQLException("Cannot connect"))));
+        assertEquals(0, registry.size());
+    }
+}
@@ -0,0 +1,66 @@
+package com.nosqldriver.aerospike.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static com.nosqldriver.aerospike.sql.TestDataUtils.aerospikeTestUrl;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AerospikeDataSourceTest {
+    @Test
+    void pooledConnectionIsReused() throws SQLException {
+        try (AerospikeDataSource dataSource = new AerospikeDataSource()) {
+            dataSource.setUrl(aerospikeTestUrl);
+            Connection conn1 = dataSource.getConnection();
+            assertTrue(conn1.isValid(1));
+            PreparedStatement ps1 = conn1.prepareStatement("select * from people where id=?");
+            assertTrue(ps1.isPoolable());
+            assertSame(conn1, ps1.getConnection());
+            ps1.close();
+            conn1.close();
+            assertEquals(1, dataSource.getIdleCount());
+
+            Connection conn2 = dataSource.getConnection();
+            assertEquals(0, dataSource.getIdleCount());
+            PreparedStatement ps2 = conn2.prepareStatement("select * from people where id=?");
+            assertSame(ps1, ps2);
+            assertSame(conn2, ps2.getConnection());
+            conn2.close();
+        }
+    }
+
+    @Test
+    void closedDataSource() throws SQLException {
+        AerospikeDataSource dataSource = new AerospikeDataSource();
+        dataSource.setUrl(aerospikeTestUrl);
+        dataSource.getConnection().close();
+        assertEquals(1, dataSource.getIdleCount());
+        dataSource.close();
+        assertEquals(0, dataSource.getIdleCount());
+        assertThrows(SQLException.class, dataSource::getConnection);
+    }
+
+    @Test
+    void loginTimeoutIsConnectTimeout() throws SQLException {
+        AerospikeConnectionPoolDataSource factory = new AerospikeConnectionPoolDataSource();
+        assertNull(factory.connectionProperties(new Properties()).getProperty("timeout"));
+        factory.setLoginTimeout(3);
+        assertEquals("3000", factory.connectionProperties(new Properties()).getProperty("timeout"));
+        Properties props = new Properties();
+        props.setProperty("timeout", "500");
+        assertEquals("500", factory.connectionProperties(props).getProperty("timeout"));
+    }
+
+    @Test
+    void notConfigured() {
+        assertThrows(SQLException.class, () -> new AerospikeDataSource().getConnection());
+    }
+}
@@ -9,6 +9,7 @@ import java.sql.RowIdLifetime;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map;
 
 import static com.nosqldriver.aerospike.sql.TestDataUtils.aerospikeTestUrl;
 import static com.nosqldriver.aerospike.sql.TestDataUtils.getClient;
@@ -19,6 +20,8 @@ import static java.sql.Connection.TRANSACTION_READ_UNCOMMITTED;
 import static java.sql.DatabaseMetaData.sqlStateSQL;
 import static java.sql.ResultSet.CLOSE_CURSORS_AT_COMMIT;
 import static java.sql.ResultSet.HOLD_CURSORS_OVER_COMMIT;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonMap;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -266,6 +269,17 @@ class AerospikeDatabaseMetadataTest {
         }
     }
 
+    @Test
+    void containsSet() {
+        Collection<Map<String, String>> nodesInfo = asList(
+                singletonMap("sets", "ns=test:set=people:objects=4:tombstones=0;ns=test:set=instruments:objects=3:tombstones=0"),
+                singletonMap("namespaces", "test"));
+        assertTrue(AerospikeDatabaseMetadata.containsSet(nodesInfo, "people"));
+        assertTrue(AerospikeDatabaseMetadata.containsSet(nodesInfo, "instruments"));
+        assertFalse(AerospikeDatabaseMetadata.containsSet(nodesInfo, "peop"));
+        assertFalse(AerospikeDatabaseMetadata.containsSet(nodesInfo, "guitars"));
+    }
+
 
     private void assertResultSet(ResultSet rs, Boolean hasData) throws SQLException {
         assertNotNull(rs);
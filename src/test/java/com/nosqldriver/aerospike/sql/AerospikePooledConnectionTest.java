@@ -0,0 +1,172 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.InfoPolicy;
+import com.aerospike.client.policy.Policy;
+import com.aerospike.client.policy.QueryPolicy;
+import com.aerospike.client.policy.ScanPolicy;
+import com.aerospike.client.policy.WritePolicy;
+import com.nosqldriver.sql.DriverPolicy;
+import com.nosqldriver.util.FunctionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.sql.ConnectionEventListener;
+import javax.sql.StatementEventListener;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AerospikePooledConnectionTest {
+    private static final String SQL = "select * from people where id=?";
+    private final AerospikeConnection physical = mock(AerospikeConnection.class);
+    private final DriverPolicy driverPolicy = new DriverPolicy();
+
+    @BeforeEach
+    void init() throws SQLException {
+        when(physical.getDriverPolicy()).thenReturn(driverPolicy);
+        when(physical.prepareStatement(any(Connection.class), eq(SQL), anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            AerospikePreparedStatement statement = mock(AerospikePreparedStatement.class);
+            when(statement.isUpToDate()).thenReturn(true);
+            when(statement.isPoolable()).thenReturn(true);
+            return statement;
+        });
+    }
+
+    @Test
+    void logicalConnection() throws SQLException {
+        AerospikePooledConnection pooled = new AerospikePooledConnection(physical);
+        ConnectionEventListener listener = mock(ConnectionEventListener.class);
+        pooled.addConnectionEventListener(listener);
+
+        Connection conn1 = pooled.getConnection();
+        assertFalse(conn1.isClosed());
+        Connection conn2 = pooled.getConnection();
+        assertNotSame(conn1, conn2);
+        assertTrue(conn1.isClosed()); // previous logical connection is closed automatically
+        verify(listener, times(1)).connectionClosed(any());
+
+        conn2.close();
+        conn2.close(); // second close is ignored
+        verify(listener, times(2)).connectionClosed(any());
+        assertThrows(SQLException.class, conn2::createStatement);
+        verify(physical, never()).close();
+
+        pooled.close();
+        verify(physical, times(1)).close();
+        assertThrows(SQLException.class, pooled::getConnection);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void preparedStatementIsReusedAfterClose() throws SQLException {
+        AerospikePooledConnection pooled = new AerospikePooledConnection(physical);
+        Connection conn = pooled.getConnection();
+        PreparedStatement ps1 = conn.prepareStatement(SQL);
+        PreparedStatement ps2 = conn.prepareStatement(SQL);
+        assertNotSame(ps1, ps2); // statement in use is not shared
+
+        ArgumentCaptor<Consumer<AerospikePreparedStatement>> closeListener = ArgumentCaptor.forClass(Consumer.class);
+        verify((AerospikePreparedStatement)ps1).setCloseListener(closeListener.capture());
+        closeListener.getValue().accept((AerospikePreparedStatement)ps1); // simulates ps1.close()
+        assertEquals(1, pooled.cachedStatementsCount());
+        verify(ps1).clearParameters();
+        verify((AerospikePreparedStatement)ps1).reset();
+
+        Connection conn2 = pooled.getConnection();
+        assertSame(ps1, conn2.prepareStatement(SQL));
+        verify((AerospikePreparedStatement)ps1).setConnection(conn2);
+        assertEquals(0, pooled.cachedStatementsCount());
+        verify(physical, times(2)).prepareStatement(any(Connection.class), eq(SQL), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void evictedAndCachedStatementsAreClosed() throws SQLException {
+        driverPolicy.preparedStatementCacheSize = 1;
+        String otherSql = "select * from people where name=?";
+        AerospikePreparedStatement other = mock(AerospikePreparedStatement.class);
+        when(other.isUpToDate()).thenReturn(true);
+        when(other.isPoolable()).thenReturn(true);
+        when(physical.prepareStatement(any(Connection.class), eq(otherSql), anyInt(), anyInt(), anyInt())).thenReturn(other);
+        AerospikePooledConnection pooled = new AerospikePooledConnection(physical);
+        Connection conn = pooled.getConnection();
+        AerospikePreparedStatement ps1 = (AerospikePreparedStatement)conn.prepareStatement(SQL);
+        AerospikePreparedStatement ps2 = (AerospikePreparedStatement)conn.prepareStatement(otherSql);
+
+        ArgumentCaptor<Consumer<AerospikePreparedStatement>> closeListener = ArgumentCaptor.forClass(Consumer.class);
+        verify(ps1).setCloseListener(closeListener.capture());
+        closeListener.getValue().accept(ps1);
+        verify(ps2).setCloseListener(closeListener.capture());
+        closeListener.getValue().accept(ps2); // evicts ps1
+        assertEquals(1, pooled.cachedStatementsCount());
+        verify(ps1).close();
+        verify(ps2, never()).close();
+
+        pooled.close();
+        verify(ps2).close();
+        assertEquals(0, pooled.cachedStatementsCount());
+    }
+
+    @Test
+    void reusedStatementIsReset() throws SQLException {
+        AerospikeStatement statement = new AerospikeStatement(mock(IAerospikeClient.class), null, mock(StatementEventListener.class), new AtomicReference<>("test"), policyProvider(), Collections::emptyList, new StatementParser(0), new FunctionManager(null));
+        ResultSet rs = mock(ResultSet.class);
+        statement.setResultSet(rs);
+        statement.setMaxRows(10);
+        statement.setQueryTimeout(5);
+        statement.setFetchSize(100);
+        assertEquals(5000, statement.policyProvider.getQueryPolicy().totalTimeout);
+
+        statement.reset();
+        assertEquals(Integer.MAX_VALUE, statement.getMaxRows());
+        assertEquals(0, statement.getQueryTimeout());
+        assertEquals(0, statement.getFetchSize());
+        assertEquals(0, statement.policyProvider.getQueryPolicy().totalTimeout);
+        assertNull(statement.getResultSet());
+        verify(rs).close();
+    }
+
+    @Test
+    void statementCacheDisabled() throws SQLException {
+        driverPolicy.preparedStatementCacheSize = 0;
+        AerospikePooledConnection pooled = new AerospikePooledConnection(physical);
+        PreparedStatement ps = pooled.getConnection().prepareStatement(SQL);
+        verify((AerospikePreparedStatement)ps, never()).setCloseListener(any());
+        assertEquals(0, pooled.cachedStatementsCount());
+    }
+
+    private static AerospikePolicyProvider policyProvider() {
+        IAerospikeClient client = mock(IAerospikeClient.class);
+        when(client.getReadPolicyDefault()).thenReturn(new Policy());
+        when(client.getQueryPolicyDefault()).thenReturn(new QueryPolicy());
+        when(client.getBatchPolicyDefault()).thenReturn(new BatchPolicy());
+        when(client.getScanPolicyDefault()).thenReturn(new ScanPolicy());
+        when(client.getWritePolicyDefault()).thenReturn(new WritePolicy());
+        when(client.getInfoPolicyDefault()).thenReturn(new InfoPolicy());
+        return new AerospikePolicyProvider(client, new Properties());
+    }
+}
@@ -43,6 +43,11 @@ import org.mockito.ArgumentMatchers;
 import java.sql.SQLException;
 import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.nosqldriver.aerospike.sql.TestDataUtils.NAMESPACE;
 import static com.nosqldriver.aerospike.sql.TestDataUtils.PEOPLE;
@@ -54,6 +59,8 @@ import static java.util.Collections.emptyMap;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -108,6 +115,40 @@ class AerospikeSqlClientTest {
         assertArrayEquals(realClient.exists(null, new Key[] {notExistingKey}), wrapperClient.exists(null, new Key[] {notExistingKey}));
     }
 
+    @Test
+    void backgroundExecutor() throws InterruptedException {
+        IAerospikeClient mock = mock(IAerospikeClient.class);
+        IAerospikeClient wrapperClient = new AerospikeSqlClient(() -> mock, null, 1);
+        Executor executor = AerospikeSqlClient.executor(wrapperClient);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        executor.execute(() -> {
+            thread.set(Thread.currentThread());
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(thread.get().isDaemon());
+        assertTrue(thread.get().getName().startsWith("aerospike-jdbc-"));
+        CountDownLatch queued = new CountDownLatch(1);
+        executor.execute(queued::countDown); // the only thread is busy, so the task waits
+        assertFalse(queued.await(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(queued.await(5, TimeUnit.SECONDS));
+
+        wrapperClient.close();
+        verify(mock, times(1)).close();
+        thread.get().join(5000); // the idle thread is terminated
+        assertFalse(thread.get().isAlive());
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {}));
+        assertNotSame(executor, AerospikeSqlClient.executor(mock));
+    }
+
     @Test
     void parameterizedGetters() {
         IAerospikeClient mock = mock(IAerospikeClient.class);
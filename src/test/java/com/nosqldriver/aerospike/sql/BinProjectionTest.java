@@ -0,0 +1,101 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.ScanCallback;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.InfoPolicy;
+import com.aerospike.client.policy.Policy;
+import com.aerospike.client.policy.QueryPolicy;
+import com.aerospike.client.policy.ScanPolicy;
+import com.aerospike.client.policy.WritePolicy;
+import com.nosqldriver.sql.StatementEventListener;
+import com.nosqldriver.util.FunctionManager;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BinProjectionTest {
+    private final IAerospikeClient client = client();
+    private final AerospikeStatement statement = new AerospikeStatement(client, null, mock(StatementEventListener.class), new AtomicReference<>("test"), new AerospikePolicyProvider(client, new Properties()), Collections::emptyList, new StatementParser(0), new FunctionManager(null));
+    private final Key key = new Key("test", "people", 1L);
+
+    @Test
+    void selectedColumns() throws SQLException {
+        when(client.get(any(Policy.class), eq(key), eq("first_name"), eq("year_of_birth"))).thenReturn(record());
+        ResultSet rs = statement.executeQuery("select first_name, year_of_birth from people where PK=1");
+        assertTrue(rs.next());
+        assertEquals("John", rs.getString("first_name"));
+        assertEquals(1940, rs.getInt("year_of_birth"));
+        assertFalse(rs.next());
+    }
+
+    @Test
+    void columnsUsedByExpressionsAndOrdering() throws SQLException {
+        when(client.get(any(Policy.class), eq(key), eq("first_name"), eq("year_of_birth"), eq("last_name"))).thenReturn(record());
+        ResultSet rs = statement.executeQuery("select first_name, year_of_birth + 1 as next_year from people where PK=1 order by last_name");
+        assertTrue(rs.next());
+        assertEquals("John", rs.getString("first_name"));
+        assertFalse(rs.next());
+    }
+
+    @Test
+    void allColumns() throws SQLException {
+        when(client.get(any(Policy.class), eq(key))).thenReturn(record());
+        ResultSet rs = statement.executeQuery("select * from people where PK=1");
+        assertTrue(rs.next());
+        assertEquals("Lennon", rs.getString("last_name"));
+    }
+
+    @Test
+    void scan() throws SQLException {
+        statement.executeQuery("select first_name from people where PK!=1").close();
+        verify(client, timeout(5000)).scanAll(any(ScanPolicy.class), eq("test"), eq("people"), any(ScanCallback.class), eq("first_name"));
+    }
+
+    @Test
+    void primaryKeyRange() throws SQLException {
+        Key[] keys = {new Key("test", "people", 1L), new Key("test", "people", 2L), new Key("test", "people", 3L)};
+        when(client.get(any(BatchPolicy.class), eq(keys), eq("first_name"))).thenReturn(new Record[] {record(), null, record()});
+        ResultSet rs = statement.executeQuery("select first_name from people where PK between 1 and 3");
+        assertTrue(rs.next());
+        assertTrue(rs.next());
+        assertFalse(rs.next());
+    }
+
+    private static Record record() {
+        Map<String, Object> bins = new HashMap<>();
+        bins.put("first_name", "John");
+        bins.put("last_name", "Lennon");
+        bins.put("year_of_birth", 1940L);
+        return new Record(bins, 1, 0);
+    }
+
+    private static IAerospikeClient client() {
+        IAerospikeClient client = mock(IAerospikeClient.class);
+        when(client.getReadPolicyDefault()).thenReturn(new Policy());
+        when(client.getQueryPolicyDefault()).thenReturn(new QueryPolicy());
+        when(client.getBatchPolicyDefault()).thenReturn(new BatchPolicy());
+        when(client.getScanPolicyDefault()).thenReturn(new ScanPolicy());
+        when(client.getWritePolicyDefault()).thenReturn(new WritePolicy());
+        when(client.getInfoPolicyDefault()).thenReturn(new InfoPolicy());
+        return client;
+    }
+}
@@ -0,0 +1,102 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.InfoPolicy;
+import com.aerospike.client.policy.Policy;
+import com.aerospike.client.policy.QueryPolicy;
+import com.aerospike.client.policy.ScanPolicy;
+import com.aerospike.client.policy.WritePolicy;
+import com.nosqldriver.sql.StatementEventListener;
+import com.nosqldriver.util.FunctionManager;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CancellationTest {
+    private final AerospikePolicyProvider connectionPolicyProvider = policyProvider();
+    private final AerospikeStatement statement = new AerospikeStatement(mock(IAerospikeClient.class), null, mock(StatementEventListener.class), new AtomicReference<>("test"), connectionPolicyProvider, Collections::emptyList, new StatementParser(0), new FunctionManager(null));
+
+    @Test
+    void cancel() throws SQLException {
+        Runnable stop = mock(Runnable.class);
+        Cancellation cancellation = new Cancellation(statement, stop);
+        assertFalse(cancellation.isCanceled());
+        cancellation.assertNotCanceled();
+
+        statement.cancel();
+        verify(stop, times(1)).run();
+        assertTrue(cancellation.isCanceled());
+        assertEquals("Statement was canceled", assertThrows(SQLException.class, cancellation::assertNotCanceled).getMessage());
+    }
+
+    @Test
+    void completedQueryIsNotCanceled() throws SQLException {
+        Runnable stop = mock(Runnable.class);
+        Cancellation cancellation = new Cancellation(statement, stop);
+        cancellation.done();
+        statement.cancel();
+        verify(stop, never()).run();
+        assertFalse(cancellation.isCanceled());
+    }
+
+    @Test
+    void nextExecutionClosesPreviousResultSetAndForgetsItsQueries() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        statement.setResultSet(rs);
+        Runnable stop = mock(Runnable.class);
+        new Cancellation(statement, stop);
+
+        assertFalse(statement.execute("use test"));
+        verify(rs, times(1)).close();
+        assertNull(statement.getResultSet());
+
+        statement.cancel();
+        verify(stop, never()).run();
+    }
+
+    @Test
+    void queryTimeout() throws SQLException {
+        connectionPolicyProvider.getScanPolicy().totalTimeout = 1234;
+        statement.setQueryTimeout(5);
+        assertEquals(5000, statement.policyProvider.getReadPolicy().totalTimeout);
+        assertEquals(5000, statement.policyProvider.getQueryPolicy().totalTimeout);
+        assertEquals(5000, statement.policyProvider.getBatchPolicy().totalTimeout);
+        assertEquals(5000, statement.policyProvider.getScanPolicy().totalTimeout);
+        assertEquals(5000, statement.policyProvider.getWritePolicy().totalTimeout);
+        assertEquals(1234, connectionPolicyProvider.getScanPolicy().totalTimeout); // connection policies are not changed
+
+        statement.setQueryTimeout(0);
+        assertEquals(1234, statement.policyProvider.getScanPolicy().totalTimeout);
+        assertEquals(connectionPolicyProvider.getReadPolicy().totalTimeout, statement.policyProvider.getReadPolicy().totalTimeout);
+
+        assertThrows(SQLException.class, () -> statement.setQueryTimeout(-1));
+        assertEquals(0, statement.getQueryTimeout());
+    }
+
+    private static AerospikePolicyProvider policyProvider() {
+        IAerospikeClient client = mock(IAerospikeClient.class);
+        when(client.getReadPolicyDefault()).thenReturn(new Policy());
+        when(client.getQueryPolicyDefault()).thenReturn(new QueryPolicy());
+        when(client.getBatchPolicyDefault()).thenReturn(new BatchPolicy());
+        when(client.getScanPolicyDefault()).thenReturn(new ScanPolicy());
+        when(client.getWritePolicyDefault()).thenReturn(new WritePolicy());
+        when(client.getInfoPolicyDefault()).thenReturn(new InfoPolicy());
+        return new AerospikePolicyProvider(client, new Properties());
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 
 import static java.util.Arrays.asList;
@@ -144,6 +145,22 @@ class ConnectionParametersParserTest {
         assertEquals(new HashSet<>(asList("NUMERIC.test.people.year_of_birth.PEOPLE_YOB_INDEX", "STRING.test.people.first_name.PEOPLE_FIRST_NAME_INDEX")), indexes);
     }
 
+    @Test
+    void parseIndexStatistics() {
+        Properties statistics = new ConnectionParametersParser().statisticsParser("keys=12;entries=1000;ibtr_memory_used=18688;nbtr_memory_used=31;load_pct=100");
+        assertEquals("12", statistics.getProperty("keys"));
+        assertEquals("1000", statistics.getProperty("entries"));
+    }
+
+    @Test
+    void parseSets() {
+        List<Properties> sets = new ConnectionParametersParser().infoParser("ns=test:set=people:objects=10:tombstones=0;ns=test:set=kids:objects=5:tombstones=0;");
+        assertEquals(2, sets.size());
+        assertEquals("people", sets.get(0).getProperty("set"));
+        assertEquals("10", sets.get(0).getProperty("objects"));
+        assertEquals("5", sets.get(1).getProperty("objects"));
+    }
+
     @Test
     void clientPolicyNoParametersEmptyProperties() {
         ClientPolicy policy = clientPolicy("jdbc:aerospike:myhost:3210", new Properties());
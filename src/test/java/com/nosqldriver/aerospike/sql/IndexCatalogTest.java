@@ -0,0 +1,58 @@
+package com.nosqldriver.aerospike.sql;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singleton;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndexCatalogTest {
+    private final AtomicInteger loads = new AtomicInteger(0);
+    private final ExecutorService refresher = RefreshableValue.newRefresher();
+
+    @AfterEach
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private Collection<String> load() {
+        return singleton("test.people.id" + loads.incrementAndGet());
+    }
+
+    @Test
+    void cached() {
+        IndexCatalog catalog = new IndexCatalog(this::load, 60000, refresher);
+        assertEquals(singleton("test.people.id1"), catalog.get());
+        assertEquals(singleton("test.people.id1"), catalog.get());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidated() {
+        IndexCatalog catalog = new IndexCatalog(this::load, 60000, refresher);
+        assertEquals(singleton("test.people.id1"), catalog.get());
+        catalog.invalidate();
+        assertEquals(singleton("test.people.id2"), catalog.get());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void expiredValueIsRefreshedInBackground() {
+        IndexCatalog catalog = new IndexCatalog(this::load, 0, refresher);
+        assertEquals(singleton("test.people.id1"), catalog.get());
+        await().atMost(5, SECONDS).until(() -> catalog.get().contains("test.people.id2"));
+    }
+
+    @Test
+    void notCached() {
+        IndexCatalog catalog = new IndexCatalog(this::load, -1, refresher);
+        assertEquals(singleton("test.people.id1"), catalog.get());
+        assertEquals(singleton("test.people.id2"), catalog.get());
+    }
+}
@@ -684,7 +684,7 @@ class InsertTest {
         assertThrows(SQLFeatureNotSupportedException.class, () -> statement.setCursorName("foo"));
         assertEquals(TYPE_FORWARD_ONLY, statement.getResultSetType());
         assertEquals(CONCUR_READ_ONLY, statement.getResultSetConcurrency());
-        assertEquals(1, statement.getFetchSize());
+        assertEquals(0, statement.getFetchSize());
         assertEquals(FETCH_FORWARD, statement.getFetchDirection());
         assertFalse(statement.isClosed());
     }
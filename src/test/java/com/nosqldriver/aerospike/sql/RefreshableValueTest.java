@@ -0,0 +1,172 @@
+package com.nosqldriver.aerospike.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RefreshableValueTest {
+    private final AtomicInteger loads = new AtomicInteger(0);
+    private final Queue<Runnable> tasks = new LinkedList<>();
+    /**
+     * Collects background refreshes, so that the test decides when they run.
+     */
+    private final Executor refresher = tasks::add;
+
+    private Integer load() {
+        return loads.incrementAndGet();
+    }
+
+    @Test
+    void staleValueIsReturnedWhileReloadedInBackground() {
+        RefreshableValue<Integer> value = new RefreshableValue<>(this::load, refresher);
+        assertEquals(1, value.get(0).intValue());
+        sleep();
+
+        assertEquals(1, value.get(0).intValue()); // stale value; refresh is submitted
+        assertEquals(1, value.get(0).intValue()); // refresh is already running, no other refresh is submitted
+        assertEquals(1, tasks.size());
+        assertEquals(1, loads.get());
+
+        tasks.poll().run();
+        assertEquals(2, loads.get());
+        assertEquals(2, value.get(60000).intValue());
+    }
+
+    @Test
+    void freshValueIsNotReloaded() {
+        RefreshableValue<Integer> value = new RefreshableValue<>(this::load, refresher);
+        assertEquals(1, value.get(60000).intValue());
+        assertEquals(1, value.get(60000).intValue());
+        assertTrue(tasks.isEmpty());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void failedReloadKeepsValue() {
+        AtomicInteger calls = new AtomicInteger(0);
+        RefreshableValue<Integer> value = new RefreshableValue<>(() -> {
+            if (calls.incrementAndGet() == 2) {
+                throw new IllegalStateException("cluster is not available");
+            }
+            return calls.get();
+        }, refresher);
+        assertEquals(1, value.get(0).intValue());
+        sleep();
+        assertEquals(1, value.get(0).intValue());
+        tasks.poll().run(); // fails
+        assertEquals(1, value.get(0).intValue()); // next access starts new refresh
+        tasks.poll().run();
+        assertEquals(3, value.get(60000).intValue());
+    }
+
+    @Test
+    void failedInitialLoad() {
+        RefreshableValue<Integer> value = new RefreshableValue<>(() -> {
+            throw new IllegalStateException("cluster is not available");
+        }, refresher);
+        assertThrows(IllegalStateException.class, () -> value.get(60000));
+    }
+
+    @Test
+    void invalidatedValueIsReloadedSynchronously() {
+        RefreshableValue<Integer> value = new RefreshableValue<>(this::load, refresher);
+        assertEquals(1, value.get(60000).intValue());
+        value.invalidate();
+        assertEquals(2, value.get(60000).intValue());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    void staleMarkedValueIsRefreshedInBackground() {
+        RefreshableValue<Integer> value = new RefreshableValue<>(this::load, refresher);
+        assertEquals(1, value.get(60000).intValue());
+        assertEquals(1, value.peek().intValue());
+        value.markStale();
+        assertEquals(1, value.get(60000).intValue()); // current value is returned without waiting
+        assertEquals(1, loads.get());
+        tasks.poll().run();
+        assertEquals(2, value.get(60000).intValue());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    void valueMarkedStaleDuringRefreshIsRefreshedAgain() {
+        RefreshableValue<Integer> value = new RefreshableValue<>(this::load, refresher);
+        assertEquals(1, value.get(60000).intValue());
+        value.markStale();
+        assertEquals(1, value.get(60000).intValue());
+        value.markStale(); // the change may be missed by the running refresh
+        tasks.poll().run();
+        assertEquals(2, value.get(60000).intValue()); // still stale: new refresh is submitted
+        tasks.poll().run();
+        assertEquals(3, value.get(60000).intValue());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    void refreshStartedBeforeInvalidationIsIgnored() {
+        RefreshableValue<Integer> value = new RefreshableValue<>(this::load, refresher);
+        assertEquals(1, value.get(0).intValue());
+        sleep();
+        assertEquals(1, value.get(0).intValue());
+        value.invalidate();
+        assertEquals(2, value.get(60000).intValue());
+        tasks.poll().run(); // loads 3 but the result is discarded
+        assertEquals(2, value.get(60000).intValue());
+    }
+
+    @Test
+    void notCached() {
+        RefreshableValue<Integer> value = new RefreshableValue<>(this::load, refresher);
+        assertEquals(1, value.get(-1).intValue());
+        assertEquals(2, value.get(-1).intValue());
+        assertTrue(tasks.isEmpty());
+    }
+
+    @Test
+    void refreshRunsOnRefresherThread() {
+        ExecutorService executor = RefreshableValue.newRefresher();
+        try {
+            AtomicInteger calls = new AtomicInteger(0);
+            RefreshableValue<String> value = new RefreshableValue<>(() -> calls.incrementAndGet() + ":" + Thread.currentThread().getName(), executor);
+            assertEquals("1:" + Thread.currentThread().getName(), value.get(0));
+            sleep();
+            value.get(0);
+            await().atMost(5, SECONDS).until(() -> "2:aerospike-jdbc-refresher".equals(value.get(60000)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void refresherIsShutDown() {
+        ExecutorService executor = RefreshableValue.newRefresher();
+        executor.shutdownNow();
+        RefreshableValue<Integer> value = new RefreshableValue<>(this::load, executor);
+        assertEquals(1, value.get(0).intValue());
+        sleep();
+        assertEquals(1, value.get(0).intValue());
+        assertEquals(1, loads.get());
+    }
+
+    /**
+     * Makes sure that the value loaded by the test becomes older than zero timeout.
+     */
+    private void sleep() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.ResultCode;
+import com.aerospike.client.ScanCallback;
+import com.aerospike.client.cluster.Node;
+import com.aerospike.client.policy.ScanPolicy;
+import com.nosqldriver.sql.DriverPolicy;
+import com.nosqldriver.util.FunctionManager;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ResultSetOverAerospikeScanTest {
+    private final IAerospikeClient client = mock(IAerospikeClient.class);
+    private final ScanPolicy policy = new ScanPolicy();
+    private final DriverPolicy driverPolicy = new DriverPolicy();
+
+    @Test
+    void scanAll() throws SQLException {
+        doAnswer(invocation -> {
+            scan(invocation.getArgument(3), 0, 100);
+            return null;
+        }).when(client).scanAll(eq(policy), eq("test"), eq("people"), any(ScanCallback.class));
+        assertEquals(range(0, 100), ids(resultSet()));
+        verify(client, never()).scanNode(any(ScanPolicy.class), any(Node.class), any(), any(), any(ScanCallback.class));
+    }
+
+    @Test
+    void scanNodesInParallel() throws SQLException {
+        Node[] nodes = {mock(Node.class), mock(Node.class), mock(Node.class)};
+        when(client.getNodes()).thenReturn(nodes);
+        doAnswer(invocation -> {
+            int from = IntStream.range(0, nodes.length).filter(i -> nodes[i] == invocation.getArgument(1)).findFirst().getAsInt() * 100; // Node.equals() does not work with mocks
+            scan(invocation.getArgument(4), from, from + 100);
+            return null;
+        }).when(client).scanNode(eq(policy), any(Node.class), eq("test"), eq("people"), any(ScanCallback.class));
+        driverPolicy.scanNodeConcurrency = 2;
+        driverPolicy.scanQueueSize = 5;
+
+        List<Integer> ids = ids(resultSet());
+        Collections.sort(ids);
+        assertEquals(range(0, 300), ids);
+        verify(client, never()).scanAll(any(ScanPolicy.class), any(), any(), any(ScanCallback.class));
+    }
+
+    @Test
+    void failedNode() {
+        Node[] nodes = {mock(Node.class), mock(Node.class)};
+        when(client.getNodes()).thenReturn(nodes);
+        doAnswer(invocation -> {
+            if (invocation.getArgument(1) == nodes[1]) {
+                throw new AerospikeException(ResultCode.TIMEOUT, "timeout");
+            }
+            scan(invocation.getArgument(4), 0, 1000);
+            return null;
+        }).when(client).scanNode(eq(policy), any(Node.class), eq("test"), eq("people"), any(ScanCallback.class));
+        driverPolicy.scanNodeConcurrency = 2;
+
+        assertThrows(SQLException.class, () -> ids(resultSet()));
+    }
+
+    @Test
+    void close() throws SQLException, InterruptedException {
+        CountDownLatch terminated = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            try {
+                scan(invocation.getArgument(3), 0, 1000);
+            } catch (AerospikeException.ScanTerminated e) {
+                terminated.countDown();
+            }
+            return null;
+        }).when(client).scanAll(eq(policy), eq("test"), eq("people"), any(ScanCallback.class));
+        ResultSet rs = resultSet();
+        assertTrue(rs.next());
+        rs.close(); // stops the scan that is blocked by the full queue
+        assertTrue(terminated.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fetchSizeLimitsReadAhead() throws SQLException, InterruptedException {
+        AtomicInteger scanned = new AtomicInteger(0);
+        doAnswer(invocation -> {
+            ScanCallback callback = invocation.getArgument(3);
+            for (int i = 0; i < 100; i++) {
+                scanned.incrementAndGet();
+                callback.scanCallback(new Key("test", "people", i), new Record(singletonMap("id", (long) i), 1, 0));
+            }
+            return null;
+        }).when(client).scanAll(eq(policy), eq("test"), eq("people"), any(ScanCallback.class));
+        ResultSet rs = resultSet(3);
+        Thread.sleep(200);
+        assertTrue(scanned.get() <= 4); // 3 records in the queue and one waiting for place there
+        assertEquals(range(0, 100), ids(rs));
+    }
+
+    @Test
+    void scanRecordsPerSecond() throws SQLException {
+        driverPolicy.scanRecordsPerSecond = 100;
+        doAnswer(invocation -> {
+            scan(invocation.getArgument(3), 0, 30);
+            return null;
+        }).when(client).scanAll(eq(policy), eq("test"), eq("people"), any(ScanCallback.class));
+        long start = System.currentTimeMillis();
+        assertEquals(range(0, 30), ids(resultSet()));
+        assertTrue(System.currentTimeMillis() - start >= 250); // 30 records at 100 records per second
+    }
+
+    private ResultSet resultSet() {
+        return resultSet(0);
+    }
+
+    private ResultSet resultSet(int fetchSize) {
+        return new ResultSetOverAerospikeScan(client, policy, null, "test", "people", emptyList(), (schema, set) -> emptyList(), new FunctionManager(null), driverPolicy, fetchSize, Collections.<SpecialField>emptyList());
+    }
+
+    private static void scan(ScanCallback callback, int from, int to) {
+        for (int i = from; i < to; i++) {
+            callback.scanCallback(new Key("test", "people", i), new Record(singletonMap("id", (long) i), 1, 0));
+        }
+    }
+
+    private static List<Integer> ids(ResultSet rs) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        while (rs.next()) {
+            ids.add(((ResultSetOverAerospikeScan) rs).getRecord().record.getInt("id"));
+        }
+        return ids;
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().collect(toList());
+    }
+}
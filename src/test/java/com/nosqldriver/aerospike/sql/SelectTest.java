@@ -438,6 +438,17 @@ class SelectTest {
         }
     }
 
+    @Test
+    void cancelScan() throws SQLException {
+        try(Statement statement = testConn.createStatement()) {
+            ResultSet rs = statement.executeQuery("select * from people");
+            assertTrue(rs.next());
+            statement.cancel();
+            assertEquals("Statement was canceled", assertThrows(SQLException.class, rs::next).getMessage());
+            rs.close();
+        }
+    }
+
     @Test
     void validateStatementFields() throws SQLException {
         try(Statement statement = testConn.createStatement()) {
@@ -448,11 +459,12 @@ class SelectTest {
             assertThrows(SQLFeatureNotSupportedException.class, () -> statement.setMaxFieldSize(1024));
             assertEquals(8 * 1024 * 1024, statement.getMaxFieldSize());
 
-            assertThrows(SQLFeatureNotSupportedException.class, statement::cancel);
+            statement.cancel(); // nothing is running, so nothing happens
 
             assertEquals(0, statement.getQueryTimeout());
             statement.setQueryTimeout(45678);
             assertEquals(45678, statement.getQueryTimeout());
+            assertThrows(SQLException.class, () -> statement.setQueryTimeout(-1));
 
 
             assertNull(statement.getWarnings());
@@ -465,12 +477,13 @@ class SelectTest {
             assertThrows(SQLException.class, () -> statement.setFetchDirection(FETCH_REVERSE));
             assertEquals(FETCH_FORWARD, statement.getFetchDirection());
 
-            assertEquals(1, statement.getFetchSize());
+            assertEquals(0, statement.getFetchSize());
             statement.setFetchSize(1);
             assertEquals(1, statement.getFetchSize());
-            statement.setFetchSize(2);
-            assertEquals("Fetch size 2 (other than 1) is not supported right now and will be ignored", statement.getWarnings().getMessage());
-            assertEquals(1, statement.getFetchSize());
+            statement.setFetchSize(1000);
+            assertEquals(1000, statement.getFetchSize());
+            assertThrows(SQLException.class, () -> statement.setFetchSize(-1));
+            assertEquals(1000, statement.getFetchSize());
 
             assertEquals(testConn, statement.getConnection());
         }
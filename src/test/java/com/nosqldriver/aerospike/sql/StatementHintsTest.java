@@ -0,0 +1,119 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.policy.BatchPolicy;
+import com.aerospike.client.policy.InfoPolicy;
+import com.aerospike.client.policy.Policy;
+import com.aerospike.client.policy.Priority;
+import com.aerospike.client.policy.QueryPolicy;
+import com.aerospike.client.policy.ScanPolicy;
+import com.aerospike.client.policy.WritePolicy;
+import com.nosqldriver.sql.StatementEventListener;
+import com.nosqldriver.util.FunctionManager;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StatementHintsTest {
+    private final AerospikePolicyProvider provider = provider();
+
+    @Test
+    void parse() {
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("SCAN_RPS", "5000");
+        expected.put("PRIORITY", "LOW");
+        expected.put("CONCURRENT_NODES", "2");
+        assertEquals(expected, StatementHints.parse("select /*+ SCAN_RPS(5000) priority( LOW ) CONCURRENT_NODES(2) */ * from people"));
+    }
+
+    @Test
+    void parseNoHints() {
+        assertTrue(StatementHints.parse("select * from people").isEmpty());
+        assertTrue(StatementHints.parse("select /* SCAN_RPS(5000) */ * from people").isEmpty());
+    }
+
+    @Test
+    void noHints() throws SQLException {
+        assertSame(provider, StatementHints.apply(provider, "select * from people"));
+    }
+
+    @Test
+    void apply() throws SQLException {
+        provider.getDriverPolicy().scanNodeConcurrency = 4;
+        AerospikePolicyProvider hinted = StatementHints.apply(provider, "select /*+ SCAN_RPS(5000) PRIORITY(LOW) CONCURRENT_NODES(2) */ * from people");
+        assertNotSame(provider, hinted);
+        assertEquals(5000, hinted.getDriverPolicy().scanRecordsPerSecond);
+        assertEquals(2, hinted.getDriverPolicy().scanNodeConcurrency);
+        assertEquals(Priority.LOW, hinted.getScanPolicy().priority);
+        assertEquals(Priority.LOW, hinted.getQueryPolicy().priority);
+        assertEquals(Priority.LOW, hinted.getWritePolicy().priority);
+        assertEquals(2, hinted.getScanPolicy().maxConcurrentNodes);
+        assertEquals(2, hinted.getQueryPolicy().maxConcurrentNodes);
+
+        // the policies of the statement are not changed
+        assertEquals(0, provider.getDriverPolicy().scanRecordsPerSecond);
+        assertEquals(4, provider.getDriverPolicy().scanNodeConcurrency);
+        assertEquals(Priority.DEFAULT, provider.getScanPolicy().priority);
+        assertEquals(0, provider.getScanPolicy().maxConcurrentNodes);
+    }
+
+    @Test
+    void queryTimeoutOfPreparedStatementWithHints() throws SQLException {
+        AerospikePreparedStatement statement = new AerospikePreparedStatement(mock(IAerospikeClient.class), null, mock(StatementEventListener.class), new AtomicReference<>("test"), provider, Collections::emptyList, new StatementParser(0), "select /*+ PRIORITY(LOW) */ * from people", new KeyRecordFetcherFactory(provider.getQueryPolicy()), new FunctionManager(null), Collections.emptyList());
+        AerospikePolicyProvider hinted = statement.getPlanPolicyProvider();
+        assertNotSame(statement.policyProvider, hinted);
+        assertEquals(Priority.LOW, hinted.getScanPolicy().priority);
+
+        statement.setQueryTimeout(5);
+        assertEquals(5000, hinted.getScanPolicy().totalTimeout);
+        assertEquals(5000, hinted.getQueryPolicy().totalTimeout);
+        assertEquals(5000, hinted.getWritePolicy().totalTimeout);
+
+        statement.setQueryTimeout(0);
+        assertEquals(provider.getScanPolicy().totalTimeout, hinted.getScanPolicy().totalTimeout);
+        assertEquals(Priority.LOW, hinted.getScanPolicy().priority);
+    }
+
+    @Test
+    void singleNode() throws SQLException {
+        assertFalse(StatementHints.apply(provider, "select /*+ CONCURRENT_NODES(1) */ * from people").getScanPolicy().concurrentNodes);
+    }
+
+    @Test
+    void unknownHint() throws SQLException {
+        assertEquals(0, StatementHints.apply(provider, "select /*+ FULL(people) */ * from people").getDriverPolicy().scanRecordsPerSecond);
+    }
+
+    @Test
+    void wrongValue() {
+        assertThrows(SQLSyntaxErrorException.class, () -> StatementHints.apply(provider, "select /*+ SCAN_RPS(fast) */ * from people"));
+        assertThrows(SQLSyntaxErrorException.class, () -> StatementHints.apply(provider, "select /*+ SCAN_RPS(-1) */ * from people"));
+        assertThrows(SQLSyntaxErrorException.class, () -> StatementHints.apply(provider, "select /*+ PRIORITY(URGENT) */ * from people"));
+    }
+
+    private static AerospikePolicyProvider provider() {
+        IAerospikeClient client = mock(IAerospikeClient.class);
+        when(client.getReadPolicyDefault()).thenReturn(new Policy());
+        when(client.getWritePolicyDefault()).thenReturn(new WritePolicy());
+        when(client.getBatchPolicyDefault()).thenReturn(new BatchPolicy());
+        when(client.getQueryPolicyDefault()).thenReturn(new QueryPolicy());
+        when(client.getScanPolicyDefault()).thenReturn(new ScanPolicy());
+        when(client.getInfoPolicyDefault()).thenReturn(new InfoPolicy());
+        return new AerospikePolicyProvider(client, new Properties());
+    }
+}
@@ -0,0 +1,47 @@
+package com.nosqldriver.aerospike.sql;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.statement.Statement;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatementParserTest {
+    @Test
+    void sameSqlIsParsedOnce() throws JSQLParserException {
+        StatementParser parser = new StatementParser(2);
+        Statement statement = parser.parse("select * from people where PK=?");
+        assertSame(statement, parser.parse("select * from people where PK=?"));
+        assertNotSame(statement, parser.parse("select * from people where PK=1"));
+        assertEquals(2, parser.size());
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() throws JSQLParserException {
+        StatementParser parser = new StatementParser(2);
+        Statement first = parser.parse("select * from people where PK=1");
+        Statement second = parser.parse("select * from people where PK=2");
+        assertSame(first, parser.parse("select * from people where PK=1"));
+        parser.parse("select * from people where PK=3"); // evicts the second statement
+        assertEquals(2, parser.size());
+        assertSame(first, parser.parse("select * from people where PK=1"));
+        assertNotSame(second, parser.parse("select * from people where PK=2"));
+    }
+
+    @Test
+    void cacheDisabled() throws JSQLParserException {
+        StatementParser parser = new StatementParser(0);
+        assertNotSame(parser.parse("select * from people"), parser.parse("select * from people"));
+        assertEquals(0, parser.size());
+    }
+
+    @Test
+    void wrongSqlIsNotCached() {
+        StatementParser parser = new StatementParser(2);
+        assertThrows(JSQLParserException.class, () -> parser.parse("select from where"));
+        assertEquals(0, parser.size());
+    }
+}
@@ -0,0 +1,135 @@
+package com.nosqldriver.aerospike.sql;
+
+import com.aerospike.client.IAerospikeClient;
+import com.aerospike.client.cluster.Node;
+import com.aerospike.client.policy.InfoPolicy;
+import com.aerospike.client.policy.Policy;
+import com.nosqldriver.util.IOUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UdfRegistrarTest {
+    private static final String STATS = "stats.lua";
+
+    @Test
+    void parseUdfList() {
+        Map<String, String> expected = new HashMap<>();
+        expected.put("stats.lua", "0123456789abcdef0123456789abcdef01234567");
+        expected.put("groupby.lua", "fedcba9876543210fedcba9876543210fedcba98");
+        assertEquals(expected, UdfRegistrar.parseUdfList("filename=stats.lua,hash=0123456789abcdef0123456789abcdef01234567,type=LUA;filename=groupby.lua,hash=fedcba9876543210fedcba9876543210fedcba98,type=LUA;"));
+    }
+
+    @Test
+    void parseEmptyUdfList() {
+        assertTrue(UdfRegistrar.parseUdfList("").isEmpty());
+        assertTrue(UdfRegistrar.parseUdfList(null).isEmpty());
+    }
+
+    @Test
+    void sha1() {
+        assertEquals("a9993e364706816aba3e25717850c26c9cd0d89d", UdfRegistrar.sha1("abc".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void missingModule() {
+        IAerospikeClient client = mock(IAerospikeClient.class);
+        assertThrows(IllegalArgumentException.class, () -> new UdfRegistrar().ensureRegistered(client, new Policy(), getClass().getClassLoader(), "nothing.lua"));
+        verify(client, never()).register(any(), any(ClassLoader.class), any(), any(), any());
+    }
+
+    @Test
+    void moduleUpToDateOnAllNodesIsNotRegistered() throws IOException {
+        String udfList = "filename=stats.lua,hash=" + statsHash() + ",type=LUA;";
+        CountingRegistrar registrar = new CountingRegistrar(udfList, udfList);
+        registrar.ensureRegistered(client(2), new Policy(), getClass().getClassLoader(), STATS);
+        assertEquals(0, registrar.registrations);
+        assertEquals(2, registrar.infoRequests);
+    }
+
+    @Test
+    void moduleWithDifferentHashIsRegistered() throws IOException {
+        CountingRegistrar registrar = new CountingRegistrar("filename=stats.lua,hash=" + statsHash() + ",type=LUA;", "filename=stats.lua,hash=0123456789abcdef0123456789abcdef01234567,type=LUA;");
+        registrar.ensureRegistered(client(2), new Policy(), getClass().getClassLoader(), STATS);
+        assertEquals(1, registrar.registrations);
+    }
+
+    @Test
+    void moduleMissingOnNodeIsRegistered() throws IOException {
+        CountingRegistrar registrar = new CountingRegistrar("filename=stats.lua,hash=" + statsHash() + ",type=LUA;", "filename=groupby.lua,hash=0123456789abcdef0123456789abcdef01234567,type=LUA;");
+        registrar.ensureRegistered(client(2), new Policy(), getClass().getClassLoader(), STATS);
+        assertEquals(1, registrar.registrations);
+    }
+
+    @Test
+    void moduleIsCheckedOnce() {
+        CountingRegistrar registrar = new CountingRegistrar("");
+        IAerospikeClient client = client(1);
+        registrar.ensureRegistered(client, new Policy(), getClass().getClassLoader(), STATS);
+        registrar.ensureRegistered(client, new Policy(), getClass().getClassLoader(), STATS);
+        assertEquals(1, registrar.registrations);
+        assertEquals(1, registrar.infoRequests);
+    }
+
+    @Test
+    void registrarPerClient() {
+        IAerospikeClient client1 = mock(IAerospikeClient.class);
+        IAerospikeClient client2 = mock(IAerospikeClient.class);
+        assertSame(UdfRegistrar.registrar(client1), UdfRegistrar.registrar(client1));
+        assertNotSame(UdfRegistrar.registrar(client1), UdfRegistrar.registrar(client2));
+    }
+
+    private String statsHash() throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream(STATS)) {
+            return UdfRegistrar.sha1(IOUtils.toByteArray(in));
+        }
+    }
+
+    private IAerospikeClient client(int nodesCount) {
+        IAerospikeClient client = mock(IAerospikeClient.class);
+        Node[] nodes = new Node[nodesCount];
+        for (int i = 0; i < nodesCount; i++) {
+            nodes[i] = mock(Node.class);
+        }
+        when(client.getNodes()).thenReturn(nodes);
+        return client;
+    }
+
+    /**
+     * Registrar that returns given {@code udf-list} responses (one per node) and counts registrations instead of calling the server.
+     */
+    private static class CountingRegistrar extends UdfRegistrar {
+        private final String[] udfLists;
+        private int infoRequests = 0;
+        private int registrations = 0;
+
+        private CountingRegistrar(String ... udfLists) {
+            this.udfLists = udfLists;
+        }
+
+        @Override
+        String udfList(InfoPolicy infoPolicy, Node node) {
+            return udfLists[infoRequests++ % udfLists.length];
+        }
+
+        @Override
+        void registerModule(IAerospikeClient client, Policy policy, ClassLoader classLoader, String path) {
+            registrations++;
+        }
+    }
+}
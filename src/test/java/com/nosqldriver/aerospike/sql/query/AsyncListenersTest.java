@@ -0,0 +1,45 @@
+package com.nosqldriver.aerospike.sql.query;
+
+import com.aerospike.client.AerospikeException;
+import com.aerospike.client.Key;
+import com.aerospike.client.Record;
+import com.aerospike.client.ResultCode;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static com.nosqldriver.util.SneakyThrower.sneakyThrow;
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncListenersTest {
+    private final Key key = new Key("test", "people", 1);
+
+    @Test
+    void success() throws Exception {
+        Record record = new Record(emptyMap(), 1, 0);
+        CompletableFuture<Record> future = new CompletableFuture<>();
+        AsyncListeners.record(future).onSuccess(key, record);
+        assertSame(record, future.get());
+    }
+
+    @Test
+    void failureIsReportedAsSqlException() {
+        CompletableFuture<Key> future = new CompletableFuture<>();
+        AsyncListeners.write(future).onFailure(new AerospikeException(ResultCode.KEY_EXISTS_ERROR));
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertTrue(e.getCause() instanceof SQLException);
+    }
+
+    @Test
+    void synchronousFailureIsReportedThroughFuture() {
+        SQLException exception = new SQLException("Cannot connect");
+        CompletableFuture<Record[]> future = AsyncListeners.call(new CompletableFuture<>(), () -> sneakyThrow(exception));
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertSame(exception, e.getCause());
+    }
+}
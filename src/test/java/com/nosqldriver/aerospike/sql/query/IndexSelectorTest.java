@@ -0,0 +1,149 @@
+package com.nosqldriver.aerospike.sql.query;
+
+import com.aerospike.client.query.Filter;
+import net.sf.jsqlparser.JSQLParserException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static net.sf.jsqlparser.parser.CCJSqlParserUtil.parseCondExpression;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndexSelectorTest {
+    private final Filter byAge = Filter.equal("age", 30);
+    private final Filter byCountry = Filter.equal("country", "US");
+    private final Filter byYear = Filter.range("year_of_birth", 1900, 2000);
+
+    @Test
+    void notIndexed() {
+        IndexSelector selector = new IndexSelector(new HashSet<>(asList("test.people.age")));
+        selector.add("test", "people", "country", byCountry, false);
+        assertEquals(emptyList(), selector.select());
+    }
+
+    @Test
+    void withoutStatisticsEqualityIsPreferred() {
+        IndexSelector selector = new IndexSelector(new HashSet<>(asList("test.people.year_of_birth", "test.people.age", "test.people.country")));
+        selector.add("test", "people", "year_of_birth", byYear, true);
+        selector.add("test", "people", "age", byAge, false);
+        selector.add("test", "people", "country", byCountry, false);
+        assertEquals(singletonList(byAge), selector.select());
+    }
+
+    @Test
+    void mostSelectiveIndex() {
+        SecondaryIndexes indexes = indexes();
+        indexes.setIndexStatistics("test", "people", "age", 1000, 100); // 10 records per value
+        indexes.setIndexStatistics("test", "people", "country", 1000, 5); // 200 records per value
+        indexes.setIndexStatistics("test", "people", "year_of_birth", 15, 15); // range returns 5 records
+        indexes.setRecords("test", "people", 1000);
+
+        IndexSelector selector = new IndexSelector(indexes);
+        selector.add("test", "people", "country", byCountry, false);
+        selector.add("test", "people", "age", byAge, false);
+        assertEquals(singletonList(byAge), selector.select());
+        selector.add("test", "people", "year_of_birth", byYear, true);
+        assertEquals(singletonList(byYear), selector.select());
+    }
+
+    @Test
+    void scanIsCheaperThanIndex() {
+        SecondaryIndexes indexes = indexes();
+        indexes.setIndexStatistics("test", "people", "country", 1000, 1);
+        indexes.setRecords("test", "people", 1000);
+
+        IndexSelector selector = new IndexSelector(indexes);
+        selector.add("test", "people", "country", byCountry, false);
+        assertEquals(emptyList(), selector.select());
+    }
+
+    @Test
+    void indexWithStatisticsIsPreferred() {
+        SecondaryIndexes indexes = indexes();
+        indexes.setIndexStatistics("test", "people", "country", 1000, 10);
+
+        IndexSelector selector = new IndexSelector(indexes);
+        selector.add("test", "people", "age", byAge, false);
+        selector.add("test", "people", "country", byCountry, false);
+        assertEquals(singletonList(byCountry), selector.select());
+    }
+
+    @Test
+    void cleared() {
+        IndexSelector selector = new IndexSelector(indexes());
+        selector.add("test", "people", "age", byAge, false);
+        selector.clear();
+        assertEquals(emptyList(), selector.select());
+    }
+
+    @Test
+    void conjunctionWithDisjunction() throws JSQLParserException {
+        assertEquals(singletonList(byAge), filters("age=30 and (country='US' or year_of_birth=1970)"));
+        assertEquals(singletonList(byAge), filters("(country='US' or year_of_birth=1970) and age=30"));
+    }
+
+    @Test
+    void disjunction() throws JSQLParserException {
+        assertEquals(asList(byCountry, byAge), filters("country='US' or age=30"));
+        assertEquals(asList(byCountry, byAge, Filter.range("year_of_birth", 1970, 1980)), filters("country='US' or (age=30 or year_of_birth between 1970 and 1980)"));
+        assertEquals(asList(byAge, Filter.equal("age", 40)), filters("(age=30 and name='John') or (40=age and name like 'J%')"));
+    }
+
+    @Test
+    void disjunctionWithoutIndex() throws JSQLParserException {
+        assertEquals(emptyList(), filters("country='US' or name='John'"));
+        assertEquals(emptyList(), filters("country='US' or age>30"));
+        assertEquals(emptyList(), filters("country='US' or not age=30"));
+        assertEquals(emptyList(), filters("country='US' or PK=1"));
+    }
+
+    @Test
+    void disjunctionReturnsTooManyRecords() throws JSQLParserException {
+        SecondaryIndexes indexes = indexes();
+        indexes.setIndexStatistics("test", "people", "age", 1000, 100);
+        indexes.setIndexStatistics("test", "people", "country", 1000, 2);
+        indexes.setRecords("test", "people", 1000);
+
+        IndexSelector selector = new IndexSelector(indexes);
+        selector.add("test", "people", parseCondExpression("country='US' or age=30"));
+        assertEquals(emptyList(), selector.select());
+        selector.clear();
+        selector.add("test", "people", parseCondExpression("age=40 or age=30"));
+        assertEquals(2, selector.select().size());
+    }
+
+    @Test
+    void in() throws JSQLParserException {
+        assertEquals(asList(byAge, Filter.equal("age", 40)), filters("age in (30, 40)"));
+        assertEquals(asList(byCountry, Filter.equal("country", "UK"), byAge), filters("country in ('US', 'UK') or age=30"));
+        assertEquals(singletonList(byAge), filters("age=30 and country in ('US', 'UK')"));
+        assertEquals(emptyList(), filters("age in (30, year_of_birth)"));
+        assertEquals(emptyList(), filters("age not in (30, 40)"));
+        assertEquals(emptyList(), filters("name in ('John', 'Paul')"));
+    }
+
+    @Test
+    void inIsCheaperThanEquality() throws JSQLParserException {
+        SecondaryIndexes indexes = indexes();
+        indexes.setIndexStatistics("test", "people", "age", 1000, 100);
+        indexes.setIndexStatistics("test", "people", "country", 1000, 10);
+
+        IndexSelector selector = new IndexSelector(indexes);
+        selector.add("test", "people", parseCondExpression("country='US' and age in (30, 40)"));
+        assertEquals(asList(byAge, Filter.equal("age", 40)), selector.select());
+    }
+
+    private List<Filter> filters(String where) throws JSQLParserException {
+        IndexSelector selector = new IndexSelector(indexes());
+        selector.add("test", "people", parseCondExpression(where));
+        return selector.select();
+    }
+
+    private SecondaryIndexes indexes() {
+        return new SecondaryIndexes(asList("test.people.age", "test.people.country", "test.people.year_of_birth"));
+    }
+}
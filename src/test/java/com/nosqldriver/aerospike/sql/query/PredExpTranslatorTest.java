@@ -0,0 +1,126 @@
+package com.nosqldriver.aerospike.sql.query;
+
+import com.aerospike.client.query.PredExp;
+import com.aerospike.client.query.RegexFlag;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PredExpTranslatorTest {
+    @Test
+    void comparison() throws JSQLParserException {
+        assertTranslated("a > 5", null, PredExp.integerBin("a"), PredExp.integerValue(5), PredExp.integerGreater());
+        assertTranslated("5 > a", null, PredExp.integerBin("a"), PredExp.integerValue(5), PredExp.integerLess());
+        assertTranslated("a <= -5", null, PredExp.integerBin("a"), PredExp.integerValue(-5), PredExp.integerLessEq());
+        assertTranslated("name = 'John'", null, PredExp.stringBin("name"), PredExp.stringValue("John"), PredExp.stringEqual());
+        assertTranslated("name <> 'John'", null, PredExp.stringBin("name"), PredExp.stringValue("John"), PredExp.stringUnequal());
+    }
+
+    @Test
+    void logicalOperations() throws JSQLParserException {
+        assertTranslated("a > 5 AND (b = 'x' OR c < 3)", null,
+                PredExp.integerBin("a"), PredExp.integerValue(5), PredExp.integerGreater(),
+                PredExp.stringBin("b"), PredExp.stringValue("x"), PredExp.stringEqual(),
+                PredExp.integerBin("c"), PredExp.integerValue(3), PredExp.integerLess(),
+                PredExp.or(2),
+                PredExp.and(2));
+        assertTranslated("not (a > 5 or b = 'x')", null,
+                PredExp.integerBin("a"), PredExp.integerValue(5), PredExp.integerGreater(),
+                PredExp.stringBin("b"), PredExp.stringValue("x"), PredExp.stringEqual(),
+                PredExp.or(2),
+                PredExp.not());
+    }
+
+    @Test
+    void betweenInLike() throws JSQLParserException {
+        assertTranslated("a between 1 and 5", null,
+                PredExp.integerBin("a"), PredExp.integerValue(1), PredExp.integerGreaterEq(),
+                PredExp.integerBin("a"), PredExp.integerValue(5), PredExp.integerLessEq(),
+                PredExp.and(2));
+        assertTranslated("a not in (1, 2)", null,
+                PredExp.integerBin("a"), PredExp.integerValue(1), PredExp.integerEqual(),
+                PredExp.integerBin("a"), PredExp.integerValue(2), PredExp.integerEqual(),
+                PredExp.or(2),
+                PredExp.not());
+        assertTranslated("name like 'J_h%n.'", null, PredExp.stringBin("name"), PredExp.stringValue("^J.h.*n\\.$"), PredExp.stringRegex(RegexFlag.NONE));
+    }
+
+    @Test
+    void residue() throws JSQLParserException {
+        assertTranslated("a > 5 and b + 1 > 3 and c = 'x'", "b + 1 > 3",
+                PredExp.integerBin("a"), PredExp.integerValue(5), PredExp.integerGreater(),
+                PredExp.stringBin("c"), PredExp.stringValue("x"), PredExp.stringEqual(),
+                PredExp.and(2));
+        assertTranslated("a < 5 and (b + 1 > 3 or c = 'x')", "(b + 1 > 3 OR c = 'x')", PredExp.integerBin("a"), PredExp.integerValue(5), PredExp.integerLess());
+    }
+
+    @Test
+    void untranslatableConjunctsBelongToResidue() throws JSQLParserException {
+        assertTranslated("a > 5 and b = ? and PK = 1 and c in (select id from other)", "b = ? AND PK = 1 AND c IN (SELECT id FROM other)",
+                PredExp.integerBin("a"), PredExp.integerValue(5), PredExp.integerGreater());
+    }
+
+    @Test
+    void bind() throws JSQLParserException {
+        Expression where = CCJSqlParserUtil.parseCondExpression("a > ? and name like ? and b + 1 > ? and c = ?");
+        Expression bound = PredExpTranslator.bind(where, new Object[] {5L, "J%", 2.5, "it's"}).orElseThrow(() -> new AssertionError("Not bound"));
+        assertEquals("a > 5 AND name LIKE 'J%' AND b + 1 > 2.5 AND c = 'it''s'", bound.toString());
+        assertTranslated(bound.toString(), "b + 1 > 2.5",
+                PredExp.integerBin("a"), PredExp.integerValue(5), PredExp.integerGreater(),
+                PredExp.stringBin("name"), PredExp.stringValue("^J.*$"), PredExp.stringRegex(RegexFlag.NONE),
+                PredExp.stringBin("c"), PredExp.stringValue("it's"), PredExp.stringEqual(),
+                PredExp.and(3));
+        assertEquals("a = NULL", PredExpTranslator.bind(CCJSqlParserUtil.parseCondExpression("a = ?"), new Object[] {null}).map(Expression::toString).orElse(null));
+        assertFalse(PredExpTranslator.bind(CCJSqlParserUtil.parseCondExpression("a = ?"), new Object[] {new byte[0]}).isPresent());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a + 1 > 5", "a = b", "a > 5.5", "name > 'John'", "a is null", "len(name) > 3", "a > 5 or b + 1 > 3"})
+    void notTranslated(String where) throws JSQLParserException {
+        Expression expr = CCJSqlParserUtil.parseCondExpression(where);
+        PredExpTranslator translator = new PredExpTranslator(expr);
+        assertTrue(translator.getPredExps().isEmpty());
+        assertEquals(expr.toString(), translator.getResidue().toString());
+    }
+
+    @Test
+    void translatable() throws JSQLParserException {
+        assertTrue(PredExpTranslator.isTranslatable(CCJSqlParserUtil.parseCondExpression("a > 5 and b = 'x'")));
+        assertFalse(PredExpTranslator.isTranslatable(CCJSqlParserUtil.parseCondExpression("a > ?")));
+        assertFalse(PredExpTranslator.isTranslatable(CCJSqlParserUtil.parseCondExpression("PK = 1 and a > 5")));
+        assertFalse(PredExpTranslator.isTranslatable(CCJSqlParserUtil.parseCondExpression("a in (select id from other)")));
+        assertTrue(PredExpTranslator.isTranslatableWhenBound(CCJSqlParserUtil.parseCondExpression("a > ? and b = 'x'")));
+        assertFalse(PredExpTranslator.isTranslatableWhenBound(CCJSqlParserUtil.parseCondExpression("PK = ? and a > 5")));
+        assertTrue(PredExpTranslator.containsParameter(CCJSqlParserUtil.parseCondExpression("a > 1 and b in (?, 2)")));
+        assertTrue(PredExpTranslator.containsNegation(CCJSqlParserUtil.parseCondExpression("a > 1 and not b = 2")));
+        assertFalse(PredExpTranslator.containsNegation(CCJSqlParserUtil.parseCondExpression("a > 1 and b = 2")));
+    }
+
+    private void assertTranslated(String where, String expectedResidue, PredExp... expected) throws JSQLParserException {
+        PredExpTranslator translator = new PredExpTranslator(CCJSqlParserUtil.parseCondExpression(where));
+        assertArrayEquals(bytes(expected), bytes(translator.getPredExps().toArray(new PredExp[0])));
+        if (expectedResidue == null) {
+            assertNull(translator.getResidue());
+        } else {
+            assertEquals(expectedResidue, translator.getResidue().toString());
+        }
+    }
+
+    // PredExp does not implement equals(), so predicates are compared by their serialized form
+    private static byte[] bytes(PredExp[] predExps) {
+        byte[] bytes = new byte[PredExp.estimateSize(predExps)];
+        PredExp.write(predExps, bytes, 0);
+        return bytes;
+    }
+}
@@ -0,0 +1,77 @@
+package com.nosqldriver.aerospike.sql.query;
+
+import com.aerospike.client.Key;
+import net.sf.jsqlparser.JSQLParserException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.stream.Collectors.toList;
+import static net.sf.jsqlparser.parser.CCJSqlParserUtil.parseCondExpression;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrimaryKeyRangeTest {
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "PK between 3 and 5",
+            "PK >= 3 and PK <= 5",
+            "PK > 2 and PK < 6",
+            "2 < PK and 6 > PK",
+            "PK >= 0 and PK between 3 and 10 and PK < 6",
+    })
+    void range(String where) throws JSQLParserException {
+        PrimaryKeyRange range = parse(where).orElseThrow(IllegalStateException::new);
+        assertEquals(3, range.size());
+        assertEquals(Arrays.asList(3L, 4L, 5L), keys(range));
+        assertNull(range.getResidue());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "PK > 2",
+            "PK < 6",
+            "PK > 2 or PK < 6",
+            "PK not between 3 and 5",
+            "PK between ? and 5",
+            "id between 3 and 5",
+            "PK > 2 and id < 6",
+    })
+    void noRange(String where) throws JSQLParserException {
+        assertFalse(parse(where).isPresent());
+    }
+
+    @Test
+    void residue() throws JSQLParserException {
+        PrimaryKeyRange range = parse("PK between 1 and 10 and name='John' and (age > 30 or kids = 0)").orElseThrow(IllegalStateException::new);
+        assertEquals(10, range.size());
+        assertEquals("name = 'John' AND (age > 30 OR kids = 0)", range.getResidue().toString());
+    }
+
+    @Test
+    void empty() throws JSQLParserException {
+        PrimaryKeyRange range = parse("PK > 5 and PK < 5").orElseThrow(IllegalStateException::new);
+        assertEquals(0, range.size());
+        assertEquals(0, range.keys("test", "people").length);
+    }
+
+    @Test
+    void huge() throws JSQLParserException {
+        assertEquals(Long.MAX_VALUE, (long) parse("PK between -9223372036854775807 and 9223372036854775806").map(PrimaryKeyRange::size).orElse(0L));
+        assertTrue(parse("PK between -1 and 9223372036854775806").map(PrimaryKeyRange::size).orElse(0L) > Integer.MAX_VALUE);
+    }
+
+    private Optional<PrimaryKeyRange> parse(String where) throws JSQLParserException {
+        return PrimaryKeyRange.of(parseCondExpression(where));
+    }
+
+    private List<Long> keys(PrimaryKeyRange range) {
+        return Arrays.stream(range.keys("test", "people")).map(key -> key.userKey.toLong()).collect(toList());
+    }
+}
@@ -0,0 +1,46 @@
+package com.nosqldriver.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class DriverPolicyTest {
+    @Test
+    void copyAllFields() throws IllegalAccessException {
+        DriverPolicy defaults = new DriverPolicy();
+        DriverPolicy policy = new DriverPolicy();
+        policy.totalTimeout = 1234;
+        for (Field field : DriverPolicy.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                field.set(policy, otherValue(field.getType(), field.get(defaults)));
+            }
+        }
+
+        DriverPolicy copy = new DriverPolicy(policy);
+        assertEquals(1234, copy.totalTimeout);
+        for (Field field : DriverPolicy.class.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                assertNotEquals(field.get(defaults), field.get(copy), field.getName());
+                assertEquals(field.get(policy), field.get(copy), field.getName());
+            }
+        }
+    }
+
+    private Object otherValue(Class<?> type, Object value) {
+        if (int.class.equals(type)) {
+            return (Integer)value + 1;
+        }
+        if (boolean.class.equals(type)) {
+            return !(Boolean)value;
+        }
+        if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            return value == constants[0] ? constants[1] : constants[0];
+        }
+        throw new IllegalArgumentException("Add value for field of type " + type + " to this test");
+    }
+}
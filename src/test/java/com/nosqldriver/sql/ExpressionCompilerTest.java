@@ -0,0 +1,211 @@
+package com.nosqldriver.sql;
+
+import com.nosqldriver.util.FunctionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptySet;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.ParameterizedTest.ARGUMENTS_PLACEHOLDER;
+
+class ExpressionCompilerTest {
+    private final ExpressionCompiler compiler = new ExpressionCompiler(new FunctionManager(null));
+    private final Map<String, Object> row = new HashMap<>();
+    {
+        row.put("name", "John");
+        row.put("year", 1940L);
+        row.put("kids", 2L);
+        row.put("height", 1.8);
+        row.put("nothing", null);
+        row.put("count(*)", 3L);
+        row.put("max(kids)", 5L);
+        row.put("p.first", "Paul");
+    }
+    private final Map<String, Integer> types = new HashMap<>();
+    {
+        types.put("name", Types.VARCHAR);
+        types.put("year", Types.BIGINT);
+        types.put("kids", Types.INTEGER);
+        types.put("height", Types.DOUBLE);
+        types.put("nothing", Types.BIGINT);
+    }
+
+    @Test
+    void arithmetic() {
+        assertEquals(8, eval("3 + 5"));
+        assertEquals(1942, eval("year + kids"));
+        assertEquals(3880, eval("year * kids"));
+        assertEquals(970, eval("year / kids"));
+        assertEquals(3.5, eval("7 / 2"));
+        assertEquals(1, eval("7 % 2"));
+        assertEquals(-1940, eval("-year"));
+        assertEquals(3.6, (Double)eval("height * kids"), 0.0001);
+        assertEquals(5000000000L, eval("5000000 * 1000"));
+        assertNull(eval("year + nothing"));
+    }
+
+    @Test
+    void strings() {
+        assertEquals("John1940", eval("name + year"));
+        assertEquals("John Lennon", eval("name || ' Lennon'"));
+        assertEquals("JOHN", eval("upper(name)"));
+        assertEquals("JOHN", eval("UPPER(name)"));
+        assertEquals("Jo", eval("left(name, 2)"));
+        assertEquals(4, eval("len(name)"));
+    }
+
+    @Test
+    void functions() {
+        assertEquals(2.0, eval("floor(2.5)"));
+        assertEquals(1940L, eval("coalesce(nothing, year)"));
+        assertEquals(3L, eval("count(*)"));
+        assertEquals(5L, eval("max(kids)"));
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(strings = {
+            "year = 1940", "year = '1940'", "1940 = year", "name = 'John'", "year <> 1941", "year != 1941", "year > 1900", "year >= 1940", "year < 2000", "year <= 1940",
+            "height > 1.5", "year > 1900 and name = 'John'", "year > 2000 or name = 'John'", "not year > 2000", "nothing is null", "name is not null",
+            "year between 1900 and 2000", "year not between 1950 and 2000", "year in (1930, 1940)", "name not in ('Paul', 'George')",
+            "name like 'J%'", "name like '%hn'", "name like '%oh%'", "name like 'J_hn'", "name not like 'P%'",
+            "case when year > 1900 then true else false end", "(year > 1900)", "p.first = 'Paul'",
+            "1900 < year", "2000 >= year", "1940 = year", "1941 <> year", "year > 1939.5", "1940.5 > year", "height < 2", "height = 1.8", "year > -1",
+            "year > 1900 + 39", "year = 2 * 970", "'1940' = year",
+    })
+    void matches(String expr) {
+        assertTrue(ExpressionCompiler.isTrue(eval(expr)), expr);
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(strings = {
+            "year = 1941", "name = 'Paul'", "nothing = 1", "nothing <> 1", "nothing > 1", "nothing in (1, 2)", "nothing is not null",
+            "name like 'P%'", "name like 'j%'", "year between 1950 and 2000", "missing = 1", "year > 1900 and name = 'Paul'",
+            "1 = nothing", "1 <> nothing", "nothing > 1.5", "1941 <= year", "year < 1939.5", "height > 2",
+            "not nothing = 1", "not nothing <> 1", "nothing not between 1 and 2", "nothing not in (1, 2)", "nothing not like 'P%'",
+            "year not in (1930, nothing)", "not (nothing = 1 or year = 1941)",
+    })
+    void doesNotMatch(String expr) {
+        assertFalse(ExpressionCompiler.isTrue(eval(expr)), expr);
+    }
+
+    @Test
+    void unknown() {
+        assertNull(eval("nothing = 1"));
+        assertNull(eval("not nothing = 1"));
+        assertNull(eval("nothing between 1 and 2"));
+        assertNull(eval("year in (1930, nothing)"));
+        assertNull(eval("nothing like 'J%'"));
+        assertNull(eval("year = 1940 and nothing = 1"));
+        assertNull(eval("year = 1941 or nothing = 1"));
+        assertEquals(false, eval("year = 1941 and nothing = 1"));
+        assertEquals(true, eval("year = 1940 or nothing = 1"));
+        assertEquals(true, eval("year in (1940, nothing)"));
+    }
+
+    @Test
+    void negation() {
+        assertEquivalent("nothing <> 1", "not nothing = 1");
+        assertEquivalent("year <> 1940", "not year = 1940");
+        assertEquivalent("year <> 1941", "not year = 1941");
+        assertEquivalent("nothing not between 1 and 2", "not (nothing between 1 and 2)");
+        assertEquivalent("year not between 1950 and 2000", "not (year between 1950 and 2000)");
+        assertEquivalent("year not between 1900 and 2000", "not (year between 1900 and 2000)");
+        assertEquivalent("nothing not in (1, 2)", "not (nothing in (1, 2))");
+        assertEquivalent("year not in (1930, nothing)", "not (year in (1930, nothing))");
+        assertEquivalent("year not in (1940, nothing)", "not (year in (1940, nothing))");
+        assertEquivalent("name not in ('Paul', 'George')", "not (name in ('Paul', 'George'))");
+        assertEquivalent("nothing not like 'J%'", "not (nothing like 'J%')");
+        assertEquivalent("name not like 'J%'", "not (name like 'J%')");
+        assertEquivalent("name not like 'P%'", "not (name like 'P%')");
+        assertEquivalent("nothing is not null", "not (nothing is null)");
+        assertEquivalent("not (nothing = 1 and year = 1940)", "nothing <> 1 or year <> 1940");
+        assertEquivalent("not (nothing = 1 or year = 1941)", "nothing <> 1 and year <> 1941");
+    }
+
+    @Test
+    void caseExpression() {
+        assertEquals("old", eval("case when year < 1950 then 'old' when year < 2000 then 'middle' else 'young' end"));
+        assertEquals("two", eval("case kids when 1 then 'one' when 2 then 'two' end"));
+        assertNull(eval("case kids when 1 then 'one' end"));
+    }
+
+    @Test
+    void constantsAreCalculatedOnce() {
+        CompiledExpression expr = compiler.compile("(2 * 3 + 1) * 10 > 7 + 1").orElseThrow(() -> new AssertionError("Cannot compile"));
+        assertEquals(true, expr.eval(name -> {
+            throw new AssertionError("Constant expression should not refer to " + name);
+        }));
+        assertEquals(70, compiler.compile("(2 * 3 + 1) * 10").map(e -> e.eval(name -> null)).orElse(null));
+    }
+
+    @Test
+    void variables() {
+        assertEquals(new HashSet<>(asList("year", "p.first", "first", "upper(name)", "name", "count(*)")),
+                new HashSet<>(compiler.variables("year > 1900 and p.first = upper(name) or count(*) > 1")));
+        assertEquals(emptySet(), new HashSet<>(compiler.variables("1 + 2")));
+        assertEquals(emptySet(), new HashSet<>(compiler.variables("year > 1900 and (")));
+    }
+
+    @Test
+    void slots() {
+        CompiledExpression expr = compiler.compile("year > 1900 and p.first = upper(name) or count(*) > 1 and year < 2000").orElseThrow(() -> new AssertionError("Cannot compile"));
+        assertEquals(asList("year", "p.first", "first", "name", "count(*)"), expr.getVariables());
+        assertEquals(true, expr.eval(new Object[] {1940L, null, "JOHN", "john", 0L}));
+        assertEquals(false, expr.eval(new Object[] {1940L, "Paul", "JOHN", "john", 0L}));
+        assertEquals(true, expr.eval(new Object[] {1940L, "Paul", "JOHN", "john", 2L}));
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(strings = {
+            "year + kids", "year - kids", "year * kids", "year / kids", "year % kids", "height * kids", "height / kids", "-year", "-height",
+            "year * 5000000000000000", "year % 0", "year / 0", "year + nothing", "year + name", "year = kids", "height * 10 > year",
+            "year > 1900 and height < 2", "year > 2000 or kids = 2", "not (year > 2000 or kids <> 2)", "(year + kids) * 2 >= 3884.0",
+    })
+    void specialized(String expr) {
+        assertEquals(eval(expr), compiler.compile(expr, types).orElseThrow(() -> new AssertionError("Cannot compile " + expr)).eval(row::get), expr);
+    }
+
+    @Test
+    void specializedForOtherTypes() {
+        Map<String, Integer> otherTypes = new HashMap<>();
+        otherTypes.put("year", Types.DOUBLE);
+        otherTypes.put("height", Types.BIGINT);
+        assertEquals(eval("year * height + 1"), compiler.compile("year * height + 1", otherTypes).map(e -> e.eval(row::get)).orElse(null));
+    }
+
+    @ParameterizedTest(name = ARGUMENTS_PLACEHOLDER)
+    @ValueSource(strings = {"year == 1940", "name.match(/J.*/)", "unknown_function(name) > 0 and (", "year = date '2000-01-01'", "lenn(name) > 3", "Math.max(year, kids) > 0"})
+    void notCompiled(String expr) {
+        assertFalse(compiler.compile(expr).isPresent(), expr);
+    }
+
+    @Test
+    void unknownFunctionsCalledByCallback() {
+        ExpressionCompiler compiler = new ExpressionCompiler(new FunctionManager(null), (name, args) -> {
+            assertEquals("unknown_function", name);
+            return args[0] + "!";
+        });
+        assertEquals("JOHN!", compiler.compile("unknown_function(upper(name))").map(e -> e.eval(row::get)).orElse(null));
+        assertEquals(false, compiler.compile("nothing <> 1 and unknown_function(name) = 'John!'").map(e -> ExpressionCompiler.isTrue(e.eval(row::get))).orElse(null));
+        assertNull(compiler.compile("unknown_function(name) = 'John!' and nothing <> 1").map(e -> e.eval(row::get)).orElse(false));
+        assertFalse(compiler.compile("name.match(/J.*/)").isPresent());
+    }
+
+    private void assertEquivalent(String expr, String equivalent) {
+        assertEquals(eval(expr), eval(equivalent), expr + " vs " + equivalent);
+    }
+
+    private Object eval(String expr) {
+        return compiler.compile(expr).orElseThrow(() -> new AssertionError("Cannot compile " + expr)).eval(row::get);
+    }
+}
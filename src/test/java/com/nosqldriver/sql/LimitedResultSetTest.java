@@ -0,0 +1,68 @@
+package com.nosqldriver.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.nosqldriver.sql.DataColumn.DataColumnRole.DATA;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimitedResultSetTest {
+    private static final String NAMESPACE = "namespace";
+    private static final String TABLE = "table";
+    private static final List<DataColumn> dataColumn = singletonList(DATA.create(NAMESPACE, TABLE, "data", "data"));
+
+    @Test
+    void limit() throws SQLException {
+        ResultSet source = source();
+        ResultSet rs = new LimitedResultSet(source, dataColumn, 0, 2, true);
+        assertEquals(asList("a", "b"), read(rs));
+        assertTrue(source.isClosed()); // the rest of records is not read
+        assertFalse(rs.isClosed());
+        assertFalse(rs.next());
+        rs.close();
+        assertTrue(rs.isClosed());
+        assertThrows(SQLException.class, rs::next);
+    }
+
+    @Test
+    void offsetAndLimit() throws SQLException {
+        ResultSet source = source();
+        assertEquals(asList("b", "c"), read(new LimitedResultSet(source, dataColumn, 1, 2, true)));
+        assertTrue(source.isClosed());
+    }
+
+    @Test
+    void offsetOnly() throws SQLException {
+        ResultSet source = source();
+        assertEquals(asList("c", "d"), read(new LimitedResultSet(source, dataColumn, 2, Long.MAX_VALUE, true)));
+        assertFalse(source.isClosed());
+    }
+
+    @Test
+    void zeroLimit() throws SQLException {
+        ResultSet source = source();
+        assertEquals(new ArrayList<>(), read(new LimitedResultSet(source, dataColumn, 0, 0, true)));
+        assertTrue(source.isClosed());
+    }
+
+    private ResultSet source() {
+        return new ListRecordSet(null, NAMESPACE, TABLE, dataColumn, asList(singletonList("a"), singletonList("b"), singletonList("c"), singletonList("d")));
+    }
+
+    private List<String> read(ResultSet rs) throws SQLException {
+        List<String> result = new ArrayList<>();
+        while (rs.next()) {
+            result.add(rs.getString(1));
+        }
+        return result;
+    }
+}
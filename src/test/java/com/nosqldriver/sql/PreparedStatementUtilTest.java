@@ -0,0 +1,54 @@
+package com.nosqldriver.sql;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PreparedStatementUtilTest {
+    @Test
+    void parameterizeNumericPrimaryKey() {
+        assertParameterized("select * from people where PK=1", "select * from people where PK=?", 1L);
+        assertParameterized("SELECT first_name, last_name FROM test.people WHERE PK = 12345", "SELECT first_name, last_name FROM test.people WHERE PK = ?", 12345L);
+        assertParameterized("select * from people where PK=1 limit 1", "select * from people where PK=? limit 1", 1L);
+    }
+
+    @Test
+    void parameterizeStringPrimaryKey() {
+        assertParameterized("select * from people where PK='john'", "select * from people where PK=?", "john");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "select * from people",
+            "select * from people where PK=?",
+            "select * from people where pk=1",
+            "select * from people where id=1",
+            "select * from people where PK>1",
+            "select * from people where PK=1 and id=2",
+            "select * from people where PK in (1, 2)",
+            "select * from people where PK='it''s'",
+            "select * from people where PK=12345678901234567890",
+            "select * from people where PK=1 order by id",
+            "select * from people join kids on people.id=kids.parent where PK=1",
+            "select * from (select * from people) where PK=1",
+            "delete from people where PK=1",
+    })
+    void notParameterized(String sql) {
+        assertFalse(PreparedStatementUtil.parameterizePrimaryKey(sql).isPresent());
+    }
+
+    private void assertParameterized(String sql, String expectedSql, Object expectedValue) {
+        Optional<Entry<String, Object[]>> parameterized = PreparedStatementUtil.parameterizePrimaryKey(sql);
+        assertTrue(parameterized.isPresent());
+        assertEquals(expectedSql, parameterized.get().getKey());
+        assertArrayEquals(new Object[] {expectedValue}, parameterized.get().getValue());
+    }
+}
@@ -0,0 +1,67 @@
+package com.nosqldriver.sql;
+
+import com.nosqldriver.util.FunctionManager;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.nosqldriver.sql.DataColumn.DataColumnRole.DATA;
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResultSetRowFilterTest {
+    private final String catalog = "catalog";
+    private final String table = "table";
+
+    @Test
+    void filterByName() throws SQLException {
+        assertEquals(asList("John", "Ringo"), filter("year_of_birth = 1940"));
+    }
+
+    @Test
+    void filterByLabel() throws SQLException {
+        assertEquals(asList("Paul", "George"), filter("given_name like '%e%' or given_name = 'Paul'"));
+    }
+
+    @Test
+    void filterByCaseInsensitiveName() throws SQLException {
+        assertEquals(asList("Paul", "George"), filter("YEAR_OF_BIRTH > 1940"));
+    }
+
+    @Test
+    void filterByUnknownColumn() throws SQLException {
+        assertEquals(asList("John", "Paul", "George", "Ringo"), filter("nothing is null"));
+    }
+
+    @Test
+    void filterByTypedColumn() throws SQLException {
+        assertEquals(asList("Paul", "George"), filter("year_of_birth + 1 > 1942", Types.BIGINT));
+        assertEquals(asList("John", "Ringo"), filter("year_of_birth * 2 = 3880", Types.BIGINT));
+    }
+
+    private Collection<String> filter(String expr) throws SQLException {
+        return filter(expr, 0);
+    }
+
+    private Collection<String> filter(String expr, int yearType) throws SQLException {
+        ResultSet rs = new ListRecordSet(
+                null,
+                catalog,
+                table,
+                asList(DATA.create(catalog, table, "first_name", "given_name"), DATA.create(catalog, table, "year_of_birth", "year_of_birth").withType(yearType)),
+                asList(asList("John", 1940L), asList("Paul", 1942L), asList("George", 1943L), asList("Ringo", 1940L)));
+        ResultSetRowFilter filter = new ResultSetRowFilter(expr, new FunctionManager(null), new DriverPolicy());
+        List<String> names = new ArrayList<>();
+        while (rs.next()) {
+            if (filter.test(rs)) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+}
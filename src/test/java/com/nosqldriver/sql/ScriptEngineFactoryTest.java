@@ -0,0 +1,76 @@
+package com.nosqldriver.sql;
+
+import com.nosqldriver.util.FunctionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.script.Bindings;
+import javax.script.ScriptEngine;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import static javax.script.ScriptContext.ENGINE_SCOPE;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScriptEngineFactoryTest {
+    private final FunctionManager functionManager = new FunctionManager(null);
+    private final DriverPolicy driverPolicy = new DriverPolicy();
+
+    @AfterEach
+    void cleanup() {
+        ScriptEngineFactory.cleanup();
+    }
+
+    @Test
+    void engineIsReusedByThread() {
+        ScriptEngine engine = new ScriptEngineFactory(functionManager, driverPolicy).getEngine();
+        assertNotNull(engine);
+        assertSame(engine, new ScriptEngineFactory(functionManager, driverPolicy).getEngine());
+    }
+
+    @Test
+    void engineIsNotSharedBetweenThreads() throws ExecutionException, InterruptedException {
+        ScriptEngine engine = new ScriptEngineFactory(functionManager, driverPolicy).getEngine();
+        ScriptEngine otherEngine = CompletableFuture.supplyAsync(() -> {
+            try {
+                return new ScriptEngineFactory(functionManager, driverPolicy).getEngine();
+            } finally {
+                ScriptEngineFactory.cleanup();
+            }
+        }).get();
+        assertNotNull(otherEngine);
+        assertNotSame(engine, otherEngine);
+    }
+
+    @Test
+    void variablesAreRemovedFunctionsAreKept() {
+        ScriptEngine engine = new ScriptEngineFactory(functionManager, driverPolicy).getEngine();
+        Bindings bindings = engine.getBindings(ENGINE_SCOPE);
+        assertTrue(bindings.containsKey("upper"));
+        Object upper = bindings.get("upper");
+        bindings.put("year", 1940);
+        bindings.put("len", 3);
+
+        new ScriptEngineFactory(functionManager, driverPolicy);
+        assertFalse(bindings.containsKey("year"));
+        assertSame(upper, bindings.get("upper"));
+        // function overridden by variable is bound again
+        assertTrue(bindings.containsKey("len"));
+        assertFalse(Integer.valueOf(3).equals(bindings.get("len")));
+    }
+
+    @Test
+    void addedFunctionIsBound() {
+        ScriptEngine engine = new ScriptEngineFactory(functionManager, driverPolicy).getEngine();
+        Bindings bindings = engine.getBindings(ENGINE_SCOPE);
+        assertFalse(bindings.containsKey("my_function"));
+        functionManager.addFunction("my_function", (Function<String, String>) s -> s);
+        new ScriptEngineFactory(functionManager, driverPolicy);
+        assertTrue(bindings.containsKey("my_function"));
+    }
+}
@@ -52,5 +52,14 @@ class SqlUtilTest {
         assertEquals(sql, SqlUtil.fix(sql));
     }
 
+    @Test
+    void likeToRegex() {
+        assertEquals("J.*n.", SqlUtil.likeToRegex("J%n_", false));
+        assertEquals("^J.*n.$", SqlUtil.likeToRegex("J%n_", true));
+        assertEquals("a\\.b\\*c\\(\\)\\$", SqlUtil.likeToRegex("a.b*c()$", false));
+        assertTrue("a.b*c()$".matches(SqlUtil.likeToRegex("a.b*c()$", false)));
+        assertFalse("axb*c()$".matches(SqlUtil.likeToRegex("a.b*c()$", false)));
+    }
+
     // executeQuery: select * from (select * from people)
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
@@ -12,13 +14,16 @@ import javax.script.SimpleBindings;
 
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 class ScriptEngineWrapperTest {
     private final ScriptEngine engine = mock(ScriptEngine.class);
@@ -83,6 +88,31 @@ class ScriptEngineWrapperTest {
         verify(wrapped, times(1)).fixScript("script");
     }
 
+    @Test
+    void compiledScriptIsCached() throws ScriptException {
+        ScriptEngine compilableEngine = mock(ScriptEngine.class, withSettings().extraInterfaces(Compilable.class));
+        CompiledScript compiled = mock(CompiledScript.class);
+        when(((Compilable)compilableEngine).compile("script")).thenReturn(compiled);
+        when(compiled.eval(context)).thenReturn("result1", "result2");
+        ScriptEngineWrapper compilableWrapper = new ScriptEngineWrapper(compilableEngine);
+
+        assertEquals("result1", compilableWrapper.eval("script", context));
+        assertEquals("result2", compilableWrapper.eval("script", context));
+        verify((Compilable)compilableEngine, times(1)).compile("script");
+        verify(compiled, times(2)).eval(context);
+        verify(compilableEngine, never()).eval("script", context);
+    }
+
+    @Test
+    void fixScript() {
+        bindings.put("first name", "John");
+        bindings.put("len", (Function<String, Integer>) String::length);
+        when(engine.getBindings(ScriptContext.ENGINE_SCOPE)).thenReturn(bindings);
+        assertEquals("first name + \"other\"", wrapped.fixScript("\"first name\" + \"other\""));
+        assertEquals("\"len\" + first name", wrapped.fixScript("\"len\" + \"first name\""));
+        assertEquals(ScriptEngineWrapper.EMPTY_COLUMN_PLACEHOLDER + " + 1", wrapped.fixScript("\"\" + 1"));
+    }
+
     @Test
     void get() {
         when(engine.get("hello")).thenReturn("bye");